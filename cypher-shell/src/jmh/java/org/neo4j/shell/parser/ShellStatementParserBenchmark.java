@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Splitting of scripts into statements, line by line as the shell reads them.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class ShellStatementParserBenchmark
+{
+    public enum Script
+    {
+        // One short statement per line, like generated import scripts
+        SIMPLE( "CREATE (:Person {id: %d, name: 'name'});" ),
+        // Statements with quotes, backticks and comments, spread over several lines
+        QUOTED( "MATCH (n:`Odd;Label` {name: \"a;b\"}) // comment; with a semicolon\n" +
+                "WHERE n.text = 'it''s \\' %d' /* block; comment */\n" +
+                "RETURN n;" ),
+        // A long single line, like a statement with a large literal list
+        LONG_LINE( "UNWIND [%d" + repeat( ", 1234567", 500 ) + "] AS x RETURN x;" );
+
+        private final String template;
+
+        Script( String template )
+        {
+            this.template = template;
+        }
+
+        private static String repeat( String text, int times )
+        {
+            StringBuilder sb = new StringBuilder();
+            for ( int i = 0; i < times; i++ )
+            {
+                sb.append( text );
+            }
+            return sb.toString();
+        }
+    }
+
+    @Param( {"SIMPLE", "QUOTED", "LONG_LINE"} )
+    public Script script;
+
+    @Param( {"1000"} )
+    public int statements;
+
+    private List<String> lines;
+
+    @Setup
+    public void setup()
+    {
+        lines = new ArrayList<>();
+        for ( int i = 0; i < statements; i++ )
+        {
+            for ( String line : String.format( script.template, i ).split( "\n" ) )
+            {
+                lines.add( line + "\n" );
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseMoreText( Blackhole blackhole )
+    {
+        ShellStatementParser parser = new ShellStatementParser();
+        for ( String line : lines )
+        {
+            parser.parseMoreText( line );
+            if ( parser.hasStatements() )
+            {
+                blackhole.consume( parser.consumeStatements() );
+            }
+        }
+    }
+}
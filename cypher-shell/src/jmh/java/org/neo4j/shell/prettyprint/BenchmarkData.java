@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.BoltServerAddress;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.internal.summary.InternalDatabaseInfo;
+import org.neo4j.driver.internal.summary.InternalResultSummary;
+import org.neo4j.driver.internal.summary.InternalServerInfo;
+import org.neo4j.driver.internal.util.ServerVersion;
+import org.neo4j.driver.internal.value.ListValue;
+import org.neo4j.driver.internal.value.MapValue;
+import org.neo4j.driver.internal.value.NodeValue;
+import org.neo4j.driver.internal.value.RelationshipValue;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.neo4j.driver.summary.QueryType;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.state.ListBoltResult;
+
+import static org.neo4j.driver.internal.summary.InternalProfiledPlan.PROFILED_PLAN_FROM_VALUE;
+
+/**
+ * Builds the results, values and plans the benchmarks format, from the same driver types as the unit tests use.
+ */
+final class BenchmarkData
+{
+    private BenchmarkData()
+    {
+    }
+
+    static BoltResult result( int rows, OutputFormatterBenchmark.Columns columns )
+    {
+        List<String> keys = Arrays.asList( "a", "b", "c", "d" );
+        List<Record> records = new ArrayList<>( rows );
+        for ( int i = 0; i < rows; i++ )
+        {
+            records.add( new InternalRecord( keys, row( i, columns ) ) );
+        }
+        return new ListBoltResult( records, summary( null ), keys );
+    }
+
+    /**
+     * @return a map of lists of maps, and so on, with the given number of levels below the top
+     */
+    static Value nestedValue( int depth, int width )
+    {
+        if ( depth == 0 )
+        {
+            return Values.value( "leaf value with \"quotes\" and \\ backslashes" );
+        }
+        Map<String, Value> map = new LinkedHashMap<>();
+        for ( int i = 0; i < width; i++ )
+        {
+            Value[] items = new Value[width];
+            Arrays.fill( items, nestedValue( depth - 1, width ) );
+            map.put( "key" + i, new ListValue( items ) );
+        }
+        map.put( "number", Values.value( depth * 1.5 ) );
+        return new MapValue( map );
+    }
+
+    /**
+     * @return the summary of a profiled query whose plan has the given number of operators, branching every few levels like joins do
+     */
+    static ResultSummary profiledSummary( int operators )
+    {
+        ProfiledPlan plan = PROFILED_PLAN_FROM_VALUE.apply( operator( operators, 0 ) );
+        return summary( plan );
+    }
+
+    private static Value operator( int operators, int id )
+    {
+        Map<String, Value> operator = new HashMap<>();
+        operator.put( "operatorType", Values.value( id % 7 == 0 ? "NodeHashJoin" : "Filter" ) );
+        operator.put( "dbHits", Values.value( 1000L * id ) );
+        operator.put( "rows", Values.value( 100L * id ) );
+        operator.put( "time", Values.value( 10_000L * id ) );
+        operator.put( "pageCacheHits", Values.value( 10L * id ) );
+        operator.put( "pageCacheMisses", Values.value( id ) );
+        Map<String, Value> arguments = new HashMap<>();
+        arguments.put( "Details", Values.value( "n.prop" + id + " > $param AND n:Label" + id ) );
+        arguments.put( "EstimatedRows", Values.value( 100.0 * id ) );
+        operator.put( "args", Values.value( arguments ) );
+        operator.put( "identifiers", Values.value( Arrays.asList( "n", "m", "  UNNAMED" + id ) ) );
+        if ( operators > 1 )
+        {
+            if ( id % 7 == 0 && operators > 2 )
+            {
+                int left = (operators - 1) / 2;
+                operator.put( "children", new ListValue( operator( left, id + 1 ), operator( operators - 1 - left, id + 1 + left ) ) );
+            }
+            else
+            {
+                operator.put( "children", new ListValue( operator( operators - 1, id + 1 ) ) );
+            }
+        }
+        return new MapValue( operator );
+    }
+
+    private static Value[] row( int i, OutputFormatterBenchmark.Columns columns )
+    {
+        switch ( columns )
+        {
+        case ENTITIES:
+            Map<String, Value> properties = new HashMap<>();
+            properties.put( "name", Values.value( "name " + i ) );
+            properties.put( "age", Values.value( i ) );
+            return new Value[] {
+                    new NodeValue( new InternalNode( i, Arrays.asList( "Person", "Employee" ), properties ) ),
+                    new RelationshipValue( new InternalRelationship( i, i, i + 1, "KNOWS", properties ) ),
+                    new NodeValue( new InternalNode( i + 1, Collections.singletonList( "Person" ), properties ) ),
+                    Values.value( i )};
+        case NESTED:
+            return new Value[] {nestedValue( 2, 3 ), Values.value( Arrays.asList( i, i + 1, i + 2 ) ), Values.value( "text " + i ), Values.NULL};
+        default:
+            return new Value[] {Values.value( i ), Values.value( i * 0.5 ), Values.value( "a string of some length " + i ), Values.value( i % 2 == 0 )};
+        }
+    }
+
+    private static ResultSummary summary( ProfiledPlan plan )
+    {
+        return new InternalResultSummary( new Query( "RETURN 1" ),
+                                          new InternalServerInfo( new BoltServerAddress( "localhost:7687" ), ServerVersion.vInDev ),
+                                          new InternalDatabaseInfo( "neo4j" ),
+                                          QueryType.READ_ONLY,
+                                          null,
+                                          plan,
+                                          plan,
+                                          Collections.emptyList(),
+                                          1,
+                                          1 );
+    }
+}
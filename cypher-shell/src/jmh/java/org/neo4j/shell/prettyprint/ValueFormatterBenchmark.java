@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.summary.ResultSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting of single values and of query plans.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class ValueFormatterBenchmark
+{
+    @Param( {"2", "4"} )
+    public int depth;
+
+    @Param( {"200"} )
+    public int operators;
+
+    private final OutputFormatter formatter = new SimpleOutputFormatter();
+    private Value nested;
+    private ResultSummary profiled;
+
+    @Setup
+    public void setup()
+    {
+        nested = BenchmarkData.nestedValue( depth, 4 );
+        profiled = BenchmarkData.profiledSummary( operators );
+    }
+
+    @Benchmark
+    public String formatNestedValue()
+    {
+        return formatter.formatValue( nested );
+    }
+
+    @Benchmark
+    public int formattedLengthOfNestedValue()
+    {
+        return formatter.formattedLength( nested );
+    }
+
+    @Benchmark
+    public String formatPlan()
+    {
+        return new TablePlanFormatter().formatPlan( profiled.profile() );
+    }
+}
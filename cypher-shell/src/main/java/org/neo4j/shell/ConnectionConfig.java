@@ -21,13 +21,22 @@ package org.neo4j.shell;
 
 import javax.annotation.Nonnull;
 
+import org.neo4j.driver.Config;
 import org.neo4j.shell.cli.Encryption;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 public class ConnectionConfig
 {
     public static final String USERNAME_ENV_VAR = "NEO4J_USERNAME";
     public static final String PASSWORD_ENV_VAR = "NEO4J_PASSWORD";
     public static final String DATABASE_ENV_VAR = "NEO4J_DATABASE";
+    private static final Config DRIVER_DEFAULTS = Config.defaultConfig();
+    public static final int DEFAULT_FETCH_SIZE = (int) DRIVER_DEFAULTS.fetchSize();
+    public static final int DEFAULT_MAX_CONNECTION_POOL_SIZE = DRIVER_DEFAULTS.maxConnectionPoolSize();
+    public static final int DEFAULT_CONNECTION_ACQUISITION_TIMEOUT_SECONDS =
+            (int) MILLISECONDS.toSeconds( DRIVER_DEFAULTS.connectionAcquisitionTimeoutMillis() );
+    public static final int DEFAULT_MAX_CONNECTION_LIFETIME_SECONDS = (int) MILLISECONDS.toSeconds( DRIVER_DEFAULTS.maxConnectionLifetimeMillis() );
 
     private final String scheme;
     private final String host;
@@ -37,6 +46,10 @@ public class ConnectionConfig
     private String password;
     private String newPassword;
     private String database;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int maxConnectionPoolSize = DEFAULT_MAX_CONNECTION_POOL_SIZE;
+    private int connectionAcquisitionTimeoutSeconds = DEFAULT_CONNECTION_ACQUISITION_TIMEOUT_SECONDS;
+    private int maxConnectionLifetimeSeconds = DEFAULT_MAX_CONNECTION_LIFETIME_SECONDS;
 
     public ConnectionConfig( @Nonnull String scheme,
                              @Nonnull String host,
@@ -55,6 +68,29 @@ public class ConnectionConfig
         this.database = fallbackToEnvVariable( database, DATABASE_ENV_VAR );
     }
 
+    /**
+     * @return a copy of this configuration, which can be changed without affecting this one
+     */
+    @Nonnull
+    public ConnectionConfig copy()
+    {
+        return withScheme( scheme );
+    }
+
+    /**
+     * @return a copy of this configuration, connecting with another scheme
+     */
+    @Nonnull
+    public ConnectionConfig withScheme( @Nonnull String scheme )
+    {
+        ConnectionConfig copy = new ConnectionConfig( scheme, host, port, username, password, encryption, database );
+        copy.fetchSize = fetchSize;
+        copy.maxConnectionPoolSize = maxConnectionPoolSize;
+        copy.connectionAcquisitionTimeoutSeconds = connectionAcquisitionTimeoutSeconds;
+        copy.maxConnectionLifetimeSeconds = maxConnectionLifetimeSeconds;
+        return copy;
+    }
+
     /**
      * @return preferredValue if not empty, else the contents of the fallback environment variable
      */
@@ -121,6 +157,29 @@ public class ConnectionConfig
         return database;
     }
 
+    /**
+     * @return the number of records to fetch from the server at a time
+     */
+    public int fetchSize()
+    {
+        return fetchSize;
+    }
+
+    public int maxConnectionPoolSize()
+    {
+        return maxConnectionPoolSize;
+    }
+
+    public int connectionAcquisitionTimeoutSeconds()
+    {
+        return connectionAcquisitionTimeoutSeconds;
+    }
+
+    public int maxConnectionLifetimeSeconds()
+    {
+        return maxConnectionLifetimeSeconds;
+    }
+
     public void setUsername( @Nonnull String username )
     {
         this.username = username;
@@ -136,6 +195,26 @@ public class ConnectionConfig
         this.newPassword = password;
     }
 
+    public void setFetchSize( int fetchSize )
+    {
+        this.fetchSize = fetchSize;
+    }
+
+    public void setMaxConnectionPoolSize( int maxConnectionPoolSize )
+    {
+        this.maxConnectionPoolSize = maxConnectionPoolSize;
+    }
+
+    public void setConnectionAcquisitionTimeoutSeconds( int connectionAcquisitionTimeoutSeconds )
+    {
+        this.connectionAcquisitionTimeoutSeconds = connectionAcquisitionTimeoutSeconds;
+    }
+
+    public void setMaxConnectionLifetimeSeconds( int maxConnectionLifetimeSeconds )
+    {
+        this.maxConnectionLifetimeSeconds = maxConnectionLifetimeSeconds;
+    }
+
     public boolean passwordChangeRequired()
     {
         return this.newPassword != null;
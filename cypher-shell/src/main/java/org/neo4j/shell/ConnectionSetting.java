@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The tuning settings of a connection, which can be given on the command line and changed with the :config command.
+ */
+public enum ConnectionSetting
+{
+    FETCH_SIZE( "fetch-size" )
+    {
+        @Override
+        public int get( @Nonnull ConnectionConfig config )
+        {
+            return config.fetchSize();
+        }
+
+        @Override
+        public void set( @Nonnull ConnectionConfig config, int value )
+        {
+            config.setFetchSize( value );
+        }
+    },
+    MAX_CONNECTION_POOL_SIZE( "max-connection-pool-size" )
+    {
+        @Override
+        public int get( @Nonnull ConnectionConfig config )
+        {
+            return config.maxConnectionPoolSize();
+        }
+
+        @Override
+        public void set( @Nonnull ConnectionConfig config, int value )
+        {
+            config.setMaxConnectionPoolSize( value );
+        }
+    },
+    CONNECTION_ACQUISITION_TIMEOUT( "connection-acquisition-timeout" )
+    {
+        @Override
+        public int get( @Nonnull ConnectionConfig config )
+        {
+            return config.connectionAcquisitionTimeoutSeconds();
+        }
+
+        @Override
+        public void set( @Nonnull ConnectionConfig config, int value )
+        {
+            config.setConnectionAcquisitionTimeoutSeconds( value );
+        }
+    },
+    MAX_CONNECTION_LIFETIME( "max-connection-lifetime" )
+    {
+        @Override
+        public int get( @Nonnull ConnectionConfig config )
+        {
+            return config.maxConnectionLifetimeSeconds();
+        }
+
+        @Override
+        public void set( @Nonnull ConnectionConfig config, int value )
+        {
+            config.setMaxConnectionLifetimeSeconds( value );
+        }
+    };
+
+    private final String settingName;
+
+    ConnectionSetting( String settingName )
+    {
+        this.settingName = settingName;
+    }
+
+    /**
+     * @return the name of the setting, as used on the command line without the leading dashes
+     */
+    @Nonnull
+    public String settingName()
+    {
+        return settingName;
+    }
+
+    public abstract int get( @Nonnull ConnectionConfig config );
+
+    public abstract void set( @Nonnull ConnectionConfig config, int value );
+
+    /**
+     * @return the setting with the given name, or null if there is no such setting
+     */
+    @Nullable
+    public static ConnectionSetting fromName( @Nonnull String name )
+    {
+        for ( ConnectionSetting setting : values() )
+        {
+            if ( setting.settingName.equalsIgnoreCase( name ) )
+            {
+                return setting;
+            }
+        }
+        return null;
+    }
+}
@@ -19,14 +19,20 @@
  */
 package org.neo4j.shell;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import org.neo4j.driver.QueryRunner;
+import org.neo4j.driver.Session;
 import org.neo4j.driver.exceptions.DiscoveryException;
 import org.neo4j.driver.exceptions.Neo4jException;
 import org.neo4j.driver.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.summary.ResultSummary;
 import org.neo4j.shell.commands.Command;
 import org.neo4j.shell.commands.CommandExecutable;
 import org.neo4j.shell.commands.CommandHelper;
@@ -38,6 +44,8 @@ import org.neo4j.shell.prettyprint.PrettyConfig;
 import org.neo4j.shell.prettyprint.PrettyPrinter;
 import org.neo4j.shell.state.BoltResult;
 import org.neo4j.shell.state.BoltStateHandler;
+import org.neo4j.shell.timing.QueryTimer;
+import org.neo4j.shell.timing.StatementTiming;
 
 /**
  * A possibly interactive shell for evaluating cypher statements.
@@ -53,6 +61,7 @@ public class CypherShell implements StatementExecuter, Connector, TransactionHan
     private final PrettyPrinter prettyPrinter;
     private CommandHelper commandHelper;
     private String lastNeo4jErrorCode;
+    private QueryTimer queryTimer;
 
     public CypherShell( @Nonnull LinePrinter linePrinter,
                         @Nonnull PrettyConfig prettyConfig,
@@ -91,6 +100,13 @@ public class CypherShell implements StatementExecuter, Connector, TransactionHan
     @Override
     public void execute( @Nonnull final String cmdString ) throws ExitException, CommandException
     {
+        execute( cmdString, linePrinter );
+    }
+
+    @Override
+    public void execute( @Nonnull final String cmdString, @Nonnull LinePrinter output ) throws ExitException, CommandException
+    {
+        final StatementTiming timing = startTiming();
         if ( isEmptyStatement( cmdString ) )
         {
             return;
@@ -110,7 +126,12 @@ public class CypherShell implements StatementExecuter, Connector, TransactionHan
             throw new CommandException( "Not connected to Neo4j" );
         }
 
-        executeCypher( cmdString );
+        executeCypher( cmdString, timing, output );
+    }
+
+    private StatementTiming startTiming()
+    {
+        return queryTimer == null ? StatementTiming.NONE : queryTimer.start();
     }
 
     private static boolean isEmptyStatement( final String statement )
@@ -128,26 +149,145 @@ public class CypherShell implements StatementExecuter, Connector, TransactionHan
      * Executes a piece of text as if it were Cypher. By default, all of the cypher is executed in single statement (with an implicit transaction).
      *
      * @param cypher non-empty cypher text to executeLine
+     * @param timing of the statement
+     * @param output to print the result with
      */
-    private void executeCypher( @Nonnull final String cypher ) throws CommandException
+    private void executeCypher( @Nonnull final String cypher, @Nonnull StatementTiming timing, @Nonnull LinePrinter output ) throws CommandException
     {
         try
         {
-            final Optional<BoltResult> result = boltStateHandler.runCypher( cypher, parameterMap.allParameterValues() );
+            final Map<String, Object> parameters = parameterMap.allParameterValues();
+            timing.sent();
+            final Optional<BoltResult> result = boltStateHandler.runCypher( cypher, parameters );
             result.ifPresent( boltResult ->
                               {
-                                  prettyPrinter.format( boltResult, linePrinter );
-                                  boltStateHandler.updateActualDbName( boltResult.getSummary() );
+                                  prettyPrinter.format( timing.time( boltResult ), timing.time( output ) );
+                                  ResultSummary summary = boltResult.getSummary();
+                                  boltStateHandler.updateActualDbName( summary );
+                                  timing.finish( summary );
                               } );
             lastNeo4jErrorCode = null;
         }
         catch ( Neo4jException e )
         {
             lastNeo4jErrorCode = getErrorCode( e );
+            timing.failed( lastNeo4jErrorCode );
+            throw boltStateHandler.handleException( e );
+        }
+    }
+
+    @Override
+    public void executeWithRetry( @Nonnull List<String> statements ) throws CommandException
+    {
+        // The first statement is timed from when the batch is sent and is attributed the retries of the batch. The results of the other statements
+        // are already at hand when they are timed.
+        final StatementTiming batchTiming = startTiming();
+        final long retriesBefore = boltStateHandler.getRetryCount();
+        try
+        {
+            final Map<String, Object> parameters = parameterMap.allParameterValues();
+            batchTiming.sent();
+            List<BoltResult> results = boltStateHandler.runCypherWithRetry( statements, parameters );
+            batchTiming.setRetries( (int) (boltStateHandler.getRetryCount() - retriesBefore) );
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                StatementTiming timing = batchTiming;
+                if ( i > 0 )
+                {
+                    timing = startTiming();
+                    timing.sent();
+                }
+                BoltResult boltResult = results.get( i );
+                prettyPrinter.format( timing.time( boltResult ), timing.time( linePrinter ) );
+                ResultSummary summary = boltResult.getSummary();
+                boltStateHandler.updateActualDbName( summary );
+                timing.finish( summary );
+            }
+            lastNeo4jErrorCode = null;
+        }
+        catch ( Neo4jException e )
+        {
+            lastNeo4jErrorCode = getErrorCode( e );
+            batchTiming.setRetries( (int) (boltStateHandler.getRetryCount() - retriesBefore) );
+            batchTiming.failed( lastNeo4jErrorCode );
             throw boltStateHandler.handleException( e );
         }
     }
 
+    /**
+     * Executes Cypher in the given session or transaction instead of the session of the shell, printing the result with the given printer. Apart from
+     * reading the parameters, this does not touch any state of the shell, so it can be called concurrently as long as each caller uses its own session.
+     *
+     * @param queryRunner to run the Cypher in, for example a session from {@link #openSession()}
+     * @param cypher      non-empty cypher text to execute
+     * @param linePrinter to print the result with
+     */
+    public void executeCypher( @Nonnull QueryRunner queryRunner, @Nonnull String cypher, @Nonnull LinePrinter linePrinter )
+    {
+        BoltStateHandler.getBoltResult( queryRunner, cypher, parameterMap.allParameterValues(), boltStateHandler.isParameterizingLiterals() )
+                        .ifPresent( boltResult -> prettyPrinter.format( boltResult, linePrinter ) );
+    }
+
+    /**
+     * Executes Cypher statements together in a transaction of the given session, which is retried if it fails because of a transient error. Like
+     * {@link #executeCypher(QueryRunner, String, LinePrinter)}, this can be called concurrently as long as each caller uses its own session.
+     *
+     * @param session     to run the Cypher in, for example a session from {@link #openSession()}
+     * @param statements  non-empty cypher statements to execute
+     * @param linePrinter to print the results with, once the transaction has been committed
+     */
+    public void executeCypherWithRetry( @Nonnull Session session, @Nonnull List<String> statements, @Nonnull LinePrinter linePrinter )
+    {
+        for ( BoltResult boltResult : BoltStateHandler.runCypherWithRetry( session, statements, parameterMap.allParameterValues(),
+                                                                             boltStateHandler.isParameterizingLiterals() ) )
+        {
+            prettyPrinter.format( boltResult, linePrinter );
+        }
+    }
+
+    /**
+     * @return a new session to the database of the shell, which can execute Cypher independently of the shell
+     * @throws CommandException if not connected
+     */
+    @Nonnull
+    public Session openSession() throws CommandException
+    {
+        return boltStateHandler.openSession();
+    }
+
+    @Override
+    public void holdTimings()
+    {
+        if ( queryTimer != null )
+        {
+            queryTimer.hold();
+        }
+    }
+
+    @Override
+    public void releaseTimings()
+    {
+        if ( queryTimer != null )
+        {
+            queryTimer.release();
+        }
+    }
+
+    @Override
+    public void discardTimings()
+    {
+        if ( queryTimer != null )
+        {
+            queryTimer.discard();
+        }
+    }
+
+    @Override
+    public boolean isCypher( @Nonnull String statement )
+    {
+        return !isEmptyStatement( statement ) && !getCommandExecutable( statement ).isPresent();
+    }
+
     @Override
     public boolean isConnected()
     {
@@ -234,11 +374,44 @@ public class CypherShell implements StatementExecuter, Connector, TransactionHan
         return boltStateHandler.isTransactionOpen();
     }
 
+    /**
+     * @return the settings of the current connection, or null if not connected
+     */
+    @Nullable
+    public ConnectionConfig getConnectionConfig()
+    {
+        return boltStateHandler.getConnectionConfig();
+    }
+
+    /**
+     * Change a connection setting, reconnecting to apply it.
+     */
+    public void reconfigure( @Nonnull ConnectionSetting setting, int value ) throws CommandException
+    {
+        boltStateHandler.reconfigure( setting, value );
+    }
+
     public void setCommandHelper( @Nonnull CommandHelper commandHelper )
     {
         this.commandHelper = commandHelper;
     }
 
+    /**
+     * Time each Cypher statement executed through {@link #execute(String)} with the given timer.
+     */
+    public void setQueryTimer( @Nonnull QueryTimer queryTimer )
+    {
+        this.queryTimer = queryTimer;
+    }
+
+    /**
+     * Enable/disable sending the literals of Cypher statements as parameters, see {@link BoltStateHandler#setParameterizeLiterals(boolean)}.
+     */
+    public void setParameterizeLiterals( boolean parameterizeLiterals )
+    {
+        boltStateHandler.setParameterizeLiterals( parameterizeLiterals );
+    }
+
     @Override
     public void reset()
     {
@@ -21,9 +21,11 @@ package org.neo4j.shell;
 
 import jline.console.ConsoleReader;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.file.Paths;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -32,12 +34,16 @@ import org.neo4j.driver.exceptions.Neo4jException;
 import org.neo4j.shell.build.Build;
 import org.neo4j.shell.cli.CliArgHelper;
 import org.neo4j.shell.cli.CliArgs;
+import org.neo4j.shell.cli.Format;
 import org.neo4j.shell.commands.CommandHelper;
 import org.neo4j.shell.exception.CommandException;
 import org.neo4j.shell.exception.ThrowingAction;
 import org.neo4j.shell.log.AnsiLogger;
+import org.neo4j.shell.log.FlushingPrintStream;
 import org.neo4j.shell.log.Logger;
 import org.neo4j.shell.prettyprint.PrettyConfig;
+import org.neo4j.shell.timing.MetricsExporter;
+import org.neo4j.shell.timing.QueryTimer;
 
 import static org.neo4j.shell.ShellRunner.isInputInteractive;
 import static org.neo4j.shell.ShellRunner.isOutputInteractive;
@@ -95,6 +101,18 @@ public class Main
         return hasSpecialInteractiveOutputStream ? this.out : ShellRunner.getOutputStreamForInteractivePrompt();
     }
 
+    /**
+     * Output to a terminal is flushed line by line as usual, while output to a file or pipe is buffered according to the flush policy.
+     */
+    private PrintStream getOutputStreamForResults( @Nonnull CliArgs cliArgs )
+    {
+        if ( !cliArgs.isOutputBuffered() || isOutputInteractive() )
+        {
+            return System.out;
+        }
+        return new FlushingPrintStream( System.out, cliArgs.getFlushPolicy(), cliArgs.getFlushRecords() );
+    }
+
     void startShell( @Nonnull CliArgs cliArgs )
     {
         if ( cliArgs.getVersion() )
@@ -109,12 +127,50 @@ public class Main
         {
             return;
         }
-        Logger logger = new AnsiLogger( cliArgs.getDebugMode() );
+        Logger logger = new AnsiLogger( cliArgs.getDebugMode(), Format.VERBOSE, getOutputStreamForResults( cliArgs ), System.err );
         PrettyConfig prettyConfig = new PrettyConfig( cliArgs );
 
         CypherShell shell = new CypherShell( logger, prettyConfig, ShellRunner.shouldBeInteractive( cliArgs ),
                                              cliArgs.getParameters() );
+        shell.setParameterizeLiterals( cliArgs.getParameterizeLiterals() );
+        QueryTimer queryTimer = null;
+        MetricsExporter metricsExporter = null;
+        if ( cliArgs.getTiming() || cliArgs.getMetricsOut() != null )
+        {
+            queryTimer = new QueryTimer( cliArgs.getTiming() ? logger::printError : null );
+            shell.setQueryTimer( queryTimer );
+        }
+        if ( cliArgs.getMetricsOut() != null )
+        {
+            try
+            {
+                metricsExporter = new MetricsExporter( Paths.get( cliArgs.getMetricsOut() ), cliArgs.getMetricsFormat() );
+            }
+            catch ( IOException e )
+            {
+                logger.printError( "Could not write metrics to " + cliArgs.getMetricsOut() + ": " + e.getMessage() );
+                System.exit( EXIT_FAILURE );
+            }
+            queryTimer.addListener( metricsExporter );
+        }
         int exitCode = runShell( cliArgs, shell, logger );
+        if ( queryTimer != null )
+        {
+            queryTimer.printSummary();
+        }
+        if ( metricsExporter != null )
+        {
+            try
+            {
+                metricsExporter.close();
+            }
+            catch ( IOException e )
+            {
+                logger.printError( "Could not write metrics to " + cliArgs.getMetricsOut() + ": " + e.getMessage() );
+                exitCode = EXIT_FAILURE;
+            }
+        }
+        logger.getOutputStream().flush();
         System.exit( exitCode );
     }
 
@@ -128,6 +184,10 @@ public class Main
                 cliArgs.getPassword(),
                 cliArgs.getEncryption(),
                 cliArgs.getDatabase() );
+        connectionConfig.setFetchSize( cliArgs.getFetchSize() );
+        connectionConfig.setMaxConnectionPoolSize( cliArgs.getMaxConnectionPoolSize() );
+        connectionConfig.setConnectionAcquisitionTimeoutSeconds( cliArgs.getConnectionAcquisitionTimeout() );
+        connectionConfig.setMaxConnectionLifetimeSeconds( cliArgs.getMaxConnectionLifetime() );
         try
         {
             //If user is passing in a cypher statement just run that and be done with it
@@ -22,7 +22,6 @@ package org.neo4j.shell;
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.io.output.WriterOutputStream;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -37,6 +36,7 @@ import org.neo4j.shell.cli.CliArgs;
 import org.neo4j.shell.cli.FileHistorian;
 import org.neo4j.shell.cli.InteractiveShellRunner;
 import org.neo4j.shell.cli.NonInteractiveShellRunner;
+import org.neo4j.shell.cli.ParallelShellRunner;
 import org.neo4j.shell.log.Logger;
 import org.neo4j.shell.parser.ShellStatementParser;
 
@@ -71,11 +71,17 @@ public interface ShellRunner
             return new InteractiveShellRunner( cypherShell, cypherShell, cypherShell, logger, new ShellStatementParser(),
                                                System.in, FileHistorian.getDefaultHistoryFile(), userMessagesHandler, connectionConfig );
         }
+        else if ( cliArgs.getParallelism() > 1 )
+        {
+            return new ParallelShellRunner( cliArgs.getFailBehavior(), cypherShell, logger, new ShellStatementParser(), getInputStream( cliArgs ),
+                                            cliArgs.getParallelism(), cliArgs.getOrderedOutput(), cliArgs.getBatchSize(), cliArgs.getRetryTransient() );
+        }
         else
         {
 
-            return new NonInteractiveShellRunner( cliArgs.getFailBehavior(), cypherShell, logger,
-                                                  new ShellStatementParser(), getInputStream( cliArgs ) );
+            return new NonInteractiveShellRunner( cliArgs.getFailBehavior(), cypherShell, cypherShell, logger,
+                                                  new ShellStatementParser(), getInputStream( cliArgs ), cliArgs.getBatchSize(),
+                                                  cliArgs.getRetryTransient() );
         }
     }
 
@@ -158,7 +164,8 @@ public interface ShellRunner
         }
         else
         {
-            return new BufferedInputStream( new FileInputStream( new File( cliArgs.getInputFilename() ) ) );
+            // Not buffered, so that the file can be split into statements without reading it through the stream
+            return new FileInputStream( new File( cliArgs.getInputFilename() ) );
         }
     }
 
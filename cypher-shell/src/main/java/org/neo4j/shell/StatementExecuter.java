@@ -19,10 +19,12 @@
  */
 package org.neo4j.shell;
 
+import java.util.List;
 import javax.annotation.Nonnull;
 
 import org.neo4j.shell.exception.CommandException;
 import org.neo4j.shell.exception.ExitException;
+import org.neo4j.shell.prettyprint.LinePrinter;
 
 /**
  * An interface which executes statements
@@ -39,6 +41,45 @@ public interface StatementExecuter
      */
     void execute( @Nonnull String statement ) throws ExitException, CommandException;
 
+    /**
+     * Execute a statement, printing the result of Cypher with the given printer instead of the printer of the shell
+     *
+     * @param statement to execute
+     * @param output    to print the result of Cypher with
+     * @throws ExitException    if a command to exit was executed
+     * @throws CommandException if something went wrong
+     */
+    void execute( @Nonnull String statement, @Nonnull LinePrinter output ) throws ExitException, CommandException;
+
+    /**
+     * Execute Cypher statements together in a single transaction, which is retried if it fails because of a transient error
+     *
+     * @param statements Cypher statements to execute, no commands
+     * @throws CommandException if something went wrong
+     */
+    void executeWithRetry( @Nonnull List<String> statements ) throws CommandException;
+
+    /**
+     * Hold back the timings of the statements executed from now on, until their transaction is either committed or rolled back
+     */
+    void holdTimings();
+
+    /**
+     * Count the timings held back since {@link #holdTimings()}, as their transaction has been committed
+     */
+    void releaseTimings();
+
+    /**
+     * Drop the timings held back since {@link #holdTimings()}, as their transaction has been rolled back
+     */
+    void discardTimings();
+
+    /**
+     * @param statement to check
+     * @return true if the statement is Cypher, false if it is empty or a command to the shell
+     */
+    boolean isCypher( @Nonnull String statement );
+
     /**
      * Stops any running statements
      */
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.cli;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.neo4j.shell.prettyprint.LinePrinter;
+
+/**
+ * Output which is held back until it can be printed, keeping track of which lines are result data.
+ */
+class BufferedOutput implements LinePrinter
+{
+    private final List<String> lines = new ArrayList<>();
+    private final BitSet data = new BitSet();
+
+    @Override
+    public void printOut( String line )
+    {
+        lines.add( line );
+    }
+
+    @Override
+    public void printData( String line )
+    {
+        data.set( lines.size() );
+        lines.add( line );
+    }
+
+    void printTo( LinePrinter linePrinter )
+    {
+        for ( int i = 0; i < lines.size(); i++ )
+        {
+            if ( data.get( i ) )
+            {
+                linePrinter.printData( lines.get( i ) );
+            }
+            else
+            {
+                linePrinter.printOut( lines.get( i ) );
+            }
+        }
+    }
+
+    void clear()
+    {
+        lines.clear();
+        data.clear();
+    }
+}
@@ -40,6 +40,8 @@ import javax.annotation.Nullable;
 
 import org.neo4j.shell.ConnectionConfig;
 import org.neo4j.shell.ParameterMap;
+import org.neo4j.shell.log.FlushPolicy;
+import org.neo4j.shell.timing.MetricsExporter;
 
 import static java.lang.String.format;
 import static org.neo4j.shell.cli.CliArgs.DEFAULT_SCHEME;
@@ -51,6 +53,8 @@ import static org.neo4j.shell.cli.FailBehavior.FAIL_FAST;
  */
 public class CliArgHelper
 {
+    private static final String PARALLEL_OUTPUT_ORDERED = "ordered";
+    private static final String PARALLEL_OUTPUT_UNORDERED = "unordered";
 
     /**
      * @param args to parse
@@ -122,6 +126,11 @@ public class CliArgHelper
         }
         cliArgs.setEncryption( Encryption.parse( ns.get( "encryption" ) ) );
         cliArgs.setDatabase( ns.getString( "database" ) );
+
+        cliArgs.setFetchSize( ns.getInt( "fetch-size" ) );
+        cliArgs.setMaxConnectionPoolSize( ns.getInt( "max-connection-pool-size" ) );
+        cliArgs.setConnectionAcquisitionTimeout( ns.getInt( "connection-acquisition-timeout" ) );
+        cliArgs.setMaxConnectionLifetime( ns.getInt( "max-connection-lifetime" ) );
         cliArgs.setInputFilename( ns.getString( "file" ) );
 
         //----------------
@@ -136,16 +145,54 @@ public class CliArgHelper
 
         cliArgs.setDebugMode( ns.getBoolean( "debug" ) );
 
+        cliArgs.setTiming( ns.getBoolean( "timing" ) );
+
+        cliArgs.setParameterizeLiterals( ns.getBoolean( "parameterize-literals" ) );
+
+        cliArgs.setMetricsOut( ns.getString( "metrics-out" ) );
+
+        cliArgs.setMetricsFormat( MetricsExporter.Format.parse( ns.getString( "metrics-format" ) ) );
+
         cliArgs.setNonInteractive( ns.getBoolean( "force-non-interactive" ) );
 
         cliArgs.setWrap( ns.getBoolean( "wrap" ) );
 
         cliArgs.setNumSampleRows( ns.getInt( "sample-rows" ) );
 
+        cliArgs.setAdaptiveWidths( ns.getBoolean( "adaptive-widths" ) );
+
+        cliArgs.setSpillSamples( ns.getBoolean( "spill-samples" ) );
+
+        cliArgs.setFormatThreads( ns.getInt( "format-threads" ) );
+
+        cliArgs.setParallelism( ns.getInt( "parallel" ) );
+
+        cliArgs.setBatchSize( ns.getInt( "batch-size" ) );
+
+        cliArgs.setRetryTransient( ns.getBoolean( "retry-transient" ) );
+
+        cliArgs.setCsvDelimiter( ns.get( "csv-delimiter" ) );
+
+        cliArgs.setFlushPolicy( FlushPolicy.parse( ns.getString( "flush" ) ) );
+
+        cliArgs.setFlushRecords( ns.getInt( "flush-records" ) );
+
+        cliArgs.setOrderedOutput( !PARALLEL_OUTPUT_UNORDERED.equalsIgnoreCase( ns.getString( "parallel-output" ) ) );
+
         cliArgs.setVersion( ns.getBoolean( "version" ) );
 
         cliArgs.setDriverVersion( ns.getBoolean( "driver-version" ) );
 
+        // Statements executed concurrently are not timed, so the timings would silently be missing
+        if ( cliArgs.getParallelism() > 1 && (cliArgs.getTiming() || cliArgs.getMetricsOut() != null) )
+        {
+            PrintWriter printWriter = new PrintWriter( System.err );
+            parser.printUsage( printWriter );
+            printWriter.println( "cypher-shell: error: argument --parallel can not be combined with --timing or --metrics-out" );
+            printWriter.flush();
+            return null;
+        }
+
         return cliArgs;
     }
 
@@ -232,6 +279,27 @@ public class CliArgHelper
         connGroup.addArgument( "-d", "--database" )
                  .help( "database to connect to. Can also be specified using environment variable " + ConnectionConfig.DATABASE_ENV_VAR )
                  .setDefault( "" );
+        connGroup.addArgument( "--fetch-size" )
+                 .help( "number of records fetched from the server at a time. Large values suit exports, small values give the first rows " +
+                        "sooner over slow links" )
+                 .type( new PositiveIntegerType() )
+                 .dest( "fetch-size" )
+                 .setDefault( ConnectionConfig.DEFAULT_FETCH_SIZE );
+        connGroup.addArgument( "--max-connection-pool-size" )
+                 .help( "maximum number of connections to the server" )
+                 .type( new PositiveIntegerType() )
+                 .dest( "max-connection-pool-size" )
+                 .setDefault( ConnectionConfig.DEFAULT_MAX_CONNECTION_POOL_SIZE );
+        connGroup.addArgument( "--connection-acquisition-timeout" )
+                 .help( "seconds to wait for a connection when all connections are in use" )
+                 .type( new PositiveIntegerType() )
+                 .dest( "connection-acquisition-timeout" )
+                 .setDefault( ConnectionConfig.DEFAULT_CONNECTION_ACQUISITION_TIMEOUT_SECONDS );
+        connGroup.addArgument( "--max-connection-lifetime" )
+                 .help( "seconds after which a connection is closed instead of being reused" )
+                 .type( new PositiveIntegerType() )
+                 .dest( "max-connection-lifetime" )
+                 .setDefault( ConnectionConfig.DEFAULT_MAX_CONNECTION_LIFETIME_SECONDS );
 
         MutuallyExclusiveGroup failGroup = parser.addMutuallyExclusiveGroup();
         failGroup.addArgument( "--fail-fast" )
@@ -248,11 +316,14 @@ public class CliArgHelper
 
         parser.addArgument( "--format" )
               .help( "desired output format, verbose displays results in tabular format and prints statistics, " +
-                     "plain displays data with minimal formatting" )
+                     "plain displays data with minimal formatting, csv prints only the records as comma separated values, " +
+                     "jsonl prints each record as a JSON object on a line of its own" )
               .choices( new CollectionArgumentChoice<>(
                       Format.AUTO.name().toLowerCase(),
                       Format.VERBOSE.name().toLowerCase(),
-                      Format.PLAIN.name().toLowerCase() ) )
+                      Format.PLAIN.name().toLowerCase(),
+                      Format.CSV.name().toLowerCase(),
+                      Format.JSONL.name().toLowerCase() ) )
               .setDefault( Format.AUTO.name().toLowerCase() );
 
         parser.addArgument( "-P", "--param" )
@@ -263,11 +334,59 @@ public class CliArgHelper
               .help( "print additional debug information" )
               .action( new StoreTrueArgumentAction() );
 
+        parser.addArgument( "--timing" )
+              .help( "print where the time of each statement went, split into client and server phases, to STDERR, and the latency " +
+                     "percentiles of all statements at exit" )
+              .action( new StoreTrueArgumentAction() );
+
+        parser.addArgument( "--parameterize-literals" )
+              .help( "send the literal strings and numbers of Cypher statements as parameters, so that statements which only differ in their " +
+                     "literals share a query plan on the server. Statements the shell can not parse are sent as they are" )
+              .dest( "parameterize-literals" )
+              .action( new StoreTrueArgumentAction() );
+
+        parser.addArgument( "--metrics-out" )
+              .help( "file to write the row counts, update counters, latencies, retries and error codes of the executed statements to, " +
+                     "for monitoring scheduled scripts. The file is replaced when the shell exits" )
+              .dest( "metrics-out" );
+
+        parser.addArgument( "--metrics-format" )
+              .help( "format of the --metrics-out file, json lists every statement followed by the totals, prometheus writes the totals in " +
+                     "the Prometheus text format" )
+              .choices( new CollectionArgumentChoice<>(
+                      MetricsExporter.Format.JSON.name().toLowerCase(),
+                      MetricsExporter.Format.PROMETHEUS.name().toLowerCase() ) )
+              .dest( "metrics-format" )
+              .setDefault( MetricsExporter.Format.JSON.name().toLowerCase() );
+
         parser.addArgument( "--non-interactive" )
               .help( "force non-interactive mode, only useful if auto-detection fails (like on Windows)" )
               .dest( "force-non-interactive" )
               .action( new StoreTrueArgumentAction() );
 
+        parser.addArgument( "--csv-delimiter" )
+              .help( "character separating the fields of a record with format=CSV, use \\t for tab. Quotes and line breaks can not be used" )
+              .type( new DelimiterType() )
+              .dest( "csv-delimiter" )
+              .setDefault( CliArgs.DEFAULT_CSV_DELIMITER );
+
+        parser.addArgument( "--flush" )
+              .help( "when output written to a file or pipe is flushed: after every line of result data (or every --flush-records lines), " +
+                     "after every statement, or when nothing has been printed for a short while" )
+              .choices( new CollectionArgumentChoice<>(
+                      FlushPolicy.RECORD.name().toLowerCase(),
+                      FlushPolicy.STATEMENT.name().toLowerCase(),
+                      FlushPolicy.IDLE.name().toLowerCase() ) )
+              .dest( "flush" )
+              .setDefault( FlushPolicy.RECORD.name().toLowerCase() );
+
+        parser.addArgument( "--flush-records" )
+              .help( "number of lines of result data to print between flushes with --flush record. Table headers and borders " +
+                     "count as result data, messages and summaries do not" )
+              .type( new PositiveIntegerType() )
+              .dest( "flush-records" )
+              .setDefault( CliArgs.DEFAULT_FLUSH_RECORDS );
+
         parser.addArgument( "--sample-rows" )
               .help( "number of rows sampled to compute table widths (only for format=VERBOSE)" )
               .type( new PositiveIntegerType() )
@@ -279,6 +398,54 @@ public class CliArgHelper
               .type( new BooleanArgumentType() )
               .setDefault( true );
 
+        parser.addArgument( "--adaptive-widths" )
+              .help( "widen table columns when a value after the sampled rows does not fit, repeating the header, " +
+                     "instead of wrapping or truncating the value (only for format=VERBOSE)" )
+              .dest( "adaptive-widths" )
+              .action( new StoreTrueArgumentAction() );
+
+        parser.addArgument( "--spill-samples" )
+              .help( "keep the rows sampled for table widths as formatted text outside of the Java heap until they are printed, " +
+                     "so that a large --sample-rows does not use up heap memory (only for format=VERBOSE)" )
+              .dest( "spill-samples" )
+              .action( new StoreTrueArgumentAction() );
+
+        parser.addArgument( "--format-threads" )
+              .help( "number of threads to format result rows on, for results with many large values. Rows are still printed in order" )
+              .type( new PositiveIntegerType() )
+              .dest( "format-threads" )
+              .setDefault( CliArgs.DEFAULT_FORMAT_THREADS );
+
+        parser.addArgument( "--parallel" )
+              .help( "number of statements to execute concurrently, each in its own session, when reading from file or STDIN. " +
+                     "Only suitable for statements which do not depend on each other. Shell commands and explicit transactions are still " +
+                     "executed in order. The result of each statement, or batch of statements, is held in memory until it is printed. " +
+                     "Can not be combined with --timing or --metrics-out" )
+              .type( new PositiveIntegerType() )
+              .dest( "parallel" )
+              .setDefault( CliArgs.DEFAULT_PARALLELISM );
+
+        parser.addArgument( "--parallel-output" )
+              .help( "whether results of statements executed concurrently are printed in the order of the statements, " +
+                     "or as soon as they are available" )
+              .choices( new CollectionArgumentChoice<>( PARALLEL_OUTPUT_ORDERED, PARALLEL_OUTPUT_UNORDERED ) )
+              .dest( "parallel-output" )
+              .setDefault( PARALLEL_OUTPUT_ORDERED );
+
+        parser.addArgument( "--batch-size" )
+              .help( "number of consecutive Cypher statements to execute in the same transaction when reading from file or STDIN. " +
+                     "If a transaction fails, its statements are executed again one at a time to find the failing one. " +
+                     "The results of a transaction are held in memory until it has been committed" )
+              .type( new PositiveIntegerType() )
+              .dest( "batch-size" )
+              .setDefault( CliArgs.DEFAULT_BATCH_SIZE );
+
+        parser.addArgument( "--retry-transient" )
+              .help( "when reading from file or STDIN, execute Cypher statements (or batches of them) in transactions which are retried " +
+                     "on transient errors, like deadlocks or a change of cluster leader. Results are printed once the transaction has committed" )
+              .dest( "retry-transient" )
+              .action( new StoreTrueArgumentAction() );
+
         parser.addArgument( "-v", "--version" )
               .help( "print version of cypher-shell and exit" )
               .action( new StoreTrueArgumentAction() );
@@ -317,4 +484,27 @@ public class CliArgHelper
             }
         }
     }
+
+    private static class DelimiterType implements ArgumentType<Character>
+    {
+        @Override
+        public Character convert( ArgumentParser parser, Argument arg, String value ) throws ArgumentParserException
+        {
+            if ( "\\t".equals( value ) )
+            {
+                return '\t';
+            }
+            if ( value.length() != 1 )
+            {
+                throw new ArgumentParserException( "Invalid value, expected a single character: " + value, parser );
+            }
+            char delimiter = value.charAt( 0 );
+            // These already mean something in RFC 4180, fields separated by them could not be told apart
+            if ( delimiter == '"' || delimiter == '\r' || delimiter == '\n' )
+            {
+                throw new ArgumentParserException( "Invalid value, quotes and line breaks can not be used as delimiter", parser );
+            }
+            return delimiter;
+        }
+    }
 }
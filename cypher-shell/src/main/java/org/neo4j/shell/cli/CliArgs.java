@@ -23,8 +23,11 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.neo4j.shell.ConnectionConfig;
 import org.neo4j.shell.ParameterMap;
 import org.neo4j.shell.ShellParameterMap;
+import org.neo4j.shell.log.FlushPolicy;
+import org.neo4j.shell.timing.MetricsExporter;
 
 import static org.neo4j.shell.DatabaseManager.ABSENT_DB_NAME;
 
@@ -34,6 +37,11 @@ public class CliArgs
     static final String DEFAULT_HOST = "localhost";
     static final int DEFAULT_PORT = 7687;
     static final int DEFAULT_NUM_SAMPLE_ROWS = 1000;
+    static final int DEFAULT_PARALLELISM = 1;
+    static final int DEFAULT_BATCH_SIZE = 1;
+    public static final char DEFAULT_CSV_DELIMITER = ',';
+    static final int DEFAULT_FLUSH_RECORDS = 1;
+    static final int DEFAULT_FORMAT_THREADS = 1;
 
     private String scheme = DEFAULT_SCHEME;
     private String host = DEFAULT_HOST;
@@ -41,6 +49,10 @@ public class CliArgs
     private String username = "";
     private String password = "";
     private String databaseName = ABSENT_DB_NAME;
+    private int fetchSize = ConnectionConfig.DEFAULT_FETCH_SIZE;
+    private int maxConnectionPoolSize = ConnectionConfig.DEFAULT_MAX_CONNECTION_POOL_SIZE;
+    private int connectionAcquisitionTimeout = ConnectionConfig.DEFAULT_CONNECTION_ACQUISITION_TIMEOUT_SECONDS;
+    private int maxConnectionLifetime = ConnectionConfig.DEFAULT_MAX_CONNECTION_LIFETIME_SECONDS;
     private FailBehavior failBehavior = FailBehavior.FAIL_FAST;
     private Format format = Format.AUTO;
     @SuppressWarnings( "OptionalUsedAsFieldOrParameterType" )
@@ -52,7 +64,21 @@ public class CliArgs
     private boolean driverVersion;
     private int numSampleRows = DEFAULT_NUM_SAMPLE_ROWS;
     private boolean wrap = true;
+    private boolean adaptiveWidths;
+    private boolean spillSamples;
+    private boolean timing;
+    private boolean parameterizeLiterals;
+    private String metricsOut;
+    private MetricsExporter.Format metricsFormat = MetricsExporter.Format.JSON;
+    private int formatThreads = DEFAULT_FORMAT_THREADS;
     private String inputFilename;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean orderedOutput = true;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean retryTransient;
+    private char csvDelimiter = DEFAULT_CSV_DELIMITER;
+    private FlushPolicy flushPolicy = FlushPolicy.RECORD;
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
     private ParameterMap parameters = new ShellParameterMap();
 
     /**
@@ -138,6 +164,67 @@ public class CliArgs
         this.databaseName = databaseName;
     }
 
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    /**
+     * Set the number of records to fetch from the server at a time.
+     */
+    public void setFetchSize( Integer fetchSize )
+    {
+        if ( fetchSize != null && fetchSize > 0 )
+        {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public int getMaxConnectionPoolSize()
+    {
+        return maxConnectionPoolSize;
+    }
+
+    public void setMaxConnectionPoolSize( Integer maxConnectionPoolSize )
+    {
+        if ( maxConnectionPoolSize != null && maxConnectionPoolSize > 0 )
+        {
+            this.maxConnectionPoolSize = maxConnectionPoolSize;
+        }
+    }
+
+    public int getConnectionAcquisitionTimeout()
+    {
+        return connectionAcquisitionTimeout;
+    }
+
+    /**
+     * Set how many seconds to wait for a connection from the pool.
+     */
+    public void setConnectionAcquisitionTimeout( Integer connectionAcquisitionTimeout )
+    {
+        if ( connectionAcquisitionTimeout != null && connectionAcquisitionTimeout > 0 )
+        {
+            this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        }
+    }
+
+    public int getMaxConnectionLifetime()
+    {
+        return maxConnectionLifetime;
+    }
+
+    /**
+     * Set after how many seconds connections are closed instead of being reused.
+     */
+    public void setMaxConnectionLifetime( Integer maxConnectionLifetime )
+    {
+        if ( maxConnectionLifetime != null && maxConnectionLifetime > 0 )
+        {
+            this.maxConnectionLifetime = maxConnectionLifetime;
+        }
+    }
+
     @Nonnull
     public FailBehavior getFailBehavior()
     {
@@ -206,6 +293,57 @@ public class CliArgs
         this.debugMode = enabled;
     }
 
+    public boolean getTiming()
+    {
+        return timing;
+    }
+
+    /**
+     * Enable/disable printing the client and server timings of each statement
+     */
+    void setTiming( boolean timing )
+    {
+        this.timing = timing;
+    }
+
+    public boolean getParameterizeLiterals()
+    {
+        return parameterizeLiterals;
+    }
+
+    /**
+     * Enable/disable sending the literals of Cypher statements as parameters
+     */
+    void setParameterizeLiterals( boolean parameterizeLiterals )
+    {
+        this.parameterizeLiterals = parameterizeLiterals;
+    }
+
+    /**
+     * @return the file to write metrics of the executed statements to, or null
+     */
+    @Nullable
+    public String getMetricsOut()
+    {
+        return metricsOut;
+    }
+
+    public void setMetricsOut( @Nullable String metricsOut )
+    {
+        this.metricsOut = metricsOut;
+    }
+
+    @Nonnull
+    public MetricsExporter.Format getMetricsFormat()
+    {
+        return metricsFormat;
+    }
+
+    public void setMetricsFormat( @Nonnull MetricsExporter.Format metricsFormat )
+    {
+        this.metricsFormat = metricsFormat;
+    }
+
     public boolean getNonInteractive()
     {
         return nonInteractive;
@@ -280,6 +418,160 @@ public class CliArgs
         }
     }
 
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of statements to execute concurrently when not running interactively.
+     */
+    public void setParallelism( Integer parallelism )
+    {
+        if ( parallelism != null && parallelism > 0 )
+        {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public boolean getOrderedOutput()
+    {
+        return orderedOutput;
+    }
+
+    /**
+     * Set whether the results of statements executed concurrently should be printed in the order of the statements, or as soon as they are available.
+     */
+    public void setOrderedOutput( boolean orderedOutput )
+    {
+        this.orderedOutput = orderedOutput;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of consecutive Cypher statements to execute in the same transaction when not running interactively.
+     */
+    public void setBatchSize( Integer batchSize )
+    {
+        if ( batchSize != null && batchSize > 0 )
+        {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public boolean getRetryTransient()
+    {
+        return retryTransient;
+    }
+
+    /**
+     * Set whether Cypher statements should be executed in transactions managed by the driver, which are retried on transient errors.
+     */
+    public void setRetryTransient( boolean retryTransient )
+    {
+        this.retryTransient = retryTransient;
+    }
+
+    public char getCsvDelimiter()
+    {
+        return csvDelimiter;
+    }
+
+    /**
+     * Set the character which separates the fields of a row with the CSV format.
+     */
+    public void setCsvDelimiter( Character csvDelimiter )
+    {
+        if ( csvDelimiter != null )
+        {
+            this.csvDelimiter = csvDelimiter;
+        }
+    }
+
+    @Nonnull
+    public FlushPolicy getFlushPolicy()
+    {
+        return flushPolicy;
+    }
+
+    /**
+     * Set when output written to a file or pipe is flushed.
+     */
+    public void setFlushPolicy( @Nonnull FlushPolicy flushPolicy )
+    {
+        this.flushPolicy = flushPolicy;
+    }
+
+    public int getFlushRecords()
+    {
+        return flushRecords;
+    }
+
+    /**
+     * Set the number of lines of result data printed between flushes with the {@link FlushPolicy#RECORD} policy.
+     */
+    public void setFlushRecords( Integer flushRecords )
+    {
+        if ( flushRecords != null && flushRecords > 0 )
+        {
+            this.flushRecords = flushRecords;
+        }
+    }
+
+    /**
+     * @return true if output should be buffered instead of flushed after every line
+     */
+    public boolean isOutputBuffered()
+    {
+        return flushPolicy != FlushPolicy.RECORD || flushRecords > 1;
+    }
+
+    public boolean getAdaptiveWidths()
+    {
+        return adaptiveWidths;
+    }
+
+    /**
+     * Set whether table columns should grow when a value after the sampled rows does not fit, instead of wrapping or truncating it.
+     */
+    public void setAdaptiveWidths( boolean adaptiveWidths )
+    {
+        this.adaptiveWidths = adaptiveWidths;
+    }
+
+    public boolean getSpillSamples()
+    {
+        return spillSamples;
+    }
+
+    /**
+     * Set whether the rows sampled for the table widths should be kept formatted outside of the heap, instead of as records.
+     */
+    public void setSpillSamples( boolean spillSamples )
+    {
+        this.spillSamples = spillSamples;
+    }
+
+    public int getFormatThreads()
+    {
+        return formatThreads;
+    }
+
+    /**
+     * Set the number of threads to format result rows on.
+     */
+    public void setFormatThreads( Integer formatThreads )
+    {
+        if ( formatThreads != null && formatThreads > 0 )
+        {
+            this.formatThreads = formatThreads;
+        }
+    }
+
     public ParameterMap getParameters()
     {
         return parameters;
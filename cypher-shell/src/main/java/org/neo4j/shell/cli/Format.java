@@ -31,8 +31,11 @@ public enum Format
     // Intended for human consumption
     VERBOSE,
     // Intended for machine consumption (nothing except data is printed
-    PLAIN;
-    // TODO JSON, strictly intended for machine consumption with data formatted in JSON
+    PLAIN,
+    // Intended for exporting data, only the records are printed as comma separated values
+    CSV,
+    // Intended for exporting data, each record is printed as a JSON object on a line of its own
+    JSONL;
 
     public static Format parse( @Nonnull String format )
     {
@@ -44,6 +47,14 @@ public enum Format
         {
             return VERBOSE;
         }
+        else if ( format.equalsIgnoreCase( CSV.name() ) )
+        {
+            return CSV;
+        }
+        else if ( format.equalsIgnoreCase( JSONL.name() ) )
+        {
+            return JSONL;
+        }
         else
         {
             return isInputInteractive() && isOutputInteractive() ? VERBOSE : PLAIN;
@@ -139,6 +139,8 @@ public class InteractiveShellRunner implements ShellRunner, SignalHandler
                     currentlyExecuting.set( true );
                     executer.execute( statement );
                     currentlyExecuting.set( false );
+                    // Output to a file or pipe may be buffered, it should still show up once the statement is done
+                    logger.endOfStatement();
                 }
             }
             catch ( ExitException e )
@@ -158,6 +160,8 @@ public class InteractiveShellRunner implements ShellRunner, SignalHandler
             finally
             {
                 currentlyExecuting.set( false );
+                // Also flush whatever a failed statement managed to print
+                logger.endOfStatement();
             }
         }
         logger.printIfVerbose( userMessagesHandler.getExitMessage() );
@@ -19,15 +19,17 @@
  */
 package org.neo4j.shell.cli;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.neo4j.shell.Historian;
 import org.neo4j.shell.ShellRunner;
 import org.neo4j.shell.StatementExecuter;
+import org.neo4j.shell.TransactionHandler;
 import org.neo4j.shell.exception.ExitException;
 import org.neo4j.shell.log.Logger;
 import org.neo4j.shell.parser.StatementParser;
@@ -36,78 +38,283 @@ import static org.neo4j.shell.Main.EXIT_FAILURE;
 import static org.neo4j.shell.Main.EXIT_SUCCESS;
 
 /**
- * A shell runner which reads all of STDIN and executes commands until completion. In case of errors, the failBehavior determines if the shell exits
- * immediately, or if it should keep trying the next commands.
+ * A shell runner which reads STDIN and executes commands as soon as they have been parsed, until the end of input is reached. In case of errors, the
+ * failBehavior determines if the shell exits immediately, or if it should keep trying the next commands.
+ * <p>
+ * With a batch size larger than one, consecutive Cypher statements are executed together in explicit transactions of up to that many statements. If a batch
+ * fails, its statements are executed again one by one, each in its own transaction, to find the one causing the failure. The results of a batch are held
+ * back until its transaction has been committed, so that nothing is printed for statements which are rolled back.
+ * <p>
+ * When retrying transient errors, Cypher statements are instead executed in transactions managed by the driver, which retries the whole transaction if it
+ * fails because of for example a deadlock or a change of cluster leader. Since a retried transaction has to be executed from its start, the statements of
+ * a batch are collected first and executed together once the batch is full.
  */
 public class NonInteractiveShellRunner implements ShellRunner
 {
-
     private final FailBehavior failBehavior;
     @Nonnull
     private final StatementExecuter executer;
+    @Nullable
+    private final TransactionHandler transactionHandler;
     private final Logger logger;
     private final StatementParser statementParser;
     private final InputStream inputStream;
+    private final int batchSize;
+    private final boolean retryTransient;
+    // Statements executed in the currently open batch transaction
+    private final List<String> batch = new ArrayList<>();
+    // Results of the currently open batch transaction, printed once it has been committed
+    private final BufferedOutput batchOutput = new BufferedOutput();
+    private int exitCode = EXIT_SUCCESS;
 
     public NonInteractiveShellRunner( @Nonnull FailBehavior failBehavior,
                                       @Nonnull StatementExecuter executer,
                                       @Nonnull Logger logger,
                                       @Nonnull StatementParser statementParser,
                                       @Nonnull InputStream inputStream )
+    {
+        this( failBehavior, executer, null, logger, statementParser, inputStream, 1, false );
+    }
+
+    /**
+     * @param transactionHandler to run batches of statements in transactions with, only needed if batchSize is larger than one
+     * @param batchSize          the maximum number of Cypher statements to execute in the same transaction
+     * @param retryTransient     whether Cypher statements should be executed in transactions which are retried on transient errors
+     */
+    public NonInteractiveShellRunner( @Nonnull FailBehavior failBehavior,
+                                      @Nonnull StatementExecuter executer,
+                                      @Nullable TransactionHandler transactionHandler,
+                                      @Nonnull Logger logger,
+                                      @Nonnull StatementParser statementParser,
+                                      @Nonnull InputStream inputStream,
+                                      int batchSize,
+                                      boolean retryTransient )
     {
         this.failBehavior = failBehavior;
         this.executer = executer;
+        this.transactionHandler = transactionHandler;
         this.logger = logger;
         this.statementParser = statementParser;
         this.inputStream = inputStream;
+        this.batchSize = batchSize;
+        this.retryTransient = retryTransient;
     }
 
     @Override
     public int runUntilEnd()
     {
-        List<String> statements;
-        try ( BufferedReader bufferedReader = new BufferedReader( new InputStreamReader( inputStream ) ) )
+        // Statements are parsed on a separate thread while we execute them, so that parsing does not add to the time it takes to run the input
+        try ( StatementReader statementReader = new StatementReader( statementParser, inputStream ) )
+        {
+            statementReader.start();
+            String statement;
+            while ( !shouldStop() && (statement = statementReader.nextStatement()) != null )
+            {
+                if ( shouldBatch( statement ) )
+                {
+                    executeInBatch( statement );
+                }
+                else
+                {
+                    commitBatch();
+                    if ( !shouldStop() )
+                    {
+                        execute( statement );
+                    }
+                }
+                logger.endOfStatement();
+            }
+            if ( !shouldStop() )
+            {
+                commitBatch();
+                logger.endOfStatement();
+            }
+            if ( !shouldStop() && statementReader.failure() != null )
+            {
+                logger.printError( statementReader.failure() );
+                return EXIT_FAILURE;
+            }
+        }
+        catch ( ExitException e )
         {
-            bufferedReader
-                    .lines()
-                    .forEach( line -> statementParser.parseMoreText( line + "\n" ) );
-            statements = statementParser.consumeStatements();
+            // These exceptions are always fatal
+            return e.getCode();
+        }
+        catch ( InterruptedException e )
+        {
+            logger.printError( e );
+            return EXIT_FAILURE;
+        }
+        return exitCode;
+    }
+
+    @Nonnull
+    @Override
+    public Historian getHistorian()
+    {
+        return Historian.empty;
+    }
+
+    private boolean shouldStop()
+    {
+        return exitCode != EXIT_SUCCESS && FailBehavior.FAIL_AT_END != failBehavior;
+    }
+
+    private void execute( String statement ) throws ExitException
+    {
+        try
+        {
+            executer.execute( statement );
+        }
+        catch ( ExitException e )
+        {
+            throw e;
         }
         catch ( Throwable e )
         {
+            exitCode = EXIT_FAILURE;
             logger.printError( e );
-            return 1;
         }
+    }
+
+    /**
+     * Batch Cypher statements, but leave commands and transactions opened by the user alone.
+     */
+    private boolean shouldBatch( String statement )
+    {
+        return (batchSize > 1 || retryTransient) && transactionHandler != null && executer.isCypher( statement ) &&
+               (!batch.isEmpty() || !transactionHandler.isTransactionOpen());
+    }
 
-        int exitCode = EXIT_SUCCESS;
+    private void executeInBatch( String statement ) throws ExitException
+    {
+        if ( retryTransient )
+        {
+            // The statements are executed when the batch is committed
+            batch.add( statement );
+            if ( batch.size() >= batchSize )
+            {
+                commitBatch();
+            }
+            return;
+        }
+        try
+        {
+            batch.add( statement );
+            if ( batch.size() == 1 )
+            {
+                // Statements of the batch only count once it has been committed
+                executer.holdTimings();
+                transactionHandler.beginTransaction();
+            }
+            executer.execute( statement, batchOutput );
+        }
+        catch ( ExitException e )
+        {
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            retryBatch( e );
+            return;
+        }
+        if ( batch.size() >= batchSize )
+        {
+            commitBatch();
+        }
+    }
+
+    private void commitBatch() throws ExitException
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+        try
+        {
+            if ( retryTransient )
+            {
+                executer.holdTimings();
+                executer.executeWithRetry( new ArrayList<>( batch ) );
+            }
+            else
+            {
+                transactionHandler.commitTransaction();
+                batchOutput.printTo( logger );
+                batchOutput.clear();
+            }
+            executer.releaseTimings();
+            batch.clear();
+        }
+        catch ( Throwable e )
+        {
+            retryBatch( e );
+        }
+    }
+
+    /**
+     * Execute the statements of a failed batch one by one, so that the error is reported for the statement which caused it.
+     */
+    private void retryBatch( Throwable cause ) throws ExitException
+    {
+        // The results of the failed attempt are not committed, so they are never printed
+        batchOutput.clear();
+        if ( retryTransient && batch.size() == 1 )
+        {
+            // The driver has already retried the statement as far as it makes sense, so its failure is final
+            executer.releaseTimings();
+            batch.clear();
+            exitCode = EXIT_FAILURE;
+            logger.printError( cause );
+            return;
+        }
+        // Neither do the timings of the failed attempt count, the statements are timed again when they are executed one by one
+        executer.discardTimings();
+        logger.printIfDebug( "Batch of " + batch.size() + " statements failed, executing them one by one: " + cause.getMessage() );
+        try
+        {
+            if ( transactionHandler.isTransactionOpen() )
+            {
+                transactionHandler.rollbackTransaction();
+            }
+        }
+        catch ( Throwable e )
+        {
+            // The statements would otherwise end up in a broken transaction
+            exitCode = EXIT_FAILURE;
+            logger.printError( e );
+            batch.clear();
+            return;
+        }
+        List<String> statements = new ArrayList<>( batch );
+        batch.clear();
         for ( String statement : statements )
         {
-            try
+            if ( shouldStop() )
             {
-                executer.execute( statement );
+                return;
             }
-            catch ( ExitException e )
+            if ( retryTransient )
             {
-                // These exceptions are always fatal
-                return e.getCode();
+                executeWithRetry( statement );
             }
-            catch ( Throwable e )
+            else
             {
-                exitCode = EXIT_FAILURE;
-                logger.printError( e );
-                if ( FailBehavior.FAIL_AT_END != failBehavior )
-                {
-                    return exitCode;
-                }
+                execute( statement );
             }
         }
-        return exitCode;
     }
 
-    @Nonnull
-    @Override
-    public Historian getHistorian()
+    private void executeWithRetry( String statement )
     {
-        return Historian.empty;
+        try
+        {
+            executer.executeWithRetry( Collections.singletonList( statement ) );
+        }
+        catch ( Throwable e )
+        {
+            exitCode = EXIT_FAILURE;
+            logger.printError( e );
+        }
     }
 }
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.cli;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.shell.CypherShell;
+import org.neo4j.shell.Historian;
+import org.neo4j.shell.ShellRunner;
+import org.neo4j.shell.exception.ExitException;
+import org.neo4j.shell.log.Logger;
+import org.neo4j.shell.parser.StatementParser;
+
+import static java.lang.String.format;
+import static org.neo4j.shell.Main.EXIT_FAILURE;
+import static org.neo4j.shell.Main.EXIT_SUCCESS;
+
+/**
+ * A shell runner which reads STDIN and executes several Cypher statements at the same time, each in its own session of the driver of the shell. Shell
+ * commands, and statements while an explicit transaction is open, are executed by the shell itself once all statements before them have completed.
+ * Errors are reported with the line the failing statement started on, and the failBehavior determines if the shell stops at the first error, or if it
+ * should keep trying the next statements.
+ * <p>
+ * With a batch size larger than one, consecutive Cypher statements are executed together in transactions of up to that many statements. If a batch fails,
+ * its statements are executed again one by one to find the ones causing the failure. When retrying transient errors, each batch or single statement is
+ * executed in a transaction managed by the driver, which is retried if it fails because of for example a deadlock or a change of cluster leader.
+ * <p>
+ * The output of a statement, or of a whole batch, is held in memory until it can be printed, so statements with large results should be executed without
+ * parallelism.
+ */
+public class ParallelShellRunner implements ShellRunner
+{
+    private final FailBehavior failBehavior;
+    private final CypherShell cypherShell;
+    private final Logger logger;
+    private final StatementParser statementParser;
+    private final InputStream inputStream;
+    private final int parallelism;
+    private final boolean orderedOutput;
+    private final int batchSize;
+    private final boolean retryTransient;
+    // Sessions which are not executing anything right now
+    private final Queue<Session> idleSessions = new ConcurrentLinkedQueue<>();
+    // Statements which have been started but not yet reported, in the order they were read
+    private final Deque<Future<Outcome>> pending = new ArrayDeque<>();
+    // Consecutive Cypher statements to be executed together, and the lines they started on
+    private final List<String> batch = new ArrayList<>();
+    private final List<Integer> batchLineNumbers = new ArrayList<>();
+    private boolean failed;
+
+    public ParallelShellRunner( @Nonnull FailBehavior failBehavior,
+                                @Nonnull CypherShell cypherShell,
+                                @Nonnull Logger logger,
+                                @Nonnull StatementParser statementParser,
+                                @Nonnull InputStream inputStream,
+                                int parallelism,
+                                boolean orderedOutput,
+                                int batchSize,
+                                boolean retryTransient )
+    {
+        this.failBehavior = failBehavior;
+        this.cypherShell = cypherShell;
+        this.logger = logger;
+        this.statementParser = statementParser;
+        this.inputStream = inputStream;
+        this.parallelism = parallelism;
+        this.orderedOutput = orderedOutput;
+        this.batchSize = batchSize;
+        this.retryTransient = retryTransient;
+    }
+
+    @Override
+    public int runUntilEnd()
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( parallelism, runnable ->
+        {
+            Thread thread = new Thread( runnable, "cypher-shell-statement-executor" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        try ( StatementReader statementReader = new StatementReader( statementParser, inputStream ) )
+        {
+            statementReader.start();
+            String statement;
+            while ( !shouldStop() && (statement = statementReader.nextStatement()) != null )
+            {
+                if ( cypherShell.isTransactionOpen() || !cypherShell.isCypher( statement ) )
+                {
+                    // Commands might depend on, or change the outcome of, the statements around them
+                    submitBatch( executor );
+                    awaitAll();
+                    if ( !shouldStop() )
+                    {
+                        executeInShell( statement, statementReader.lineNumber() );
+                    }
+                }
+                else
+                {
+                    batch.add( statement );
+                    batchLineNumbers.add( statementReader.lineNumber() );
+                    if ( batch.size() >= batchSize )
+                    {
+                        submitBatch( executor );
+                    }
+                }
+            }
+            if ( !shouldStop() )
+            {
+                submitBatch( executor );
+            }
+            // Let everything which has been started finish, also when stopping because of an error
+            awaitAll();
+            if ( !shouldStop() && statementReader.failure() != null )
+            {
+                logger.printError( statementReader.failure() );
+                return EXIT_FAILURE;
+            }
+            return failed ? EXIT_FAILURE : EXIT_SUCCESS;
+        }
+        catch ( ExitException e )
+        {
+            // These exceptions are always fatal
+            return e.getCode();
+        }
+        catch ( InterruptedException e )
+        {
+            logger.printError( e );
+            return EXIT_FAILURE;
+        }
+        finally
+        {
+            executor.shutdownNow();
+            closeIdleSessions();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Historian getHistorian()
+    {
+        return Historian.empty;
+    }
+
+    private boolean shouldStop()
+    {
+        return failed && FailBehavior.FAIL_AT_END != failBehavior;
+    }
+
+    private void executeInShell( String statement, int lineNumber ) throws ExitException
+    {
+        // The command might switch database, so make sure that any following statements use new sessions
+        closeIdleSessions();
+        try
+        {
+            cypherShell.execute( statement );
+        }
+        catch ( ExitException e )
+        {
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            reportError( lineNumber, e );
+        }
+        logger.endOfStatement();
+    }
+
+    private void submitBatch( ExecutorService executor ) throws InterruptedException
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+        List<String> statements = new ArrayList<>( batch );
+        List<Integer> lineNumbers = new ArrayList<>( batchLineNumbers );
+        batch.clear();
+        batchLineNumbers.clear();
+        pending.add( executor.submit( () -> executeInSession( statements, lineNumbers ) ) );
+        if ( pending.size() >= 2 * parallelism )
+        {
+            awaitNext();
+        }
+    }
+
+    /**
+     * Called concurrently from the executor threads.
+     */
+    private Outcome executeInSession( List<String> statements, List<Integer> lineNumbers )
+    {
+        Outcome outcome = new Outcome();
+        Session session = idleSessions.poll();
+        try
+        {
+            if ( session == null )
+            {
+                session = cypherShell.openSession();
+            }
+            if ( statements.size() == 1 )
+            {
+                executeInSession( session, statements.get( 0 ), lineNumbers.get( 0 ), outcome );
+            }
+            else if ( retryTransient )
+            {
+                executeWithRetry( session, statements, lineNumbers, outcome );
+            }
+            else
+            {
+                executeInTransaction( session, statements, lineNumbers, outcome );
+            }
+        }
+        catch ( Throwable e )
+        {
+            outcome.errors.add( new StatementError( lineNumbers.get( 0 ), e ) );
+        }
+        finally
+        {
+            if ( session != null )
+            {
+                idleSessions.add( session );
+            }
+        }
+        if ( !orderedOutput )
+        {
+            print( outcome.output );
+            outcome.output.clear();
+        }
+        return outcome;
+    }
+
+    private void executeInTransaction( Session session, List<String> statements, List<Integer> lineNumbers, Outcome outcome )
+    {
+        try ( Transaction tx = session.beginTransaction() )
+        {
+            for ( String statement : statements )
+            {
+                cypherShell.executeCypher( tx, statement, outcome.output );
+            }
+            tx.commit();
+        }
+        catch ( Throwable e )
+        {
+            // Nothing has been printed yet, so forget about the failed attempt and find the failing statements by executing them one at a time
+            outcome.output.clear();
+            executeOneByOne( session, statements, lineNumbers, outcome );
+        }
+    }
+
+    private void executeWithRetry( Session session, List<String> statements, List<Integer> lineNumbers, Outcome outcome )
+    {
+        try
+        {
+            cypherShell.executeCypherWithRetry( session, statements, outcome.output );
+        }
+        catch ( Throwable e )
+        {
+            // The results are only printed once the transaction has committed, so nothing has been printed by the failed attempt
+            executeOneByOne( session, statements, lineNumbers, outcome );
+        }
+    }
+
+    /**
+     * Execute the statements of a failed batch one at a time, stopping at the first failing one unless all statements should be tried.
+     */
+    private void executeOneByOne( Session session, List<String> statements, List<Integer> lineNumbers, Outcome outcome )
+    {
+        for ( int i = 0; i < statements.size(); i++ )
+        {
+            if ( !outcome.errors.isEmpty() && FailBehavior.FAIL_AT_END != failBehavior )
+            {
+                return;
+            }
+            executeInSession( session, statements.get( i ), lineNumbers.get( i ), outcome );
+        }
+    }
+
+    private void executeInSession( Session session, String statement, int lineNumber, Outcome outcome )
+    {
+        try
+        {
+            if ( retryTransient )
+            {
+                cypherShell.executeCypherWithRetry( session, Collections.singletonList( statement ), outcome.output );
+            }
+            else
+            {
+                cypherShell.executeCypher( session, statement, outcome.output );
+            }
+        }
+        catch ( Throwable e )
+        {
+            outcome.errors.add( new StatementError( lineNumber, e ) );
+        }
+    }
+
+    private void awaitAll() throws InterruptedException
+    {
+        while ( !pending.isEmpty() )
+        {
+            awaitNext();
+        }
+    }
+
+    private void awaitNext() throws InterruptedException
+    {
+        Outcome outcome;
+        try
+        {
+            outcome = pending.remove().get();
+        }
+        catch ( ExecutionException e )
+        {
+            // Should not happen since all errors are caught while executing
+            failed = true;
+            logger.printError( e.getCause() );
+            return;
+        }
+        print( outcome.output );
+        for ( StatementError error : outcome.errors )
+        {
+            reportError( error.lineNumber, error.error );
+        }
+    }
+
+    private void reportError( int lineNumber, Throwable error )
+    {
+        failed = true;
+        synchronized ( logger )
+        {
+            logger.printError( format( "Error in statement starting on line %d:", lineNumber ) );
+            logger.printError( error );
+        }
+    }
+
+    private void print( BufferedOutput output )
+    {
+        // Keep the output of one statement together
+        synchronized ( logger )
+        {
+            output.printTo( logger );
+            logger.endOfStatement();
+        }
+    }
+
+    private void closeIdleSessions()
+    {
+        Session session;
+        while ( (session = idleSessions.poll()) != null )
+        {
+            session.close();
+        }
+    }
+
+    /**
+     * What happened when executing a batch of statements.
+     */
+    private static class Outcome
+    {
+        // Output which has not been printed yet
+        private final BufferedOutput output = new BufferedOutput();
+        private final List<StatementError> errors = new ArrayList<>();
+    }
+
+    private static class StatementError
+    {
+        private final int lineNumber;
+        private final Throwable error;
+
+        StatementError( int lineNumber, Throwable error )
+        {
+            this.lineNumber = lineNumber;
+            this.error = error;
+        }
+    }
+}
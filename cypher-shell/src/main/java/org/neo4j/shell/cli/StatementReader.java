@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.cli;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.neo4j.shell.parser.MappedStatementSplitter;
+import org.neo4j.shell.parser.ParallelStatementSplitter;
+import org.neo4j.shell.parser.StatementParser;
+
+/**
+ * Reads and parses statements from an input stream on a separate thread, and hands completed statements over through a bounded queue. This lets reading
+ * and parsing of the input overlap with the execution of earlier statements, while the bound keeps the reader from running arbitrarily far ahead.
+ * <p>
+ * Input from a file is split into statements by a {@link MappedStatementSplitter} when possible, which scans the bytes of the file without reading it line by
+ * line first. Large files are scanned by several threads with a {@link ParallelStatementSplitter}.
+ */
+class StatementReader implements AutoCloseable
+{
+    // Signals that the reader is done, either because the input was exhausted or because reading failed
+    private static final ParsedLine END_OF_INPUT = new ParsedLine( Collections.emptyList(), 0, 0 );
+    // Files smaller than this are split faster by a single thread than it takes to get several threads going
+    private static final long PARALLEL_SPLIT_SIZE = 256L << 20;
+    // The number of input lines with completed statements which the runners let be parsed ahead of the statements currently executing
+    static final int DEFAULT_LOOK_AHEAD = 1000;
+    private final StatementParser statementParser;
+    private final InputStream inputStream;
+    private final BlockingQueue<ParsedLine> queue;
+    private final Thread thread;
+    private ParsedLine current;
+    private Iterator<String> statements = Collections.emptyIterator();
+    private int lineNumber;
+    private volatile Throwable failure;
+
+    /**
+     * @param statementParser to parse the input with, which must not be used by anyone else while reading, unused if the input is split as a file
+     * @param inputStream     to read statements from
+     */
+    StatementReader( @Nonnull StatementParser statementParser, @Nonnull InputStream inputStream )
+    {
+        this( statementParser, inputStream, DEFAULT_LOOK_AHEAD );
+    }
+
+    /**
+     * @param statementParser to parse the input with, which must not be used by anyone else while reading, unused if the input is split as a file
+     * @param inputStream     to read statements from
+     * @param lookAhead       the maximum number of parsed lines with completed statements waiting to be consumed
+     */
+    StatementReader( @Nonnull StatementParser statementParser, @Nonnull InputStream inputStream, int lookAhead )
+    {
+        this.statementParser = statementParser;
+        this.inputStream = inputStream;
+        this.queue = new ArrayBlockingQueue<>( lookAhead );
+        this.thread = new Thread( this::readUntilEnd, "cypher-shell-statement-reader" );
+        // Reading from STDIN can block forever, that should never keep the shell from exiting
+        this.thread.setDaemon( true );
+    }
+
+    /**
+     * Start reading statements in the background.
+     */
+    void start()
+    {
+        thread.start();
+    }
+
+    /**
+     * Get the next statement, waiting for it to be parsed if necessary.
+     *
+     * @return the next statement, or null if there are no more statements. If reading stopped because of an error, it is available from {@link #failure()}
+     * @throws InterruptedException if interrupted while waiting for the next statement
+     */
+    @Nullable
+    String nextStatement() throws InterruptedException
+    {
+        if ( statements.hasNext() )
+        {
+            // Any statement after the first one completed on a line must also have started on that line
+            lineNumber = current.lineNumber;
+            return statements.next();
+        }
+        ParsedLine parsedLine = queue.take();
+        if ( parsedLine == END_OF_INPUT )
+        {
+            // Put it back so that any further calls also see the end
+            queue.put( END_OF_INPUT );
+            return null;
+        }
+        current = parsedLine;
+        statements = parsedLine.statements.iterator();
+        lineNumber = parsedLine.firstStatementLineNumber;
+        return statements.next();
+    }
+
+    /**
+     * @return the line number (starting from 1) of the input where the statement last returned by {@link #nextStatement()} started
+     */
+    int lineNumber()
+    {
+        return lineNumber;
+    }
+
+    /**
+     * @return the error which stopped the reading of the input, or null if no error has occurred
+     */
+    @Nullable
+    Throwable failure()
+    {
+        return failure;
+    }
+
+    /**
+     * Stop reading, any statements which have not been consumed yet are discarded.
+     */
+    @Override
+    public void close()
+    {
+        thread.interrupt();
+    }
+
+    private void readUntilEnd()
+    {
+        try
+        {
+            if ( !splitMappedFile() )
+            {
+                readLines();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            // We have been closed, nobody is waiting for any more statements
+            return;
+        }
+        catch ( Throwable e )
+        {
+            failure = e;
+        }
+
+        try
+        {
+            queue.put( END_OF_INPUT );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true if the input was a file which has been split into statements, false if it has to be read line by line instead
+     */
+    private boolean splitMappedFile() throws IOException, InterruptedException
+    {
+        Charset charset = Charset.defaultCharset();
+        if ( !(inputStream instanceof FileInputStream) || !MappedStatementSplitter.supports( charset ) )
+        {
+            return false;
+        }
+        FileChannel channel = ((FileInputStream) inputStream).getChannel();
+        // Pipes and other special files have no size and can not be mapped
+        if ( channel.size() == 0 )
+        {
+            return false;
+        }
+        MappedStatementSplitter.Listener listener = ( statements, firstLineNumber, lineNumber ) ->
+                queue.put( new ParsedLine( statements, firstLineNumber, lineNumber ) );
+        int processors = Runtime.getRuntime().availableProcessors();
+        try
+        {
+            if ( processors > 1 && channel.size() - channel.position() >= PARALLEL_SPLIT_SIZE )
+            {
+                new ParallelStatementSplitter( charset, processors ).split( channel, listener );
+            }
+            else
+            {
+                new MappedStatementSplitter( charset ).split( channel, listener );
+            }
+            return true;
+        }
+        finally
+        {
+            inputStream.close();
+        }
+    }
+
+    private void readLines() throws IOException, InterruptedException
+    {
+        try ( BufferedReader bufferedReader = new BufferedReader( new InputStreamReader( inputStream ) ) )
+        {
+            int lineNumber = 0;
+            int statementLineNumber = 1;
+            String line;
+            while ( (line = bufferedReader.readLine()) != null )
+            {
+                lineNumber++;
+                if ( !statementParser.containsText() )
+                {
+                    // Nothing but whitespace so far, so the next statement can't have started before this line
+                    statementLineNumber = lineNumber;
+                }
+                statementParser.parseMoreText( line + "\n" );
+                if ( statementParser.hasStatements() )
+                {
+                    queue.put( new ParsedLine( statementParser.consumeStatements(), statementLineNumber, lineNumber ) );
+                    statementLineNumber = lineNumber;
+                }
+            }
+        }
+    }
+
+    /**
+     * The statements which were completed by a single line of input.
+     */
+    private static class ParsedLine
+    {
+        private final List<String> statements;
+        private final int firstStatementLineNumber;
+        private final int lineNumber;
+
+        ParsedLine( List<String> statements, int firstStatementLineNumber, int lineNumber )
+        {
+            this.statements = statements;
+            this.firstStatementLineNumber = firstStatementLineNumber;
+            this.lineNumber = lineNumber;
+        }
+    }
+}
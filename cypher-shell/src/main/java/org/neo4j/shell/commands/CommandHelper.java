@@ -97,6 +97,7 @@ public class CommandHelper
         registerCommand( new Param( cypherShell.getParameterMap() ) );
         registerCommand( new Params( logger, cypherShell.getParameterMap() ) );
         registerCommand( new Source( cypherShell, new ShellStatementParser() ) );
+        registerCommand( new Config( logger, cypherShell ) );
     }
 
     private void registerCommand( @Nonnull final Command command ) throws DuplicateCommandException
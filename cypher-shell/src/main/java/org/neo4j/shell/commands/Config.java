@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.commands;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import org.neo4j.shell.ConnectionConfig;
+import org.neo4j.shell.ConnectionSetting;
+import org.neo4j.shell.CypherShell;
+import org.neo4j.shell.exception.CommandException;
+import org.neo4j.shell.exception.ExitException;
+import org.neo4j.shell.log.Logger;
+
+import static org.neo4j.shell.commands.CommandHelper.simpleArgParse;
+
+/**
+ * This lists or changes the tuning settings of the current connection
+ */
+public class Config implements Command
+{
+    public static final String COMMAND_NAME = ":config";
+    private final Logger logger;
+    private final CypherShell cypherShell;
+
+    public Config( @Nonnull Logger logger, @Nonnull CypherShell cypherShell )
+    {
+        this.logger = logger;
+        this.cypherShell = cypherShell;
+    }
+
+    @Nonnull
+    @Override
+    public String getName()
+    {
+        return COMMAND_NAME;
+    }
+
+    @Nonnull
+    @Override
+    public String getDescription()
+    {
+        return "Print or change the connection settings";
+    }
+
+    @Nonnull
+    @Override
+    public String getUsage()
+    {
+        return "[setting [value]]";
+    }
+
+    @Nonnull
+    @Override
+    public String getHelp()
+    {
+        return "Print all connection settings, the value of the given setting, or change the given setting and reconnect. Settings are fetch-size, " +
+               "max-connection-pool-size, connection-acquisition-timeout and max-connection-lifetime (timeouts in seconds)";
+    }
+
+    @Nonnull
+    @Override
+    public List<String> getAliases()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void execute( @Nonnull final String argString ) throws ExitException, CommandException
+    {
+        String[] args = simpleArgParse( argString, 0, 2, COMMAND_NAME, getUsage() );
+        ConnectionConfig connectionConfig = cypherShell.getConnectionConfig();
+        if ( connectionConfig == null )
+        {
+            throw new CommandException( "Not connected to Neo4j" );
+        }
+        if ( args.length == 0 )
+        {
+            listAllSettings( connectionConfig );
+            return;
+        }
+
+        ConnectionSetting setting = ConnectionSetting.fromName( args[0] );
+        if ( setting == null )
+        {
+            throw new CommandException( "Unknown setting: " + args[0] );
+        }
+        if ( args.length == 2 )
+        {
+            cypherShell.reconfigure( setting, parsePositive( args[1] ) );
+        }
+        listSetting( setting.settingName().length(), setting, connectionConfig );
+    }
+
+    private static int parsePositive( @Nonnull String value ) throws CommandException
+    {
+        try
+        {
+            int parsed = Integer.parseInt( value );
+            if ( parsed > 0 )
+            {
+                return parsed;
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // Reported below
+        }
+        throw new CommandException( "Expected a positive integer, got: " + value );
+    }
+
+    private void listSetting( int leftColWidth, @Nonnull ConnectionSetting setting, @Nonnull ConnectionConfig connectionConfig )
+    {
+        logger.printOut( String.format( ":config %-" + leftColWidth + "s => %d", setting.settingName(), setting.get( connectionConfig ) ) );
+    }
+
+    private void listAllSettings( @Nonnull ConnectionConfig connectionConfig )
+    {
+        int leftColWidth = 0;
+        for ( ConnectionSetting setting : ConnectionSetting.values() )
+        {
+            leftColWidth = Math.max( leftColWidth, setting.settingName().length() );
+        }
+        for ( ConnectionSetting setting : ConnectionSetting.values() )
+        {
+            listSetting( leftColWidth, setting, connectionConfig );
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.commands;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import org.neo4j.shell.exception.CommandException;
+
+/**
+ * Keeps the statements of recently parsed files, so that a file which is read again without having changed does not have to be parsed again. A file is
+ * considered unchanged as long as its size and modification time are the same. The least recently used files are evicted when the total length of the
+ * cached statements exceeds the bound.
+ */
+class ParsedFileCache
+{
+    private final long maxLength;
+    // In order of use, least recently used first
+    private final Map<Path,Entry> entries = new LinkedHashMap<>( 16, 0.75f, true );
+    private long length;
+
+    /**
+     * @param maxLength the maximum total number of characters of all cached statements
+     */
+    ParsedFileCache( long maxLength )
+    {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Get the statements of a file, parsing it if it is not cached or has changed since it was cached.
+     *
+     * @param file   to get the statements of
+     * @param parser to parse the file with
+     * @return the statements of the file, which must not be modified
+     */
+    @Nonnull
+    List<String> get( @Nonnull Path file, @Nonnull Parser parser ) throws IOException, CommandException
+    {
+        BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
+        // Pipes and other special files may give different contents every time they are read
+        if ( !attributes.isRegularFile() )
+        {
+            return parser.parse();
+        }
+        Path path = file.toAbsolutePath().normalize();
+        Entry entry = entries.get( path );
+        if ( entry != null && entry.size == attributes.size() && entry.lastModified.equals( attributes.lastModifiedTime() ) )
+        {
+            return entry.statements;
+        }
+        if ( entry != null )
+        {
+            entries.remove( path );
+            length -= entry.length;
+        }
+        entry = new Entry( attributes, Collections.unmodifiableList( parser.parse() ) );
+        if ( entry.length <= maxLength )
+        {
+            entries.put( path, entry );
+            length += entry.length;
+            evictLeastRecentlyUsed();
+        }
+        return entry.statements;
+    }
+
+    private void evictLeastRecentlyUsed()
+    {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ( length > maxLength )
+        {
+            length -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Parses a file into statements.
+     */
+    interface Parser
+    {
+        @Nonnull
+        List<String> parse() throws IOException, CommandException;
+    }
+
+    private static class Entry
+    {
+        private final long size;
+        private final FileTime lastModified;
+        private final List<String> statements;
+        // The total number of characters of the statements
+        private final long length;
+
+        Entry( @Nonnull BasicFileAttributes attributes, @Nonnull List<String> statements )
+        {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+            this.statements = statements;
+            long length = 0;
+            for ( String statement : statements )
+            {
+                length += statement.length();
+            }
+            this.length = length;
+        }
+    }
+}
@@ -24,6 +24,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
@@ -31,19 +34,24 @@ import javax.annotation.Nonnull;
 import org.neo4j.shell.CypherShell;
 import org.neo4j.shell.exception.CommandException;
 import org.neo4j.shell.exception.ExitException;
+import org.neo4j.shell.parser.MappedStatementSplitter;
 import org.neo4j.shell.parser.StatementParser;
 
 import static java.lang.String.format;
 import static org.neo4j.shell.commands.CommandHelper.simpleArgParse;
 
 /**
- * This command reads a cypher file frome the filesystem and executes the statements therein.
+ * This command reads a cypher file frome the filesystem and executes the statements therein. The statements of recently sourced files are kept for the rest
+ * of the session, so that sourcing the same file again does not parse it again unless it has changed.
  */
 public class Source implements Command
 {
     private static final String COMMAND_NAME = ":source";
+    // The total number of characters of statements kept from recently sourced files
+    private static final long PARSED_FILE_CACHE_SIZE = 64L << 20;
     private final CypherShell cypherShell;
     private final StatementParser statementParser;
+    private final ParsedFileCache parsedFiles = new ParsedFileCache( PARSED_FILE_CACHE_SIZE );
 
     public Source( CypherShell cypherShell, StatementParser statementParser )
     {
@@ -91,19 +99,45 @@ public class Source implements Command
     {
         String filename = simpleArgParse( argString, 1, 1, COMMAND_NAME, getUsage() )[0];
 
-        try ( BufferedReader bufferedReader = new BufferedReader( new InputStreamReader( new FileInputStream( new File( filename ) ) ) ) )
+        File file = new File( filename );
+        List<String> statements;
+        try ( FileInputStream inputStream = new FileInputStream( file ) )
         {
-            bufferedReader.lines()
-                          .forEach( line -> statementParser.parseMoreText( line + "\n" ) );
-            List<String> statements = statementParser.consumeStatements();
-            for ( String statement : statements )
-            {
-                cypherShell.execute( statement );
-            }
+            statements = parsedFiles.get( file.toPath(), () -> readStatements( inputStream ) );
         }
         catch ( IOException e )
         {
             throw new CommandException( format( "Cannot find file: '%s'", filename ), e );
         }
+        for ( String statement : statements )
+        {
+            cypherShell.execute( statement );
+        }
+    }
+
+    @Nonnull
+    private List<String> readStatements( @Nonnull FileInputStream inputStream ) throws IOException, CommandException
+    {
+        Charset charset = Charset.defaultCharset();
+        FileChannel channel = inputStream.getChannel();
+        // Pipes and other special files have no size and can not be mapped
+        if ( MappedStatementSplitter.supports( charset ) && channel.size() > 0 )
+        {
+            List<String> statements = new ArrayList<>();
+            try
+            {
+                new MappedStatementSplitter( charset ).split( channel, ( completed, firstLineNumber, lineNumber ) -> statements.addAll( completed ) );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new CommandException( "Interrupted while reading file", e );
+            }
+            return statements;
+        }
+        BufferedReader bufferedReader = new BufferedReader( new InputStreamReader( inputStream ) );
+        bufferedReader.lines()
+                      .forEach( line -> statementParser.parseMoreText( line + "\n" ) );
+        return statementParser.consumeStatements();
     }
 }
@@ -133,6 +133,15 @@ public class AnsiLogger implements Logger
         return debug;
     }
 
+    @Override
+    public void endOfStatement()
+    {
+        if ( out instanceof FlushingPrintStream )
+        {
+            ((FlushingPrintStream) out).endOfStatement();
+        }
+    }
+
     @Override
     public void printError( @Nonnull Throwable throwable )
     {
@@ -151,6 +160,20 @@ public class AnsiLogger implements Logger
         out.println( Ansi.ansi().render( msg ).toString() );
     }
 
+    @Override
+    public void printData( @Nonnull final String line )
+    {
+        // Results are printed as they are, both to save rendering every row and to not mangle data which happens to look like Ansi markup
+        if ( out instanceof FlushingPrintStream )
+        {
+            ((FlushingPrintStream) out).printData( line );
+        }
+        else
+        {
+            out.println( line );
+        }
+    }
+
     /**
      * Formatting for Bolt exceptions.
      */
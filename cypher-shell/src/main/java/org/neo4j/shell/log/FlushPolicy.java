@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.log;
+
+import javax.annotation.Nonnull;
+
+/**
+ * When buffered output is written to the output stream.
+ */
+public enum FlushPolicy
+{
+    // After every record, or every given number of records
+    RECORD,
+    // When a statement has been executed
+    STATEMENT,
+    // When nothing has been printed for a short while
+    IDLE;
+
+    public static FlushPolicy parse( @Nonnull String policy )
+    {
+        for ( FlushPolicy flushPolicy : values() )
+        {
+            if ( flushPolicy.name().equalsIgnoreCase( policy ) )
+            {
+                return flushPolicy;
+            }
+        }
+        return RECORD;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.log;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * A print stream which buffers what is printed, and only flushes it as often as its {@link FlushPolicy} demands. Printing a line to a stream which flushes
+ * automatically costs a system call per line, which is a noticeable part of the time it takes to export a large result to a pipe or a file.
+ * <p>
+ * Only lines of result data printed with {@link #printData(String)} count towards the lines between flushes of the {@link FlushPolicy#RECORD} policy, other
+ * lines are flushed together with them or at the end of the statement.
+ */
+public class FlushingPrintStream extends PrintStream
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    // How long nothing must have been printed before the IDLE policy flushes
+    static final long IDLE_MILLIS = 100;
+
+    private final FlushPolicy policy;
+    private final int linesPerFlush;
+    private final ScheduledExecutorService idleFlusher;
+    private int unflushedLines;
+    private boolean unflushed;
+    private long lastPrinted;
+
+    /**
+     * @param out           to write to
+     * @param policy        when to flush
+     * @param linesPerFlush with the {@link FlushPolicy#RECORD} policy, the number of lines of result data to print between flushes
+     */
+    public FlushingPrintStream( @Nonnull OutputStream out, @Nonnull FlushPolicy policy, int linesPerFlush )
+    {
+        super( new BufferedOutputStream( out, BUFFER_SIZE ), false );
+        this.policy = policy;
+        this.linesPerFlush = linesPerFlush;
+        if ( policy == FlushPolicy.IDLE )
+        {
+            idleFlusher = Executors.newSingleThreadScheduledExecutor( runnable ->
+            {
+                Thread thread = new Thread( runnable, "cypher-shell-output-flusher" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            idleFlusher.scheduleWithFixedDelay( this::flushIfIdle, IDLE_MILLIS, IDLE_MILLIS, TimeUnit.MILLISECONDS );
+        }
+        else
+        {
+            idleFlusher = null;
+        }
+    }
+
+    @Override
+    public synchronized void println( String line )
+    {
+        super.println( line );
+        unflushed = true;
+        lastPrinted = System.nanoTime();
+    }
+
+    /**
+     * Print a line of result data, flushing if the policy demands it.
+     *
+     * @param line to print
+     */
+    public synchronized void printData( String line )
+    {
+        println( line );
+        unflushedLines++;
+        if ( policy == FlushPolicy.RECORD && unflushedLines >= linesPerFlush )
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Flush unless the policy is to wait until printing goes idle.
+     */
+    public synchronized void endOfStatement()
+    {
+        if ( policy != FlushPolicy.IDLE )
+        {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush()
+    {
+        super.flush();
+        unflushedLines = 0;
+        unflushed = false;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( idleFlusher != null )
+        {
+            idleFlusher.shutdownNow();
+        }
+        super.close();
+    }
+
+    private synchronized void flushIfIdle()
+    {
+        if ( unflushed && System.nanoTime() - lastPrinted >= TimeUnit.MILLISECONDS.toNanos( IDLE_MILLIS ) )
+        {
+            flush();
+        }
+    }
+}
@@ -71,6 +71,13 @@ public interface Logger extends LinePrinter
      */
     boolean isDebugEnabled();
 
+    /**
+     * Called when a statement has been executed, so that output which is held back until the end of a statement can be written.
+     */
+    default void endOfStatement()
+    {
+    }
+
     /**
      * Convenience method which only prints the given text to the output stream if debug mode is enabled
      *
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import static java.lang.String.format;
+
+/**
+ * Splits a file into statements by scanning its bytes directly in memory mapped windows, following the same rules as {@link ShellStatementParser} does
+ * for the lines of the file. Only complete statements are decoded into strings, and statements which have not been completed by the end of the file are
+ * ignored.
+ * <p>
+ * This only works for charsets where the characters which delimit statements, quotes and comments are single ASCII bytes which can not be part of any other
+ * character, see {@link #supports(Charset)}.
+ */
+public class MappedStatementSplitter
+{
+    /**
+     * Receives the statements completed by a line of the file.
+     */
+    public interface Listener
+    {
+        /**
+         * @param statements      completed by the line
+         * @param firstLineNumber the line number (starting from 1) where the first of the statements started
+         * @param lineNumber      the line number (starting from 1) of the line
+         * @throws InterruptedException if interrupted while handing over the statements
+         */
+        void statements( @Nonnull List<String> statements, int firstLineNumber, int lineNumber ) throws InterruptedException;
+    }
+
+    // The largest part of the file mapped at once, which is also the longest line supported
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+    private static final byte SEMICOLON = ';';
+    private static final byte BACKSLASH = '\\';
+    private static final byte SLASH = '/';
+    private static final byte STAR = '*';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte BACKTICK = '`';
+    private static final byte DOUBLE_QUOTE = '"';
+    private static final byte SINGLE_QUOTE = '\'';
+    private static final byte COMMAND_PREFIX = ':';
+
+    private static final int NORMAL = 0;
+    private static final int IN_QUOTE = 1;
+    private static final int IN_LINE_COMMENT = 2;
+    private static final int IN_BLOCK_COMMENT = 3;
+
+    private static final int QUOTE_SHIFT = 2;
+    private static final int TEXT_SEEN = 1 << 10;
+
+    /**
+     * Every state the scanner can be in between two lines, packed as the mode, the quote byte and whether the current statement has any text outside of
+     * comments. Line comments always end with their line.
+     */
+    static final int[] LINE_START_STATES = {
+            NORMAL,
+            NORMAL | TEXT_SEEN,
+            IN_BLOCK_COMMENT,
+            IN_BLOCK_COMMENT | TEXT_SEEN,
+            IN_QUOTE | SINGLE_QUOTE << QUOTE_SHIFT | TEXT_SEEN,
+            IN_QUOTE | DOUBLE_QUOTE << QUOTE_SHIFT | TEXT_SEEN,
+            IN_QUOTE | BACKTICK << QUOTE_SHIFT | TEXT_SEEN
+    };
+
+    // Bytes which may change the state of the scanner outside of quotes and comments, everything else is copied as is
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static
+    {
+        for ( byte b : new byte[]{SEMICOLON, BACKSLASH, SLASH, STAR, BACKTICK, DOUBLE_QUOTE, SINGLE_QUOTE} )
+        {
+            SPECIAL[b] = true;
+        }
+    }
+
+    private final Charset charset;
+    private final int windowSize;
+    private int state;
+    // The byte which ends the current quote, only meaningful while IN_QUOTE
+    private byte quote;
+    // The bytes of the current statement seen so far, without any comments
+    private byte[] statement = new byte[8192];
+    private int statementLength;
+    // The number of bytes at the start of the statement which have been checked for text
+    private int whitespaceLength;
+    // Whether the current statement is known to contain text outside of comments
+    private boolean hasText;
+    private List<String> completed = new ArrayList<>();
+    private int lineNumber;
+    private int statementLineNumber;
+
+    public MappedStatementSplitter( @Nonnull Charset charset )
+    {
+        this( charset, DEFAULT_WINDOW_SIZE );
+    }
+
+    MappedStatementSplitter( @Nonnull Charset charset, int windowSize )
+    {
+        this( charset, windowSize, NORMAL );
+    }
+
+    /**
+     * @param lineStartState the state to start scanning in, one of {@link #LINE_START_STATES}. Unless it is {@link #NORMAL}, the first statement started
+     *                       before the scanned part of the file, which is reported as starting on line 0
+     */
+    MappedStatementSplitter( @Nonnull Charset charset, int windowSize, int lineStartState )
+    {
+        if ( !supports( charset ) )
+        {
+            throw new IllegalArgumentException( "Unsupported charset: " + charset );
+        }
+        this.charset = charset;
+        this.windowSize = windowSize;
+        this.state = lineStartState & ((1 << QUOTE_SHIFT) - 1);
+        this.quote = (byte) ((lineStartState & (TEXT_SEEN - 1)) >> QUOTE_SHIFT);
+        this.hasText = (lineStartState & TEXT_SEEN) != 0;
+        this.statementLineNumber = lineStartState == NORMAL ? 1 : 0;
+    }
+
+    /**
+     * @param charset of the file
+     * @return true if files in the charset can be split on their bytes, false otherwise
+     */
+    public static boolean supports( @Nonnull Charset charset )
+    {
+        return StandardCharsets.UTF_8.equals( charset ) || StandardCharsets.US_ASCII.equals( charset ) || StandardCharsets.ISO_8859_1.equals( charset );
+    }
+
+    /**
+     * Split the rest of the file, from the current position of the channel until its end, into statements.
+     *
+     * @param channel  of the file to split
+     * @param listener to hand over completed statements to
+     * @throws IOException          if the file could not be mapped, or if it contains a line which is too long to be mapped in one piece
+     * @throws InterruptedException if the listener was interrupted
+     */
+    public void split( @Nonnull FileChannel channel, @Nonnull Listener listener ) throws IOException, InterruptedException
+    {
+        long position = channel.position();
+        long size = channel.size();
+        while ( position < size )
+        {
+            int length = (int) Math.min( windowSize, size - position );
+            MappedByteBuffer window = channel.map( FileChannel.MapMode.READ_ONLY, position, length );
+            boolean lastWindow = position + length == size;
+            // Only scan complete lines, the last one in the window continues in the next window
+            int end = lastWindow ? length : endOfLastLine( window, length );
+            if ( end == 0 )
+            {
+                throw new IOException( format( "Line %d is longer than the maximum supported length of %d bytes", lineNumber + 1, windowSize ) );
+            }
+            scan( window, end, listener );
+            position += end;
+        }
+    }
+
+    /**
+     * Scan whole lines in the window.
+     *
+     * @param end      the position after the last line terminator to scan up to, or the end of the file
+     * @param listener to hand over completed statements to
+     */
+    void scan( @Nonnull ByteBuffer window, int end, @Nonnull Listener listener ) throws InterruptedException
+    {
+        int lineStart = 0;
+        while ( lineStart < end )
+        {
+            lineStart = scanLine( window, lineStart, end, listener );
+        }
+    }
+
+    /**
+     * @return the part of the current statement which has been seen so far
+     */
+    @Nonnull
+    String pendingStatement()
+    {
+        return new String( statement, 0, statementLength, charset );
+    }
+
+    /**
+     * @return the number of lines scanned so far
+     */
+    int lineNumber()
+    {
+        return lineNumber;
+    }
+
+    /**
+     * @return the line number the current statement started on, or 0 if it started before the scanned part of the file
+     */
+    int statementLineNumber()
+    {
+        return statementLineNumber;
+    }
+
+    /**
+     * @return the position after the last line terminator in the window, or 0 if there is none
+     */
+    private static int endOfLastLine( @Nonnull ByteBuffer window, int length )
+    {
+        if ( window.get( length - 1 ) == NEWLINE )
+        {
+            return length;
+        }
+        // A carriage return at the very end might be followed by a newline in the next window, which belongs to the same line terminator
+        for ( int i = length - 2; i >= 0; i-- )
+        {
+            byte b = window.get( i );
+            if ( b == NEWLINE || b == CARRIAGE_RETURN )
+            {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Scan the line starting at lineStart, which is terminated by a line terminator or by the end of the scanned part of the window.
+     *
+     * @return the position of the next line
+     */
+    private int scanLine( @Nonnull ByteBuffer window, int lineStart, int end, @Nonnull Listener listener ) throws InterruptedException
+    {
+        lineNumber++;
+        if ( !containsText() )
+        {
+            // Nothing but whitespace so far, so the next statement can't have started before this line
+            statementLineNumber = lineNumber;
+            int next = scanShellCommand( window, lineStart, end );
+            if ( next >= 0 )
+            {
+                return endLine( next, listener );
+            }
+        }
+
+        // Start of the bytes which have not been copied to the statement yet
+        int runStart = lineStart;
+        int i = lineStart;
+        while ( i < end )
+        {
+            byte b = window.get( i );
+            if ( b == NEWLINE || b == CARRIAGE_RETURN )
+            {
+                break;
+            }
+            switch ( state )
+            {
+            case IN_LINE_COMMENT:
+                i++;
+                break;
+            case IN_BLOCK_COMMENT:
+                if ( b == STAR && i + 1 < end && window.get( i + 1 ) == SLASH )
+                {
+                    i += 2;
+                    runStart = i;
+                    state = NORMAL;
+                }
+                else
+                {
+                    i++;
+                }
+                break;
+            case IN_QUOTE:
+                if ( b == BACKSLASH )
+                {
+                    // backslash can escape stuff inside quotes too
+                    i = skipEscaped( window, i, end );
+                }
+                else
+                {
+                    if ( b == quote )
+                    {
+                        state = NORMAL;
+                    }
+                    i++;
+                }
+                break;
+            default:
+                if ( b < 0 || !SPECIAL[b] )
+                {
+                    i++;
+                    break;
+                }
+                switch ( b )
+                {
+                case BACKSLASH:
+                    i = skipEscaped( window, i, end );
+                    break;
+                case SEMICOLON:
+                    // end current statement and start a new one
+                    append( window, runStart, i + 1 );
+                    completed.add( new String( statement, 0, statementLength, charset ) );
+                    statementLength = 0;
+                    whitespaceLength = 0;
+                    hasText = false;
+                    i++;
+                    runStart = i;
+                    break;
+                case SLASH:
+                case STAR:
+                    if ( i > lineStart && window.get( i - 1 ) == SLASH )
+                    {
+                        // Drop the slash which started the comment, unless it has already been dropped as the end of a block comment
+                        append( window, runStart, Math.max( runStart, i - 1 ) );
+                        if ( b == SLASH )
+                        {
+                            state = IN_LINE_COMMENT;
+                        }
+                        else if ( i + 1 < end && window.get( i + 1 ) == SLASH )
+                        {
+                            // The star which opened the comment also closes it, as in /*/
+                            i++;
+                            runStart = i + 1;
+                        }
+                        else
+                        {
+                            state = IN_BLOCK_COMMENT;
+                        }
+                    }
+                    i++;
+                    break;
+                default:
+                    quote = b;
+                    state = IN_QUOTE;
+                    i++;
+                }
+            }
+        }
+
+        // The line terminator is seen as a single newline, just like when reading the file line by line
+        if ( state == NORMAL || state == IN_QUOTE )
+        {
+            append( window, runStart, i );
+            ensureCapacity( 1 );
+            statement[statementLength++] = NEWLINE;
+        }
+        else if ( state == IN_LINE_COMMENT )
+        {
+            state = NORMAL;
+        }
+        return endLine( skipLineTerminator( window, i, end ), listener );
+    }
+
+    /**
+     * If the line is a shell command, it is completed as a statement of its own.
+     *
+     * @return the position of the line terminator if the line is a shell command, -1 otherwise
+     */
+    private int scanShellCommand( @Nonnull ByteBuffer window, int lineStart, int end )
+    {
+        // Cheap check for the prefix so that only lines which are likely to be commands are decoded
+        int i = lineStart;
+        while ( i < end && isSpaceOrTab( window.get( i ) ) )
+        {
+            i++;
+        }
+        if ( i == end || window.get( i ) != COMMAND_PREFIX )
+        {
+            return -1;
+        }
+        while ( i < end && window.get( i ) != NEWLINE && window.get( i ) != CARRIAGE_RETURN )
+        {
+            i++;
+        }
+        String line = decode( window, lineStart, i ) + "\n";
+        if ( !ShellStatementParser.isShellCommand( line ) )
+        {
+            return -1;
+        }
+        completed.add( line );
+        return skipLineTerminator( window, i, end );
+    }
+
+    private int endLine( int next, @Nonnull Listener listener ) throws InterruptedException
+    {
+        if ( !completed.isEmpty() )
+        {
+            listener.statements( completed, statementLineNumber, lineNumber );
+            completed = new ArrayList<>();
+            statementLineNumber = lineNumber;
+        }
+        return next;
+    }
+
+    /**
+     * @return false if no text (except whitespace) has been seen since the last completed statement, true otherwise
+     */
+    private boolean containsText()
+    {
+        // An unfinished comment counts as text, as it will swallow whatever comes next until it ends
+        return state == IN_LINE_COMMENT || state == IN_BLOCK_COMMENT || statementHasText();
+    }
+
+    /**
+     * @return true if the current statement contains text outside of comments, false otherwise
+     */
+    private boolean statementHasText()
+    {
+        while ( !hasText && whitespaceLength < statementLength )
+        {
+            hasText = (statement[whitespaceLength] & 0xFF) > ' ';
+            whitespaceLength++;
+        }
+        return hasText;
+    }
+
+    /**
+     * @return the position after the escaped byte, an escaped line terminator is still the end of the line
+     */
+    private static int skipEscaped( @Nonnull ByteBuffer window, int backslash, int end )
+    {
+        int escaped = backslash + 1;
+        if ( escaped < end && window.get( escaped ) != NEWLINE && window.get( escaped ) != CARRIAGE_RETURN )
+        {
+            return escaped + 1;
+        }
+        return escaped;
+    }
+
+    /**
+     * @return the position after the line terminator at i, if any
+     */
+    private static int skipLineTerminator( @Nonnull ByteBuffer window, int i, int end )
+    {
+        if ( i < end && window.get( i ) == CARRIAGE_RETURN )
+        {
+            i++;
+        }
+        if ( i < end && window.get( i ) == NEWLINE )
+        {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return true if the byte is matched by \s in a {@link java.util.regex.Pattern} and does not end a line
+     */
+    private static boolean isSpaceOrTab( byte b )
+    {
+        return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+    }
+
+    private void append( @Nonnull ByteBuffer window, int from, int to )
+    {
+        int length = to - from;
+        ensureCapacity( length );
+        window.position( from );
+        window.get( statement, statementLength, length );
+        statementLength += length;
+    }
+
+    private void ensureCapacity( int additional )
+    {
+        if ( statementLength + additional > statement.length )
+        {
+            statement = Arrays.copyOf( statement, Math.max( statement.length * 2, statementLength + additional ) );
+        }
+    }
+
+    @Nonnull
+    private String decode( @Nonnull ByteBuffer window, int from, int to )
+    {
+        byte[] bytes = new byte[to - from];
+        window.position( from );
+        window.get( bytes );
+        return new String( bytes, charset );
+    }
+}
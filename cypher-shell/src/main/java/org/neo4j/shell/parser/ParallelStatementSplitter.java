@@ -0,0 +1,677 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nonnull;
+
+import static java.lang.String.format;
+import static org.neo4j.shell.parser.MappedStatementSplitter.LINE_START_STATES;
+
+/**
+ * Splits a large file into statements using several threads, with the same result as a {@link MappedStatementSplitter}.
+ * <p>
+ * The file is divided into chunks of whole lines. Which quote or comment a chunk starts in is not known until all chunks before it have been scanned, so
+ * each chunk is first scanned speculatively from every state the scanner can be in between two lines. This scan only classifies the bytes with a small
+ * state machine to find the state the chunk ends in. The states of the scans from all start states together are treated as a single state of a larger
+ * state machine, which is built as the chunk is scanned, so that this costs a single table lookup per byte.
+ * Chaining the end states then gives the actual state each chunk starts in, after which the chunks are split into statements in parallel. Finally, the
+ * statements which span several chunks are stitched together, and the line numbers are made relative to the start of the file. Only a fixed number of
+ * chunks are split ahead of the one being stitched, so that no more than a few chunks of statements are held in memory, however many threads there are.
+ */
+public class ParallelStatementSplitter
+{
+    private static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+    // The number of chunks split ahead of the one being stitched, whatever the number of threads. Each holds all its statements on the heap until it is
+    // stitched, so this bounds the memory used to a few chunks
+    private static final int SPLIT_AHEAD = 3;
+    // Enough to find the end of the line a chunk boundary falls on in a single read for all but very long lines
+    private static final int BOUNDARY_READ_SIZE = 8192;
+    // The speculative scan copies the chunk to the heap in blocks of this size, which is faster to scan than the mapped chunk itself
+    private static final int BLOCK_SIZE = 64 << 10;
+
+    // The classes of bytes the speculative scan tells apart
+    private static final int TEXT = 0;
+    // Whitespace which may come before the colon of a shell command
+    private static final int SPACE = 1;
+    // Any other byte which is not text
+    private static final int CONTROL = 2;
+    private static final int NEWLINE = 3;
+    private static final int SEMICOLON = 4;
+    private static final int BACKSLASH = 5;
+    private static final int SLASH = 6;
+    private static final int STAR = 7;
+    private static final int SINGLE_QUOTE = 8;
+    private static final int DOUBLE_QUOTE = 9;
+    private static final int BACKTICK = 10;
+    private static final int COLON = 11;
+    private static final int CLASSES = 12;
+
+    // The states of the speculative scan. Those ending in 0 or 1 tell whether the current statement has any text outside of comments so far
+    // In a statement without text, with nothing but spaces on the line so far
+    private static final int LINE_START = 0;
+    private static final int NORMAL_0 = 1;
+    private static final int NORMAL_1 = 2;
+    // After a slash which may start a comment
+    private static final int SLASH_0 = 3;
+    private static final int SLASH_1 = 4;
+    // After the slash which ended a block comment, which may also start another comment
+    private static final int CLOSED_0 = 5;
+    private static final int CLOSED_1 = 6;
+    private static final int ESCAPED = 7;
+    private static final int LINE_COMMENT_0 = 8;
+    private static final int LINE_COMMENT_1 = 9;
+    private static final int BLOCK_COMMENT_0 = 10;
+    private static final int BLOCK_COMMENT_1 = 11;
+    // After a star in a block comment, which may end it
+    private static final int BLOCK_STAR_0 = 12;
+    private static final int BLOCK_STAR_1 = 13;
+    private static final int SINGLE_QUOTED = 14;
+    private static final int SINGLE_QUOTED_ESCAPED = 15;
+    private static final int DOUBLE_QUOTED = 16;
+    private static final int DOUBLE_QUOTED_ESCAPED = 17;
+    private static final int BACKTICKED = 18;
+    private static final int BACKTICKED_ESCAPED = 19;
+    // In the rest of a line which is a shell command
+    private static final int COMMAND = 20;
+    private static final int STATES = 21;
+    // A colon first on a line, which is only a shell command if the rest of the line is too
+    private static final int COMMAND_CANDIDATE = STATES;
+
+    // The speculative state for each of the MappedStatementSplitter.LINE_START_STATES, in the same order
+    private static final int[] SPECULATIVE_START_STATES = {
+            LINE_START, NORMAL_1, BLOCK_COMMENT_0, BLOCK_COMMENT_1, SINGLE_QUOTED, DOUBLE_QUOTED, BACKTICKED
+    };
+    private static final byte[] CLASS_OF = new byte[256];
+    private static final byte[] TRANSITIONS = new byte[STATES * CLASSES];
+
+    static
+    {
+        for ( int b = 0; b < CLASS_OF.length; b++ )
+        {
+            CLASS_OF[b] = (byte) classOf( b );
+        }
+        for ( int state = 0; state < STATES; state++ )
+        {
+            for ( int byteClass = 0; byteClass < CLASSES; byteClass++ )
+            {
+                TRANSITIONS[state * CLASSES + byteClass] = (byte) transition( state, byteClass );
+            }
+        }
+    }
+
+    private final Charset charset;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * @param charset of the file, which must be {@link MappedStatementSplitter#supports(Charset) supported}
+     * @param threads the number of threads to scan the file with
+     */
+    public ParallelStatementSplitter( @Nonnull Charset charset, int threads )
+    {
+        this( charset, threads, DEFAULT_CHUNK_SIZE );
+    }
+
+    ParallelStatementSplitter( @Nonnull Charset charset, int threads, int chunkSize )
+    {
+        if ( !MappedStatementSplitter.supports( charset ) )
+        {
+            throw new IllegalArgumentException( "Unsupported charset: " + charset );
+        }
+        this.charset = charset;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Split the rest of the file, from the current position of the channel until its end, into statements.
+     *
+     * @param channel  of the file to split
+     * @param listener to hand over completed statements to, always called from the calling thread
+     * @throws IOException          if the file could not be mapped, or if it contains a line which is too long to be mapped in one piece
+     * @throws InterruptedException if interrupted while waiting for chunks to be scanned, or if the listener was interrupted
+     */
+    public void split( @Nonnull FileChannel channel, @Nonnull MappedStatementSplitter.Listener listener ) throws IOException, InterruptedException
+    {
+        long[] boundaries = chunkBoundaries( channel );
+        int chunks = boundaries.length - 1;
+        ExecutorService executor = Executors.newFixedThreadPool( threads, runnable ->
+        {
+            Thread thread = new Thread( runnable, "cypher-shell-statement-scanner" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        try
+        {
+            // The last chunk ends the file, so where it ends up does not matter
+            List<Future<int[]>> endStates = new ArrayList<>( chunks );
+            for ( int i = 0; i < chunks - 1; i++ )
+            {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                endStates.add( executor.submit( () -> endStates( map( channel, start, end ) ) ) );
+            }
+
+            // Chunks being split, limited so that only a few chunks worth of statements are held in memory at once
+            Deque<Future<Chunk>> splitting = new ArrayDeque<>();
+            int splitAhead = Math.min( threads, SPLIT_AHEAD );
+            int nextToSplit = 0;
+            int startState = 0;
+            Stitcher stitcher = new Stitcher( listener );
+            for ( int i = 0; i < chunks; i++ )
+            {
+                while ( nextToSplit < chunks && nextToSplit <= i + splitAhead )
+                {
+                    long start = boundaries[nextToSplit];
+                    long end = boundaries[nextToSplit + 1];
+                    int state = LINE_START_STATES[startState];
+                    splitting.add( executor.submit( () -> split( map( channel, start, end ), state ) ) );
+                    if ( nextToSplit < chunks - 1 )
+                    {
+                        startState = endStates.get( nextToSplit ).get()[startState];
+                    }
+                    nextToSplit++;
+                }
+                stitcher.add( splitting.remove().get() );
+            }
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException( cause );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the positions the chunks start at, followed by the end of the file. Every chunk but the last ends right after a line terminator
+     */
+    @Nonnull
+    private long[] chunkBoundaries( @Nonnull FileChannel channel ) throws IOException
+    {
+        List<Long> boundaries = new ArrayList<>();
+        long position = channel.position();
+        long size = channel.size();
+        boundaries.add( position );
+        while ( position + chunkSize < size )
+        {
+            position = endOfLine( channel, position + chunkSize, size );
+            if ( position - boundaries.get( boundaries.size() - 1 ) > Integer.MAX_VALUE )
+            {
+                throw new IOException( format( "Line at byte %d is longer than the maximum supported length of %d bytes", position, Integer.MAX_VALUE ) );
+            }
+            if ( position < size )
+            {
+                boundaries.add( position );
+            }
+        }
+        boundaries.add( size );
+        long[] result = new long[boundaries.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = boundaries.get( i );
+        }
+        return result;
+    }
+
+    /**
+     * @return the position after the end of the line which the byte before position is part of, or the end of the file if that line has no terminator
+     */
+    private static long endOfLine( @Nonnull FileChannel channel, long position, long size ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( BOUNDARY_READ_SIZE );
+        // Start at the byte before, which may already be the end of the line
+        long offset = position - 1;
+        boolean carriageReturn = false;
+        while ( offset < size )
+        {
+            buffer.clear();
+            int read = channel.read( buffer, offset );
+            for ( int i = 0; i < read; i++ )
+            {
+                byte b = buffer.get( i );
+                if ( carriageReturn )
+                {
+                    // A carriage return and a newline together are a single line terminator
+                    return b == '\n' ? offset + i + 1 : offset + i;
+                }
+                if ( b == '\n' )
+                {
+                    return offset + i + 1;
+                }
+                carriageReturn = b == '\r';
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    @Nonnull
+    private static MappedByteBuffer map( @Nonnull FileChannel channel, long start, long end ) throws IOException
+    {
+        return channel.map( FileChannel.MapMode.READ_ONLY, start, end - start );
+    }
+
+    /**
+     * Scan a chunk which ends with a line terminator from every state between lines at the same time.
+     *
+     * @return for each of the {@link MappedStatementSplitter#LINE_START_STATES}, the index of the one the chunk ends in
+     */
+    @Nonnull
+    private int[] endStates( @Nonnull ByteBuffer window )
+    {
+        CombinedStates combinedStates = new CombinedStates();
+        int[] transitions = combinedStates.transitions;
+        int state = combinedStates.start();
+        byte[] block = new byte[BLOCK_SIZE];
+        int end = window.limit();
+        int lineStart = 0;
+        for ( int blockStart = 0; blockStart < end; blockStart += BLOCK_SIZE )
+        {
+            int length = Math.min( BLOCK_SIZE, end - blockStart );
+            window.position( blockStart );
+            window.get( block, 0, length );
+            for ( int i = 0; i < length; i++ )
+            {
+                int byteClass = CLASS_OF[block[i] & 0xFF];
+                int next = transitions[state + byteClass];
+                if ( next < 0 )
+                {
+                    int from = lineStart;
+                    next = combinedStates.next( state, byteClass, () -> isShellCommand( window, from, end ) );
+                    transitions = combinedStates.transitions;
+                }
+                state = next;
+                if ( byteClass == NEWLINE )
+                {
+                    lineStart = blockStart + i + 1;
+                }
+            }
+        }
+        return combinedStates.endStates( state );
+    }
+
+    private boolean isShellCommand( @Nonnull ByteBuffer window, int lineStart, int end )
+    {
+        int lineEnd = lineStart;
+        while ( lineEnd < end && CLASS_OF[window.get( lineEnd ) & 0xFF] != NEWLINE )
+        {
+            lineEnd++;
+        }
+        byte[] line = new byte[lineEnd - lineStart];
+        for ( int i = 0; i < line.length; i++ )
+        {
+            line[i] = window.get( lineStart + i );
+        }
+        return ShellStatementParser.isShellCommand( new String( line, charset ) + "\n" );
+    }
+
+    private static int classOf( int b )
+    {
+        switch ( b )
+        {
+        case '\n':
+        case '\r':
+            return NEWLINE;
+        case ' ':
+        case '\t':
+        case 0x0B:
+        case '\f':
+            return SPACE;
+        case ';':
+            return SEMICOLON;
+        case '\\':
+            return BACKSLASH;
+        case '/':
+            return SLASH;
+        case '*':
+            return STAR;
+        case '\'':
+            return SINGLE_QUOTE;
+        case '"':
+            return DOUBLE_QUOTE;
+        case '`':
+            return BACKTICK;
+        case ':':
+            return COLON;
+        default:
+            return b <= ' ' ? CONTROL : TEXT;
+        }
+    }
+
+    /**
+     * The same rules as {@link ShellStatementParser}, with a line terminator counting as the newline which ends a line.
+     */
+    private static int transition( int state, int byteClass )
+    {
+        switch ( state )
+        {
+        case LINE_START:
+            if ( byteClass == SPACE || byteClass == NEWLINE )
+            {
+                return LINE_START;
+            }
+            return byteClass == COLON ? COMMAND_CANDIDATE : normal( false, byteClass );
+        case NORMAL_0:
+        case NORMAL_1:
+            return normal( state == NORMAL_1, byteClass );
+        case SLASH_0:
+        case SLASH_1:
+            // Unless it starts a comment, the slash is text
+            return afterSlash( state == SLASH_1, byteClass, true );
+        case CLOSED_0:
+        case CLOSED_1:
+            return afterSlash( state == CLOSED_1, byteClass, false );
+        case ESCAPED:
+            // The escaped byte may still be the first slash of a comment
+            return byteClass == SLASH ? SLASH_1 : NORMAL_1;
+        case LINE_COMMENT_0:
+        case LINE_COMMENT_1:
+            if ( byteClass == NEWLINE )
+            {
+                return normal( state == LINE_COMMENT_1, NEWLINE );
+            }
+            return state;
+        case BLOCK_COMMENT_0:
+            return byteClass == STAR ? BLOCK_STAR_0 : BLOCK_COMMENT_0;
+        case BLOCK_COMMENT_1:
+            return byteClass == STAR ? BLOCK_STAR_1 : BLOCK_COMMENT_1;
+        case BLOCK_STAR_0:
+            return byteClass == SLASH ? CLOSED_0 : byteClass == STAR ? BLOCK_STAR_0 : BLOCK_COMMENT_0;
+        case BLOCK_STAR_1:
+            return byteClass == SLASH ? CLOSED_1 : byteClass == STAR ? BLOCK_STAR_1 : BLOCK_COMMENT_1;
+        case SINGLE_QUOTED:
+            return quoted( state, SINGLE_QUOTE, SINGLE_QUOTED_ESCAPED, byteClass );
+        case DOUBLE_QUOTED:
+            return quoted( state, DOUBLE_QUOTE, DOUBLE_QUOTED_ESCAPED, byteClass );
+        case BACKTICKED:
+            return quoted( state, BACKTICK, BACKTICKED_ESCAPED, byteClass );
+        case SINGLE_QUOTED_ESCAPED:
+        case DOUBLE_QUOTED_ESCAPED:
+        case BACKTICKED_ESCAPED:
+            // An escaped line terminator still ends the line, but that does not end the quote either
+            return state - 1;
+        case COMMAND:
+            return byteClass == NEWLINE ? LINE_START : COMMAND;
+        default:
+            throw new IllegalArgumentException( "Unknown state: " + state );
+        }
+    }
+
+    private static int normal( boolean text, int byteClass )
+    {
+        switch ( byteClass )
+        {
+        case SPACE:
+        case CONTROL:
+            return text ? NORMAL_1 : NORMAL_0;
+        case NEWLINE:
+            return text ? NORMAL_1 : LINE_START;
+        case SEMICOLON:
+            return NORMAL_0;
+        case BACKSLASH:
+            return ESCAPED;
+        case SLASH:
+            return text ? SLASH_1 : SLASH_0;
+        case SINGLE_QUOTE:
+            return SINGLE_QUOTED;
+        case DOUBLE_QUOTE:
+            return DOUBLE_QUOTED;
+        case BACKTICK:
+            return BACKTICKED;
+        default:
+            return NORMAL_1;
+        }
+    }
+
+    private static int afterSlash( boolean text, int byteClass, boolean slashIsText )
+    {
+        if ( byteClass == SLASH )
+        {
+            return text ? LINE_COMMENT_1 : LINE_COMMENT_0;
+        }
+        if ( byteClass == STAR )
+        {
+            // The star which starts a block comment may also end it, as in /*/
+            return text ? BLOCK_STAR_1 : BLOCK_STAR_0;
+        }
+        return normal( text || slashIsText, byteClass );
+    }
+
+    private static int quoted( int state, int quote, int escaped, int byteClass )
+    {
+        if ( byteClass == BACKSLASH )
+        {
+            return escaped;
+        }
+        return byteClass == quote ? NORMAL_1 : state;
+    }
+
+    @Nonnull
+    private Chunk split( @Nonnull ByteBuffer window, int startState ) throws InterruptedException
+    {
+        MappedStatementSplitter splitter = new MappedStatementSplitter( charset, Integer.MAX_VALUE, startState );
+        Chunk chunk = new Chunk();
+        splitter.scan( window, window.limit(), ( statements, firstLineNumber, lineNumber ) ->
+                chunk.lines.add( new CompletedLine( statements, firstLineNumber, lineNumber ) ) );
+        chunk.pendingStatement = splitter.pendingStatement();
+        chunk.statementLineNumber = splitter.statementLineNumber();
+        chunk.lineCount = splitter.lineNumber();
+        return chunk;
+    }
+
+    /**
+     * The states of the scans from each of the start states, combined into a single state of a state machine which is built as it is needed. As the scans
+     * are all driven by the same input, only a few of the possible combinations are ever reached.
+     */
+    private static class CombinedStates
+    {
+        // Each scan takes this many bits of a combined state
+        private static final int BITS = 5;
+        private static final long MASK = (1 << BITS) - 1;
+        private final Map<Long,Integer> offsets = new HashMap<>();
+        private long[] combined = new long[16];
+        // The combined state to go to for each combined state and byte class, -1 until it is known. A combined state is identified by its offset in
+        // this table, which saves a multiplication per byte
+        private int[] transitions = new int[combined.length * CLASSES];
+        private int count;
+
+        int start()
+        {
+            long states = 0;
+            for ( int i = 0; i < SPECULATIVE_START_STATES.length; i++ )
+            {
+                states |= (long) SPECULATIVE_START_STATES[i] << i * BITS;
+            }
+            return offsetOf( states );
+        }
+
+        /**
+         * @param isShellCommand tells whether the current line is a shell command, in case a scan has found a colon at the start of it
+         */
+        int next( int offset, int byteClass, @Nonnull BooleanSupplier isShellCommand )
+        {
+            long from = combined[offset / CLASSES];
+            long to = 0;
+            Boolean shellCommand = null;
+            for ( int i = 0; i < SPECULATIVE_START_STATES.length; i++ )
+            {
+                int state = TRANSITIONS[(int) (from >>> i * BITS & MASK) * CLASSES + byteClass];
+                if ( state == COMMAND_CANDIDATE )
+                {
+                    if ( shellCommand == null )
+                    {
+                        shellCommand = isShellCommand.getAsBoolean();
+                    }
+                    state = shellCommand ? COMMAND : NORMAL_1;
+                }
+                to |= (long) state << i * BITS;
+            }
+            int next = offsetOf( to );
+            // Which state a colon leads to depends on the rest of the line, so that is worked out every time
+            if ( shellCommand == null )
+            {
+                transitions[offset + byteClass] = next;
+            }
+            return next;
+        }
+
+        /**
+         * @return for each start state, the index of the start state its scan ended up in
+         */
+        @Nonnull
+        int[] endStates( int offset )
+        {
+            int[] endStates = new int[SPECULATIVE_START_STATES.length];
+            for ( int i = 0; i < endStates.length; i++ )
+            {
+                endStates[i] = indexOf( SPECULATIVE_START_STATES, (int) (combined[offset / CLASSES] >>> i * BITS & MASK) );
+            }
+            return endStates;
+        }
+
+        private int offsetOf( long states )
+        {
+            Integer offset = offsets.get( states );
+            if ( offset != null )
+            {
+                return offset;
+            }
+            if ( count == combined.length )
+            {
+                combined = Arrays.copyOf( combined, count * 2 );
+                transitions = Arrays.copyOf( transitions, combined.length * CLASSES );
+            }
+            Arrays.fill( transitions, count * CLASSES, (count + 1) * CLASSES, -1 );
+            combined[count] = states;
+            offset = count++ * CLASSES;
+            offsets.put( states, offset );
+            return offset;
+        }
+
+        private static int indexOf( @Nonnull int[] states, int state )
+        {
+            for ( int i = 0; i < states.length; i++ )
+            {
+                if ( states[i] == state )
+                {
+                    return i;
+                }
+            }
+            throw new IllegalStateException( "Not a state between lines: " + state );
+        }
+    }
+
+    /**
+     * Joins the chunks in order, as if the file was split in one go.
+     */
+    private static class Stitcher
+    {
+        private final MappedStatementSplitter.Listener listener;
+        // The start of the current statement from earlier chunks
+        private String pendingStatement = "";
+        private int statementLineNumber = 1;
+        private int lineOffset;
+
+        Stitcher( @Nonnull MappedStatementSplitter.Listener listener )
+        {
+            this.listener = listener;
+        }
+
+        void add( @Nonnull Chunk chunk ) throws InterruptedException
+        {
+            boolean continued = false;
+            for ( CompletedLine line : chunk.lines )
+            {
+                List<String> statements = line.statements;
+                // Shell commands are always on a line of their own, so the first statement of the chunk which is not one continues the pending statement
+                if ( !continued && !isShellCommand( statements.get( 0 ) ) )
+                {
+                    statements.set( 0, pendingStatement + statements.get( 0 ) );
+                    continued = true;
+                }
+                int firstLineNumber = line.firstLineNumber == 0 ? statementLineNumber : line.firstLineNumber + lineOffset;
+                listener.statements( statements, firstLineNumber, line.lineNumber + lineOffset );
+            }
+            pendingStatement = continued ? chunk.pendingStatement : pendingStatement + chunk.pendingStatement;
+            if ( chunk.statementLineNumber != 0 )
+            {
+                statementLineNumber = chunk.statementLineNumber + lineOffset;
+            }
+            lineOffset += chunk.lineCount;
+        }
+
+        private static boolean isShellCommand( @Nonnull String statement )
+        {
+            // Cypher statements end with a semicolon, commands with the newline of their line
+            return statement.endsWith( "\n" );
+        }
+    }
+
+    private static class Chunk
+    {
+        private final List<CompletedLine> lines = new ArrayList<>();
+        private String pendingStatement;
+        private int statementLineNumber;
+        private int lineCount;
+    }
+
+    private static class CompletedLine
+    {
+        private final List<String> statements;
+        private final int firstLineNumber;
+        private final int lineNumber;
+
+        CompletedLine( List<String> statements, int firstLineNumber, int lineNumber )
+        {
+            this.statements = statements;
+            this.firstLineNumber = firstLineNumber;
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -21,12 +21,14 @@ package org.neo4j.shell.parser;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 
 /**
  * A cypher aware parser which can detect shell commands (:prefixed) or cypher.
+ * <p>
+ * Cypher is scanned with a small state machine. Runs of characters without any special meaning are copied to the current statement in bulk, and comments
+ * are skipped without being copied at all.
  */
 public class ShellStatementParser implements StatementParser
 {
@@ -34,24 +36,41 @@ public class ShellStatementParser implements StatementParser
     private static final Pattern SHELL_CMD_PATTERN = Pattern.compile( "^\\s*:.+\\s*$" );
     private static final char SEMICOLON = ';';
     private static final char BACKSLASH = '\\';
-    private static final String LINE_COMMENT_START = "//";
-    private static final String LINE_COMMENT_END = "\n";
-    private static final String BLOCK_COMMENT_START = "/*";
+    private static final char SLASH = '/';
+    private static final char STAR = '*';
+    private static final char NEWLINE = '\n';
     private static final String BLOCK_COMMENT_END = "*/";
     private static final char BACKTICK = '`';
     private static final char DOUBLE_QUOTE = '"';
     private static final char SINGLE_QUOTE = '\'';
-    private static final int NO_COMMENT = -1;
-    private Optional<String> awaitedRightDelimiter;
-    private StringBuilder statement;
+    private static final char COMMAND_PREFIX = ':';
+
+    private static final int NORMAL = 0;
+    private static final int IN_QUOTE = 1;
+    private static final int IN_LINE_COMMENT = 2;
+    private static final int IN_BLOCK_COMMENT = 3;
+
+    // Characters which may change the state of the scanner outside of quotes and comments, everything else is copied as is
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static
+    {
+        for ( char c : new char[]{SEMICOLON, BACKSLASH, SLASH, STAR, BACKTICK, DOUBLE_QUOTE, SINGLE_QUOTE} )
+        {
+            SPECIAL[c] = true;
+        }
+    }
+
+    private final StringBuilder statement;
     private ArrayList<String> parsedStatements;
-    private int commentStart = NO_COMMENT;
+    private int state = NORMAL;
+    // The character which ends the current quote, only meaningful while IN_QUOTE
+    private char quote;
 
     public ShellStatementParser()
     {
         parsedStatements = new ArrayList<>();
         statement = new StringBuilder();
-        awaitedRightDelimiter = Optional.empty();
     }
 
     /**
@@ -63,197 +82,145 @@ public class ShellStatementParser implements StatementParser
     public void parseMoreText( @Nonnull String line )
     {
         // See if it could possibly be a shell command, only valid if not in a current statement
-        if ( statementNotStarted() && SHELL_CMD_PATTERN.matcher( line ).find() )
+        if ( statementNotStarted() && isShellCommand( line ) )
         {
             parsedStatements.add( line );
             return;
         }
 
         // We will guess it is cypher then
-        boolean skipNext = false;
-        char prev, current = (char) 0;
-        for ( char c : line.toCharArray() )
+        final int length = line.length();
+        // Start of the characters which have not been copied to the statement yet
+        int runStart = 0;
+        int i = 0;
+        while ( i < length )
         {
-            // append current
-            statement.append( c );
-            // last char shuffling
-            prev = current;
-            current = c;
-
-            if ( skipNext )
+            switch ( state )
             {
-                // This char is escaped so gets no special treatment
-                skipNext = false;
-                continue;
-            }
-
-            if ( handleComments( prev, current ) )
+            case IN_LINE_COMMENT:
             {
-                continue;
+                // The comment is dropped including the newline which ends it
+                int end = line.indexOf( NEWLINE, i );
+                if ( end < 0 )
+                {
+                    i = length;
+                    runStart = length;
+                }
+                else
+                {
+                    i = end + 1;
+                    runStart = i;
+                    state = NORMAL;
+                }
+                break;
             }
-
-            if ( current == BACKSLASH )
+            case IN_BLOCK_COMMENT:
             {
-                // backslash can escape stuff outside of comments (but inside quotes too!)
-                skipNext = true;
-                continue;
+                // The star which opened the comment may also close it, as in /*/
+                int end = line.indexOf( BLOCK_COMMENT_END, i > 0 ? i - 1 : 0 );
+                if ( end < 0 )
+                {
+                    i = length;
+                    runStart = length;
+                }
+                else
+                {
+                    i = end + BLOCK_COMMENT_END.length();
+                    runStart = i;
+                    state = NORMAL;
+                }
+                break;
             }
-
-            if ( handleQuotes( prev, current ) )
+            case IN_QUOTE:
             {
-                continue;
+                char c = line.charAt( i );
+                if ( c == BACKSLASH )
+                {
+                    // backslash can escape stuff inside quotes too
+                    i += 2;
+                }
+                else
+                {
+                    if ( c == quote )
+                    {
+                        state = NORMAL;
+                    }
+                    i++;
+                }
+                break;
             }
-
-            // Not escaped, not in a quote, not in a comment
-            if ( handleSemicolon( current ) )
+            default:
             {
-                continue;
+                char c = line.charAt( i );
+                if ( c >= SPECIAL.length || !SPECIAL[c] )
+                {
+                    i++;
+                    break;
+                }
+                switch ( c )
+                {
+                case BACKSLASH:
+                    // This char is escaped so gets no special treatment
+                    i += 2;
+                    break;
+                case SEMICOLON:
+                    // end current statement and start a new one
+                    statement.append( line, runStart, i + 1 );
+                    parsedStatements.add( statement.toString() );
+                    statement.setLength( 0 );
+                    i++;
+                    runStart = i;
+                    break;
+                case SLASH:
+                case STAR:
+                    if ( i > 0 && line.charAt( i - 1 ) == SLASH )
+                    {
+                        // Drop the slash which started the comment, unless it has already been dropped as the end of a block comment
+                        statement.append( line, runStart, Math.max( runStart, i - 1 ) );
+                        state = c == SLASH ? IN_LINE_COMMENT : IN_BLOCK_COMMENT;
+                    }
+                    i++;
+                    break;
+                default:
+                    quote = c;
+                    state = IN_QUOTE;
+                    i++;
+                }
+            }
             }
-
-            // If it's the start of a quote or comment
-            awaitedRightDelimiter = getRightDelimiter( prev, current );
-        }
-    }
-
-    /**
-     * @param current character
-     * @return true if parsing should go immediately to the next character, false otherwise
-     */
-    private boolean handleSemicolon( char current )
-    {
-        if ( current == SEMICOLON )
-        {
-            // end current statement
-            parsedStatements.add( statement.toString() );
-            // start a new statement
-            statement = new StringBuilder();
-            return true;
         }
-        return false;
-    }
 
-    /**
-     * @param prev    character
-     * @param current character
-     * @return true if parsing should go immediately to the next character, false otherwise
-     */
-    private boolean handleQuotes( char prev, char current )
-    {
-        if ( inQuote() )
+        if ( state == NORMAL || state == IN_QUOTE )
         {
-            if ( isRightDelimiter( prev, current ) )
-            {
-                // Then end it
-                awaitedRightDelimiter = Optional.empty();
-                return true;
-            }
-            // Didn't end the quote, continue
-            return true;
+            statement.append( line, runStart, length );
         }
-        return false;
     }
 
     /**
-     * @param prev    character
-     * @param current character
-     * @return true if parsing should go immediately to the next character, false otherwise
+     * @param line to check, including the ending newline
+     * @return true if the line is a shell command, false otherwise
      */
-    private boolean handleComments( char prev, char current )
+    static boolean isShellCommand( @Nonnull String line )
     {
-        if ( inComment() )
+        // Cheap check for the prefix so that the pattern is only matched against lines which are likely to be commands
+        for ( int i = 0; i < line.length(); i++ )
         {
-            if ( commentStart == NO_COMMENT )
+            char c = line.charAt( i );
+            if ( !isPatternWhitespace( c ) )
             {
-                //find the position of //.. or /*...
-                //i.e. currentPos - 1 - 2
-                commentStart = statement.length() - 3;
+                return c == COMMAND_PREFIX && SHELL_CMD_PATTERN.matcher( line ).find();
             }
-            if ( isRightDelimiter( prev, current ) )
-            {
-                // Then end it
-                awaitedRightDelimiter = Optional.empty();
-                statement.delete( commentStart, statement.length() );
-                commentStart = NO_COMMENT;
-                return true;
-            }
-            // Didn't end the comment, continue
-            return true;
         }
         return false;
     }
 
     /**
-     * @return true if inside a quote, false otherwise
+     * @param c character
+     * @return true if the character is matched by \s in a {@link Pattern}
      */
-    private boolean inQuote()
+    private static boolean isPatternWhitespace( char c )
     {
-        return awaitedRightDelimiter.isPresent() && !inComment();
-    }
-
-    /**
-     * @param first character
-     * @param last  character
-     * @return true if the last two chars ends the current comment, false otherwise
-     */
-    private boolean isRightDelimiter( char first, char last )
-    {
-        if ( !awaitedRightDelimiter.isPresent() )
-        {
-            return false;
-        }
-        final String expectedEnd = awaitedRightDelimiter.get();
-
-        if ( expectedEnd.length() == 1 )
-        {
-            return expectedEnd.equals( String.valueOf( last ) );
-        }
-        else
-        {
-            return expectedEnd.equals( String.valueOf( first ) + last );
-        }
-    }
-
-    /**
-     * @return true if we are currently inside a comment, false otherwise
-     */
-    private boolean inComment()
-    {
-        return awaitedRightDelimiter.isPresent() &&
-               (awaitedRightDelimiter.get().equals( LINE_COMMENT_END ) ||
-                awaitedRightDelimiter.get().equals( BLOCK_COMMENT_END ));
-    }
-
-    /**
-     * If the last characters start a quote or a comment, this returns the piece of text which will end said quote or comment.
-     *
-     * @param first character
-     * @param last  character
-     * @return the matching right delimiter or something empty if not the start of a quote/comment
-     */
-    @Nonnull
-    private Optional<String> getRightDelimiter( char first, char last )
-    {
-        // double characters
-        final String lastTwoChars = String.valueOf( first ) + last;
-        switch ( lastTwoChars )
-        {
-        case LINE_COMMENT_START:
-            return Optional.of( LINE_COMMENT_END );
-        case BLOCK_COMMENT_START:
-            return Optional.of( BLOCK_COMMENT_END );
-        default:
-            // Do nothing
-        }
-        // single characters
-        switch ( last )
-        {
-        case BACKTICK:
-        case DOUBLE_QUOTE:
-        case SINGLE_QUOTE:
-            return Optional.of( String.valueOf( last ) );
-        default:
-            return Optional.empty();
-        }
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     /**
@@ -261,7 +228,7 @@ public class ShellStatementParser implements StatementParser
      */
     private boolean statementNotStarted()
     {
-        return statement.toString().trim().isEmpty();
+        return !containsText();
     }
 
     @Override
@@ -282,14 +249,27 @@ public class ShellStatementParser implements StatementParser
     @Override
     public boolean containsText()
     {
-        return !statement.toString().trim().isEmpty();
+        // An unfinished comment counts as text, as it will swallow whatever comes next until it ends
+        if ( state == IN_LINE_COMMENT || state == IN_BLOCK_COMMENT )
+        {
+            return true;
+        }
+        // Same as checking if the trimmed statement is non-empty, but without copying the statement
+        for ( int i = 0; i < statement.length(); i++ )
+        {
+            if ( statement.charAt( i ) > ' ' )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public void reset()
     {
-        statement = new StringBuilder();
+        statement.setLength( 0 );
         parsedStatements.clear();
-        awaitedRightDelimiter = Optional.empty();
+        state = NORMAL;
     }
 }
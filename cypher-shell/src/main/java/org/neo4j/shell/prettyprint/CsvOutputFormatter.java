@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.types.TypeRepresentation;
+import org.neo4j.shell.state.BoltResult;
+
+import static org.neo4j.shell.prettyprint.OutputFormatter.Capabilities.RESULT;
+
+/**
+ * Formats results as comma separated values, with fields quoted as described in RFC 4180. Only the result itself is printed, so that the output can be read
+ * by other tools as is.
+ * <p>
+ * Each row is encoded into a buffer which is reused for the following rows, instead of formatting each field into a string of its own first.
+ */
+public class CsvOutputFormatter implements OutputFormatter
+{
+    private static final char QUOTE = '"';
+
+    private final char delimiter;
+    private final RowPipeline rows;
+
+    public CsvOutputFormatter( char delimiter )
+    {
+        this( delimiter, RowPipeline.SEQUENTIAL );
+    }
+
+    CsvOutputFormatter( char delimiter, RowPipeline rows )
+    {
+        this.delimiter = delimiter;
+        this.rows = rows;
+    }
+
+    @Override
+    public int formatAndCount( @Nonnull BoltResult result, @Nonnull LinePrinter output )
+    {
+        List<String> keys = result.getKeys();
+        if ( keys.isEmpty() )
+        {
+            return 0;
+        }
+        StringBuilder header = new StringBuilder();
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            appendDelimiter( header, i );
+            appendField( header, keys.get( i ) );
+        }
+        output.printData( header.toString() );
+
+        return rows.formatAndPrint( result.iterate(), () ->
+        {
+            // Not shared between formatters, since records may be formatted concurrently
+            StringBuilder row = new StringBuilder();
+            return record ->
+            {
+                row.setLength( 0 );
+                for ( int i = 0; i < record.size(); i++ )
+                {
+                    appendDelimiter( row, i );
+                    appendValue( row, record.get( i ) );
+                }
+                return row.toString();
+            };
+        }, output );
+    }
+
+    @Override
+    public Set<Capabilities> capabilities()
+    {
+        return EnumSet.of( RESULT );
+    }
+
+    private void appendDelimiter( StringBuilder row, int column )
+    {
+        if ( column > 0 )
+        {
+            row.append( delimiter );
+        }
+    }
+
+    /**
+     * Strings are written as they are, and null as an empty field. Everything else is written like in the plain format, encoded directly into the row.
+     */
+    private void appendValue( StringBuilder row, Value value )
+    {
+        switch ( ((TypeRepresentation) value.type()).constructor() )
+        {
+        case NULL:
+            return;
+        case STRING:
+            appendField( row, value.asString() );
+            return;
+        default:
+            int start = row.length();
+            formatValue( value, row );
+            if ( needsQuotes( row, start ) )
+            {
+                String field = row.substring( start );
+                row.setLength( start );
+                appendField( row, field );
+            }
+        }
+    }
+
+    private void appendField( StringBuilder row, String field )
+    {
+        if ( !needsQuotes( field, 0 ) )
+        {
+            row.append( field );
+            return;
+        }
+        row.append( QUOTE );
+        for ( int i = 0; i < field.length(); i++ )
+        {
+            char c = field.charAt( i );
+            if ( c == QUOTE )
+            {
+                row.append( QUOTE );
+            }
+            row.append( c );
+        }
+        row.append( QUOTE );
+    }
+
+    private boolean needsQuotes( CharSequence field, int start )
+    {
+        for ( int i = start; i < field.length(); i++ )
+        {
+            char c = field.charAt( i );
+            if ( c == delimiter || c == QUOTE || c == '\n' || c == '\r' )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.types.TypeRepresentation;
+import org.neo4j.driver.types.Entity;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path;
+import org.neo4j.driver.types.Point;
+import org.neo4j.driver.types.Relationship;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.util.JsonStrings;
+
+import static org.neo4j.shell.prettyprint.OutputFormatter.Capabilities.RESULT;
+
+/**
+ * Formats results as JSON Lines, one JSON object per record with the keys of the result as field names. Only the records are printed, so that the output
+ * can be read by other tools as is.
+ * <p>
+ * Values are encoded directly into a buffer which is reused for the following records, walking nodes, relationships and maps through their keys instead of
+ * converting them to Java maps first. Floats which JSON can not represent (NaN and the infinities) are written as strings.
+ * <p>
+ * Temporal values are written as ISO 8601 strings, always with seconds. Date-times in a named time zone keep the name of the zone in brackets after the
+ * offset, like {@code 2020-06-15T10:00:00+02:00[Europe/Stockholm]}, which is how Cypher writes them and what {@code datetime()} reads back. Durations are
+ * written the way Cypher writes them, with months, days and seconds, like {@code P14M16DT3.500000000S}.
+ */
+public class JsonlOutputFormatter implements OutputFormatter
+{
+    private final RowPipeline rows;
+
+    public JsonlOutputFormatter()
+    {
+        this( RowPipeline.SEQUENTIAL );
+    }
+
+    JsonlOutputFormatter( RowPipeline rows )
+    {
+        this.rows = rows;
+    }
+
+    @Override
+    public int formatAndCount( @Nonnull BoltResult result, @Nonnull LinePrinter output )
+    {
+        return rows.formatAndPrint( result.iterate(), () ->
+        {
+            // Not shared between formatters, since records may be formatted concurrently
+            StringBuilder line = new StringBuilder();
+            return record ->
+            {
+                line.setLength( 0 );
+                appendRecord( line, record );
+                return line.toString();
+            };
+        }, output );
+    }
+
+    @Override
+    public Set<Capabilities> capabilities()
+    {
+        return EnumSet.of( RESULT );
+    }
+
+    private void appendRecord( StringBuilder sb, Record record )
+    {
+        List<String> keys = record.keys();
+        sb.append( '{' );
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( ',' );
+            }
+            appendString( sb, keys.get( i ) );
+            sb.append( ':' );
+            appendValue( sb, record.get( i ) );
+        }
+        sb.append( '}' );
+    }
+
+    private void appendValue( StringBuilder sb, Value value )
+    {
+        switch ( ((TypeRepresentation) value.type()).constructor() )
+        {
+        case NULL:
+            sb.append( "null" );
+            break;
+        case BOOLEAN:
+            sb.append( value.asBoolean() );
+            break;
+        case INTEGER:
+            sb.append( value.asLong() );
+            break;
+        case FLOAT:
+            appendDouble( sb, value.asDouble() );
+            break;
+        case STRING:
+            appendString( sb, value.asString() );
+            break;
+        case BYTES:
+            appendBytes( sb, value.asByteArray() );
+            break;
+        case LIST:
+            appendList( sb, value );
+            break;
+        case MAP:
+            appendMap( sb, value );
+            break;
+        case NODE:
+            appendNode( sb, value.asNode() );
+            break;
+        case RELATIONSHIP:
+            appendRelationship( sb, value.asRelationship() );
+            break;
+        case PATH:
+            appendPath( sb, value.asPath() );
+            break;
+        case POINT:
+            appendPoint( sb, value.asPoint() );
+            break;
+        case DURATION:
+            appendString( sb, value.asIsoDuration().toString() );
+            break;
+        case DATE:
+            appendString( sb, DateTimeFormatter.ISO_LOCAL_DATE.format( value.asLocalDate() ) );
+            break;
+        case TIME:
+            appendString( sb, DateTimeFormatter.ISO_OFFSET_TIME.format( value.asOffsetTime() ) );
+            break;
+        case DATE_TIME:
+            // Only adds the zone in brackets when it is a named zone and not just an offset
+            appendString( sb, DateTimeFormatter.ISO_ZONED_DATE_TIME.format( value.asZonedDateTime() ) );
+            break;
+        case LOCAL_TIME:
+            appendString( sb, DateTimeFormatter.ISO_LOCAL_TIME.format( value.asLocalTime() ) );
+            break;
+        case LOCAL_DATE_TIME:
+            appendString( sb, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format( value.asLocalDateTime() ) );
+            break;
+        case ANY:
+        case NUMBER:
+        default:
+            appendString( sb, value.toString() );
+        }
+    }
+
+    private void appendDouble( StringBuilder sb, double d )
+    {
+        if ( Double.isNaN( d ) || Double.isInfinite( d ) )
+        {
+            appendString( sb, Double.toString( d ) );
+        }
+        else
+        {
+            sb.append( d );
+        }
+    }
+
+    private void appendBytes( StringBuilder sb, byte[] bytes )
+    {
+        sb.append( '[' );
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( ',' );
+            }
+            sb.append( bytes[i] );
+        }
+        sb.append( ']' );
+    }
+
+    private void appendList( StringBuilder sb, Value list )
+    {
+        sb.append( '[' );
+        boolean first = true;
+        for ( Value element : list.values() )
+        {
+            if ( !first )
+            {
+                sb.append( ',' );
+            }
+            first = false;
+            appendValue( sb, element );
+        }
+        sb.append( ']' );
+    }
+
+    private void appendMap( StringBuilder sb, MapAccessor map )
+    {
+        sb.append( '{' );
+        boolean first = true;
+        for ( String key : map.keys() )
+        {
+            if ( !first )
+            {
+                sb.append( ',' );
+            }
+            first = false;
+            appendString( sb, key );
+            sb.append( ':' );
+            appendValue( sb, map.get( key ) );
+        }
+        sb.append( '}' );
+    }
+
+    private void appendNode( StringBuilder sb, Node node )
+    {
+        sb.append( "{\"id\":" ).append( node.id() ).append( ",\"labels\":[" );
+        boolean first = true;
+        for ( String label : node.labels() )
+        {
+            if ( !first )
+            {
+                sb.append( ',' );
+            }
+            first = false;
+            appendString( sb, label );
+        }
+        sb.append( ']' );
+        appendProperties( sb, node );
+        sb.append( '}' );
+    }
+
+    private void appendRelationship( StringBuilder sb, Relationship relationship )
+    {
+        sb.append( "{\"id\":" ).append( relationship.id() ).append( ",\"type\":" );
+        appendString( sb, relationship.type() );
+        sb.append( ",\"startNodeId\":" ).append( relationship.startNodeId() );
+        sb.append( ",\"endNodeId\":" ).append( relationship.endNodeId() );
+        appendProperties( sb, relationship );
+        sb.append( '}' );
+    }
+
+    private void appendProperties( StringBuilder sb, Entity entity )
+    {
+        sb.append( ",\"properties\":" );
+        appendMap( sb, entity );
+    }
+
+    private void appendPath( StringBuilder sb, Path path )
+    {
+        sb.append( "{\"nodes\":[" );
+        boolean first = true;
+        for ( Node node : path.nodes() )
+        {
+            if ( !first )
+            {
+                sb.append( ',' );
+            }
+            first = false;
+            appendNode( sb, node );
+        }
+        sb.append( "],\"relationships\":[" );
+        first = true;
+        for ( Relationship relationship : path.relationships() )
+        {
+            if ( !first )
+            {
+                sb.append( ',' );
+            }
+            first = false;
+            appendRelationship( sb, relationship );
+        }
+        sb.append( "]}" );
+    }
+
+    private void appendPoint( StringBuilder sb, Point point )
+    {
+        sb.append( "{\"srid\":" ).append( point.srid() ).append( ",\"x\":" );
+        appendDouble( sb, point.x() );
+        sb.append( ",\"y\":" );
+        appendDouble( sb, point.y() );
+        if ( !Double.isNaN( point.z() ) )
+        {
+            sb.append( ",\"z\":" );
+            appendDouble( sb, point.z() );
+        }
+        sb.append( '}' );
+    }
+
+    private void appendString( StringBuilder sb, String s )
+    {
+        JsonStrings.append( sb, s );
+    }
+}
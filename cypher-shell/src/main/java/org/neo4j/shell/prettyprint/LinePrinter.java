@@ -32,4 +32,15 @@ public interface LinePrinter
      * @param line to print to the output stream
      */
     void printOut( String line );
+
+    /**
+     * Print a line of result data to configured output stream. Unlike {@link #printOut(String)}, the line is printed exactly as it is, without
+     * interpreting anything in it as formatting.
+     *
+     * @param line to print to the output stream
+     */
+    default void printData( String line )
+    {
+        printOut( line );
+    }
 }
@@ -19,7 +19,6 @@
  */
 package org.neo4j.shell.prettyprint;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -30,20 +29,13 @@ import javax.annotation.Nonnull;
 
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
-import org.neo4j.driver.internal.types.TypeRepresentation;
 import org.neo4j.driver.summary.Plan;
 import org.neo4j.driver.summary.ProfiledPlan;
 import org.neo4j.driver.summary.ResultSummary;
-import org.neo4j.driver.types.Node;
-import org.neo4j.driver.types.Path;
-import org.neo4j.driver.types.Point;
-import org.neo4j.driver.types.Relationship;
 import org.neo4j.shell.state.BoltResult;
-import org.neo4j.values.storable.DurationValue;
 
 import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static org.neo4j.shell.prettyprint.CypherVariablesFormatter.escape;
 
 public interface OutputFormatter
 {
@@ -55,40 +47,6 @@ public interface OutputFormatter
     String NEWLINE = System.getProperty( "line.separator" );
     List<String> INFO_SUMMARY = asList( "Version", "Planner", "Runtime" );
 
-    @Nonnull
-    static String collectNodeLabels( @Nonnull Node node )
-    {
-        StringBuilder sb = new StringBuilder();
-        node.labels().forEach( label -> sb.append( COLON ).append( escape( label ) ) );
-        return sb.toString();
-    }
-
-    @Nonnull
-    static String listAsString( @Nonnull List<String> list )
-    {
-        return list.stream().collect( Collectors.joining( COMMA_SEPARATOR, "[", "]" ) );
-    }
-
-    @Nonnull
-    static String mapAsStringWithEmpty( @Nonnull Map<String, Object> map )
-    {
-        return map.isEmpty() ? "" : mapAsString( map );
-    }
-
-    @Nonnull
-    static String mapAsString( @Nonnull Map<String, Object> map )
-    {
-        return map.entrySet().stream()
-                  .map( e -> escape( e.getKey() ) + COLON_SEPARATOR + e.getValue() )
-                  .collect( Collectors.joining( COMMA_SEPARATOR, "{", "}" ) );
-    }
-
-    @Nonnull
-    static String joinWithSpace( @Nonnull List<String> strings )
-    {
-        return strings.stream().filter( OutputFormatter::isNotBlank ).collect( Collectors.joining( SPACE ) );
-    }
-
     @Nonnull
     static String joinNonBlanks( @Nonnull String delim, @Nonnull List<String> strings )
     {
@@ -183,7 +141,10 @@ public interface OutputFormatter
     static long collectHits( @Nonnull ProfiledPlan operator )
     {
         long hits = operator.dbHits();
-        hits = operator.children().stream().map( OutputFormatter::collectHits ).reduce( hits, Long::sum );
+        for ( ProfiledPlan child : operator.children() )
+        {
+            hits += collectHits( child );
+        }
         return hits;
     }
 
@@ -192,107 +153,29 @@ public interface OutputFormatter
     @Nonnull
     default String formatValue( final Value value )
     {
-        if ( value == null )
-        {
-            return "";
-        }
-        TypeRepresentation type = (TypeRepresentation) value.type();
-        switch ( type.constructor() )
-        {
-        case LIST:
-            return listAsString( value.asList( this::formatValue ) );
-        case MAP:
-            return mapAsString( value.asMap( this::formatValue ) );
-        case NODE:
-            return nodeAsString( value.asNode() );
-        case RELATIONSHIP:
-            return relationshipAsString( value.asRelationship() );
-        case PATH:
-            return pathAsString( value.asPath() );
-        case POINT:
-            return pointAsString( value.asPoint() );
-        case DURATION:
-            return DurationValue.parse( value.toString() ).prettyPrint();
-        case ANY:
-        case BOOLEAN:
-        case BYTES:
-        case STRING:
-        case NUMBER:
-        case INTEGER:
-        case FLOAT:
-        case DATE:
-        case TIME:
-        case DATE_TIME:
-        case LOCAL_TIME:
-        case LOCAL_DATE_TIME:
-        case NULL:
-        default:
-            return value.toString();
-        }
-    }
-
-    @Nonnull
-    default String pointAsString( Point point )
-    {
-        StringBuilder stringBuilder = new StringBuilder( "point({" );
-        stringBuilder.append( "srid:" ).append( point.srid() ).append( "," );
-        stringBuilder.append( " x:" ).append( point.x() ).append( "," );
-        stringBuilder.append( " y:" ).append( point.y() );
-        double z = point.z();
-        if ( !Double.isNaN( z ) )
-        {
-            stringBuilder.append( ", z:" ).append( z );
-        }
-        stringBuilder.append( "})" );
-        return stringBuilder.toString();
-    }
-
-    @Nonnull
-    default String pathAsString( @Nonnull Path path )
-    {
-        List<String> list = new ArrayList<>( path.length() );
-        Node lastTraversed = path.start();
-        if ( lastTraversed != null )
-        {
-            list.add( nodeAsString( lastTraversed ) );
-
-            for ( Path.Segment segment : path )
-            {
-                Relationship relationship = segment.relationship();
-                if ( relationship.startNodeId() == lastTraversed.id() )
-                {
-                    list.add( "-" + relationshipAsString( relationship ) + "->" );
-                }
-                else
-                {
-                    list.add( "<-" + relationshipAsString( relationship ) + "-" );
-                }
-                list.add( nodeAsString( segment.end() ) );
-                lastTraversed = segment.end();
-            }
-        }
-
-        return String.join( "", list );
+        StringBuilder sb = new StringBuilder();
+        formatValue( value, sb );
+        return sb.toString();
     }
 
-    @Nonnull
-    default String relationshipAsString( @Nonnull Relationship relationship )
+    /**
+     * Append the formatted value to the output, without building a String for it first.
+     *
+     * @param value to format, nothing is appended for null
+     * @param out   to append to
+     */
+    default void formatValue( final Value value, @Nonnull Appendable out )
     {
-        List<String> relationshipAsString = new ArrayList<>();
-        relationshipAsString.add( COLON + escape( relationship.type() ) );
-        relationshipAsString.add( mapAsStringWithEmpty( relationship.asMap( this::formatValue ) ) );
-
-        return "[" + joinWithSpace( relationshipAsString ) + "]";
+        ValueEncoder.encode( value, out );
     }
 
-    @Nonnull
-    default String nodeAsString( @Nonnull final Node node )
+    /**
+     * @param value to format
+     * @return the length of the formatted value, measured without building it
+     */
+    default int formattedLength( final Value value )
     {
-        List<String> nodeAsString = new ArrayList<>();
-        nodeAsString.add( collectNodeLabels( node ) );
-        nodeAsString.add( mapAsStringWithEmpty( node.asMap( this::formatValue ) ) );
-
-        return "(" + joinWithSpace( nodeAsString ) + ")";
+        return ValueEncoder.length( value );
     }
 
     @Nonnull
@@ -308,7 +191,7 @@ public interface OutputFormatter
     }
 
     @Nonnull
-    default String formatFooter( @Nonnull BoltResult result, int numberOfRows )
+    default String formatFooter( @Nonnull ResultSummary summary, int numberOfRows )
     {
         return "";
     }
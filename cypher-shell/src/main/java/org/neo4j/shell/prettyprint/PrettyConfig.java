@@ -33,17 +33,40 @@ public class PrettyConfig
     public final Format format;
     public final boolean wrap;
     public final int numSampleRows;
+    public final boolean adaptiveWidths;
+    public final boolean spillSamples;
+    public final char csvDelimiter;
+    public final int formatThreads;
 
     public PrettyConfig( CliArgs cliArgs )
     {
-        this( selectFormat( cliArgs ), cliArgs.getWrap(), cliArgs.getNumSampleRows() );
+        this( selectFormat( cliArgs ), cliArgs.getWrap(), cliArgs.getNumSampleRows(), cliArgs.getAdaptiveWidths(), cliArgs.getSpillSamples(),
+              cliArgs.getCsvDelimiter(), cliArgs.getFormatThreads() );
     }
 
     public PrettyConfig( Format format, boolean wrap, int numSampleRows )
+    {
+        this( format, wrap, numSampleRows, false, CliArgs.DEFAULT_CSV_DELIMITER );
+    }
+
+    public PrettyConfig( Format format, boolean wrap, int numSampleRows, boolean adaptiveWidths, char csvDelimiter )
+    {
+        this( format, wrap, numSampleRows, adaptiveWidths, false, csvDelimiter, 1 );
+    }
+
+    /**
+     * @param formatThreads the number of threads to format result rows on
+     */
+    public PrettyConfig( Format format, boolean wrap, int numSampleRows, boolean adaptiveWidths, boolean spillSamples, char csvDelimiter,
+                         int formatThreads )
     {
         this.format = format;
         this.wrap = wrap;
         this.numSampleRows = numSampleRows;
+        this.adaptiveWidths = adaptiveWidths;
+        this.spillSamples = spillSamples;
+        this.csvDelimiter = csvDelimiter;
+        this.formatThreads = formatThreads;
     }
 
     private static Format selectFormat( CliArgs cliArgs )
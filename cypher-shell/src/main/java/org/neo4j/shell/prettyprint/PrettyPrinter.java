@@ -19,9 +19,12 @@
  */
 package org.neo4j.shell.prettyprint;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 import javax.annotation.Nonnull;
 
+import org.neo4j.driver.summary.ResultSummary;
 import org.neo4j.shell.cli.Format;
 import org.neo4j.shell.state.BoltResult;
 
@@ -36,6 +39,7 @@ import static org.neo4j.shell.prettyprint.OutputFormatter.Capabilities.STATISTIC
  */
 public class PrettyPrinter
 {
+    private static final Set<OutputFormatter.Capabilities> SUMMARY_CAPABILITIES = EnumSet.of( INFO, PLAN, FOOTER, STATISTICS );
     private final StatisticsCollector statisticsCollector;
     private final OutputFormatter outputFormatter;
 
@@ -55,21 +59,27 @@ public class PrettyPrinter
             numberOfRows = outputFormatter.formatAndCount( result, linePrinter );
         }
 
+        if ( Collections.disjoint( capabilities, SUMMARY_CAPABILITIES ) )
+        {
+            return;
+        }
+        // Fetched once for everything printed after the result
+        ResultSummary summary = result.getSummary();
         if ( capabilities.contains( INFO ) )
         {
-            printIfNotEmpty( outputFormatter.formatInfo( result.getSummary() ), linePrinter );
+            printIfNotEmpty( outputFormatter.formatInfo( summary ), linePrinter );
         }
         if ( capabilities.contains( PLAN ) )
         {
-            printIfNotEmpty( outputFormatter.formatPlan( result.getSummary() ), linePrinter );
+            printIfNotEmpty( outputFormatter.formatPlan( summary ), linePrinter );
         }
         if ( capabilities.contains( FOOTER ) )
         {
-            printIfNotEmpty( outputFormatter.formatFooter( result, numberOfRows ), linePrinter );
+            printIfNotEmpty( outputFormatter.formatFooter( summary, numberOfRows ), linePrinter );
         }
         if ( capabilities.contains( STATISTICS ) )
         {
-            printIfNotEmpty( statisticsCollector.collect( result.getSummary() ), linePrinter );
+            printIfNotEmpty( statisticsCollector.collect( summary ), linePrinter );
         }
     }
 
@@ -97,13 +107,22 @@ public class PrettyPrinter
 
     private OutputFormatter selectFormatter( PrettyConfig prettyConfig )
     {
+        RowPipeline rows = prettyConfig.formatThreads > 1 ? new RowPipeline( prettyConfig.formatThreads ) : RowPipeline.SEQUENTIAL;
         if ( prettyConfig.format == Format.VERBOSE )
         {
-            return new TableOutputFormatter( prettyConfig.wrap, prettyConfig.numSampleRows );
+            return new TableOutputFormatter( prettyConfig.wrap, prettyConfig.numSampleRows, prettyConfig.adaptiveWidths, prettyConfig.spillSamples, rows );
+        }
+        else if ( prettyConfig.format == Format.CSV )
+        {
+            return new CsvOutputFormatter( prettyConfig.csvDelimiter, rows );
+        }
+        else if ( prettyConfig.format == Format.JSONL )
+        {
+            return new JsonlOutputFormatter( rows );
         }
         else
         {
-            return new SimpleOutputFormatter();
+            return new SimpleOutputFormatter( rows );
         }
     }
 }
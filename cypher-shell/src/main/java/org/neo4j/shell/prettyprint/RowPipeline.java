@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+import org.neo4j.driver.Record;
+
+/**
+ * Formats records into rows and prints the rows in the order of the records.
+ * <p>
+ * With more than one thread, records are still read on the calling thread, since a result can not be iterated concurrently. They are handed over in chunks
+ * to a fork join pool for formatting, while the rows of earlier chunks are printed. Only a few chunks are in flight at any time, so formatting never runs
+ * far ahead of printing.
+ */
+class RowPipeline
+{
+    static final RowPipeline SEQUENTIAL = new RowPipeline( 1 );
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final int threads;
+    private ForkJoinPool pool;
+
+    /**
+     * @param threads the number of threads to format rows on, 1 to format them on the calling thread
+     */
+    RowPipeline( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Format and print all remaining records.
+     *
+     * @param rowFormatters creates formatters turning a record into a row. A formatter is only used by one thread at a time, but several formatters
+     *                      may be in use concurrently
+     * @param output        to print the rows to, only ever called from the calling thread
+     * @return the number of rows printed
+     */
+    int formatAndPrint( @Nonnull Iterator<Record> records, @Nonnull Supplier<Function<Record, String>> rowFormatters, @Nonnull LinePrinter output )
+    {
+        if ( threads <= 1 )
+        {
+            Function<Record, String> rowFormatter = rowFormatters.get();
+            int numberOfRows = 0;
+            while ( records.hasNext() )
+            {
+                output.printData( rowFormatter.apply( records.next() ) );
+                numberOfRows++;
+            }
+            return numberOfRows;
+        }
+
+        ForkJoinPool pool = pool();
+        Deque<ForkJoinTask<String[]>> inFlight = new ArrayDeque<>();
+        int numberOfRows = 0;
+        try
+        {
+            while ( records.hasNext() )
+            {
+                List<Record> chunk = new ArrayList<>( CHUNK_SIZE );
+                while ( records.hasNext() && chunk.size() < CHUNK_SIZE )
+                {
+                    chunk.add( records.next() );
+                }
+                inFlight.add( pool.submit( () -> format( chunk, rowFormatters.get() ) ) );
+                if ( inFlight.size() > threads * 2 )
+                {
+                    numberOfRows += print( inFlight.remove().join(), output );
+                }
+            }
+            while ( !inFlight.isEmpty() )
+            {
+                numberOfRows += print( inFlight.remove().join(), output );
+            }
+            return numberOfRows;
+        }
+        finally
+        {
+            // Only left over if something failed, in which case nobody is interested in the rest
+            inFlight.forEach( task -> task.cancel( false ) );
+        }
+    }
+
+    private synchronized ForkJoinPool pool()
+    {
+        if ( pool == null )
+        {
+            pool = new ForkJoinPool( threads );
+        }
+        return pool;
+    }
+
+    private static String[] format( List<Record> chunk, Function<Record, String> rowFormatter )
+    {
+        String[] rows = new String[chunk.size()];
+        for ( int i = 0; i < rows.length; i++ )
+        {
+            rows[i] = rowFormatter.apply( chunk.get( i ) );
+        }
+        return rows;
+    }
+
+    private static int print( String[] rows, LinePrinter output )
+    {
+        for ( String row : rows )
+        {
+            output.printData( row );
+        }
+        return rows.length;
+    }
+}
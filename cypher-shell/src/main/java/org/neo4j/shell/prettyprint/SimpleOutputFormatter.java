@@ -37,6 +37,17 @@ import static org.neo4j.shell.prettyprint.OutputFormatter.Capabilities.STATISTIC
 
 public class SimpleOutputFormatter implements OutputFormatter
 {
+    private final RowPipeline rows;
+
+    public SimpleOutputFormatter()
+    {
+        this( RowPipeline.SEQUENTIAL );
+    }
+
+    SimpleOutputFormatter( RowPipeline rows )
+    {
+        this.rows = rows;
+    }
 
     @Override
     public int formatAndCount( @Nonnull BoltResult result, @Nonnull LinePrinter output )
@@ -46,14 +57,10 @@ public class SimpleOutputFormatter implements OutputFormatter
         if ( records.hasNext() )
         {
             Record firstRow = records.next();
-            output.printOut( String.join( COMMA_SEPARATOR, firstRow.keys() ) );
-            output.printOut( formatRecord( firstRow ) );
+            output.printData( String.join( COMMA_SEPARATOR, firstRow.keys() ) );
+            output.printData( formatRecord( firstRow ) );
             numberOfRows++;
-            while ( records.hasNext() )
-            {
-                output.printOut( formatRecord( records.next() ) );
-                numberOfRows++;
-            }
+            numberOfRows += rows.formatAndPrint( records, () -> this::formatRecord, output );
         }
         return numberOfRows;
     }
@@ -61,7 +68,18 @@ public class SimpleOutputFormatter implements OutputFormatter
     @Nonnull
     private String formatRecord( @Nonnull final Record record )
     {
-        return record.values().stream().map( this::formatValue ).collect( Collectors.joining( COMMA_SEPARATOR ) );
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for ( Value value : record.values() )
+        {
+            if ( !first )
+            {
+                sb.append( COMMA_SEPARATOR );
+            }
+            first = false;
+            formatValue( value, sb );
+        }
+        return sb.toString();
     }
 
     @Nonnull
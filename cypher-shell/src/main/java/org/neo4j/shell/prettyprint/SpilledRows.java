@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Rows of formatted cells, kept outside of the Java heap in direct buffers until they are read back. The rows can be read once, in the order they were added.
+ * <p>
+ * Each cell is stored as its length followed by its characters. Buffers are only added, never grown, so nothing already stored is ever copied.
+ * <p>
+ * Direct buffers are only freed when they are garbage collected, so the buffers are taken from a {@link Pool} and given back to it once the rows have
+ * been read, to be reused for the next rows instead of allocating new ones. The pool only keeps a few of them, the rest are left to be collected.
+ */
+class SpilledRows
+{
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    static final int DEFAULT_POOLED_CHUNKS = 4;
+
+    private final Pool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer writing;
+    private ByteBuffer reading;
+    private int readingChunk;
+    private int rows;
+    private char[] chars = new char[64];
+
+    SpilledRows()
+    {
+        this( DEFAULT_CHUNK_SIZE );
+    }
+
+    SpilledRows( int chunkSize )
+    {
+        this( new Pool( chunkSize, DEFAULT_POOLED_CHUNKS ) );
+    }
+
+    /**
+     * @param pool to take the buffers from, and give them back to when the rows have been read
+     */
+    SpilledRows( @Nonnull Pool pool )
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the number of rows which have been added and not read back yet
+     */
+    int size()
+    {
+        return rows;
+    }
+
+    /**
+     * Store a row. The cells are copied, so the array can be reused afterwards.
+     */
+    void add( @Nonnull String[] row )
+    {
+        for ( String cell : row )
+        {
+            writable( Integer.BYTES ).putInt( cell.length() );
+            for ( int i = 0; i < cell.length(); i++ )
+            {
+                writable( Character.BYTES ).putChar( cell.charAt( i ) );
+            }
+        }
+        rows++;
+    }
+
+    /**
+     * Read back the next row.
+     *
+     * @param row to fill with the cells of the row, must have as many cells as the rows which were added
+     * @return false if there are no more rows, in which case the row is left untouched
+     */
+    boolean next( @Nonnull String[] row )
+    {
+        if ( rows == 0 )
+        {
+            return false;
+        }
+        for ( int cell = 0; cell < row.length; cell++ )
+        {
+            int length = readable( Integer.BYTES ).getInt();
+            if ( chars.length < length )
+            {
+                chars = new char[Math.max( length, chars.length * 2 )];
+            }
+            for ( int i = 0; i < length; i++ )
+            {
+                chars[i] = readable( Character.BYTES ).getChar();
+            }
+            row[cell] = new String( chars, 0, length );
+        }
+        rows--;
+        if ( rows == 0 )
+        {
+            release();
+        }
+        return true;
+    }
+
+    /**
+     * Drop any rows which have not been read and give the buffers back to the pool.
+     */
+    void release()
+    {
+        pool.give( chunks );
+        chunks.clear();
+        writing = null;
+        reading = null;
+        rows = 0;
+    }
+
+    private ByteBuffer writable( int bytes )
+    {
+        if ( writing == null || writing.remaining() < bytes )
+        {
+            writing = pool.take();
+            chunks.add( writing );
+        }
+        return writing;
+    }
+
+    /**
+     * Mirrors {@link #writable(int)}, a value was written to the next buffer exactly when there was too little room left in the current one.
+     */
+    private ByteBuffer readable( int bytes )
+    {
+        if ( reading == null )
+        {
+            readingChunk = 0;
+            reading = chunks.get( readingChunk ).duplicate();
+            reading.clear();
+        }
+        if ( reading.remaining() < bytes )
+        {
+            readingChunk++;
+            reading = chunks.get( readingChunk ).duplicate();
+            reading.clear();
+        }
+        return reading;
+    }
+
+    /**
+     * Buffers which are no longer used by any rows, kept for the lifetime of the pool. Only up to a fixed number of buffers are kept, so that one large
+     * sample does not hold on to its memory for the rest of the session. The pool is safe to share between threads.
+     */
+    static class Pool
+    {
+        private final int chunkSize;
+        private final int maxFree;
+        private final Deque<ByteBuffer> free = new ArrayDeque<>();
+
+        /**
+         * @param chunkSize the size of the buffers
+         * @param maxFree   the maximum number of unused buffers to keep, any more are dropped to be garbage collected
+         */
+        Pool( int chunkSize, int maxFree )
+        {
+            this.chunkSize = chunkSize;
+            this.maxFree = maxFree;
+        }
+
+        synchronized int size()
+        {
+            return free.size();
+        }
+
+        synchronized ByteBuffer take()
+        {
+            ByteBuffer buffer = free.poll();
+            if ( buffer == null )
+            {
+                return ByteBuffer.allocateDirect( chunkSize );
+            }
+            buffer.clear();
+            return buffer;
+        }
+
+        synchronized void give( @Nonnull List<ByteBuffer> buffers )
+        {
+            for ( int i = 0; i < buffers.size() && free.size() < maxFree; i++ )
+            {
+                free.add( buffers.get( i ) );
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.neo4j.shell.prettyprint;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
@@ -41,14 +42,45 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class TableOutputFormatter implements OutputFormatter
 {
+    private static final int DONE = -1;
 
     private final boolean wrap;
     private final int numSampleRows;
+    private final boolean adaptiveWidths;
+    private final boolean spillSamples;
+    private final RowPipeline rows;
+    // Spill buffers are reused for every result printed by this formatter, since direct memory is only freed when it is garbage collected
+    private final SpilledRows.Pool spillBuffers = new SpilledRows.Pool( SpilledRows.DEFAULT_CHUNK_SIZE, SpilledRows.DEFAULT_POOLED_CHUNKS );
 
     public TableOutputFormatter( boolean wrap, int numSampleRows )
+    {
+        this( wrap, numSampleRows, false );
+    }
+
+    /**
+     * @param adaptiveWidths whether columns should grow when a value after the sampled rows does not fit, starting a new table with a new header
+     */
+    public TableOutputFormatter( boolean wrap, int numSampleRows, boolean adaptiveWidths )
+    {
+        this( wrap, numSampleRows, adaptiveWidths, false );
+    }
+
+    /**
+     * @param adaptiveWidths whether columns should grow when a value after the sampled rows does not fit, starting a new table with a new header
+     * @param spillSamples   whether the sampled rows should be kept formatted outside of the heap instead of as records, until the widths are known
+     */
+    public TableOutputFormatter( boolean wrap, int numSampleRows, boolean adaptiveWidths, boolean spillSamples )
+    {
+        this( wrap, numSampleRows, adaptiveWidths, spillSamples, RowPipeline.SEQUENTIAL );
+    }
+
+    TableOutputFormatter( boolean wrap, int numSampleRows, boolean adaptiveWidths, boolean spillSamples, RowPipeline rows )
     {
         this.wrap = wrap;
         this.numSampleRows = numSampleRows;
+        this.adaptiveWidths = adaptiveWidths;
+        this.spillSamples = spillSamples;
+        this.rows = rows;
     }
 
     @Override
@@ -79,37 +111,156 @@ public class TableOutputFormatter implements OutputFormatter
                                           LinePrinter output )
     {
 
-        List<Record> topRecords = take( records, numSampleRows );
-        int[] columnSizes = calculateColumnSizes( columns, topRecords, records.hasNext() );
+        RowBuffer buffer = new RowBuffer( columns.length );
+        int[] columnSizes;
+        String dashes;
+        int numberOfRows = 0;
+        if ( spillSamples )
+        {
+            SpilledRows samples = new SpilledRows( spillBuffers );
+            try
+            {
+                columnSizes = spill( columns, records, samples, buffer.cells );
+                dashes = printHeader( buffer, columnSizes, columns, output );
+                while ( samples.next( buffer.cells ) )
+                {
+                    output.printData( formatRow( buffer, columnSizes, buffer.cells ) );
+                    numberOfRows++;
+                }
+            }
+            finally
+            {
+                samples.release();
+            }
+        }
+        else
+        {
+            List<Record> topRecords = take( records, numSampleRows );
+            // Columns which can grow later on don't need to reserve space for any number
+            columnSizes = calculateColumnSizes( columns, topRecords, records.hasNext() && !adaptiveWidths );
+            dashes = printHeader( buffer, columnSizes, columns, output );
+            for ( Record record : topRecords )
+            {
+                output.printData( formatRow( buffer, columnSizes, formatValues( record, buffer.cells ) ) );
+                numberOfRows++;
+            }
+        }
+        if ( adaptiveWidths )
+        {
+            while ( records.hasNext() )
+            {
+                String[] row = formatValues( records.next(), buffer.cells );
+                if ( growColumns( columnSizes, row ) )
+                {
+                    // Close the table and continue in a new one with wider columns
+                    output.printData( dashes );
+                    dashes = printHeader( buffer, columnSizes, columns, output );
+                }
+                output.printData( formatRow( buffer, columnSizes, row ) );
+                numberOfRows++;
+            }
+        }
+        else
+        {
+            // The widths are settled, so the remaining rows can be formatted independently of each other
+            int[] settledColumnSizes = columnSizes;
+            numberOfRows += rows.formatAndPrint( records, () ->
+            {
+                RowBuffer rowBuffer = new RowBuffer( columns.length );
+                return record -> formatRow( rowBuffer, settledColumnSizes, formatValues( record, rowBuffer.cells ) );
+            }, output );
+        }
+        output.printData( String.format( "%s%n", dashes ) );
+        return numberOfRows;
+    }
 
+    /**
+     * Print the header of a table.
+     *
+     * @return the line of dashes which delimits the table
+     */
+    private String printHeader( RowBuffer buffer, int[] columnSizes, String[] columns, LinePrinter output )
+    {
         int totalWidth = 1;
         for ( int columnSize : columnSizes )
         {
             totalWidth += columnSize + 3;
         }
-
-        StringBuilder builder = new StringBuilder( totalWidth );
-        String headerLine = formatRow( builder, columnSizes, columns, new boolean[columnSizes.length] );
+        buffer.sb.ensureCapacity( totalWidth );
+        String headerLine = formatRow( buffer, columnSizes, columns );
         int lineWidth = totalWidth - 2;
         String dashes = "+" + OutputFormatter.repeat( '-', lineWidth ) + "+";
 
-        output.printOut( dashes );
-        output.printOut( headerLine );
-        output.printOut( dashes );
+        output.printData( dashes );
+        output.printData( headerLine );
+        output.printData( dashes );
+        return dashes;
+    }
 
-        int numberOfRows = 0;
-        for ( Record record : topRecords )
+    /**
+     * Widen the columns which are too narrow for the given row.
+     *
+     * @return true if any column was widened
+     */
+    private boolean growColumns( int[] columnSizes, String[] row )
+    {
+        boolean grown = false;
+        for ( int i = 0; i < row.length; i++ )
         {
-            output.printOut( formatRecord( builder, columnSizes, record ) );
-            numberOfRows++;
+            if ( row[i].length() > columnSizes[i] )
+            {
+                columnSizes[i] = row[i].length();
+                grown = true;
+            }
         }
-        while ( records.hasNext() )
+        return grown;
+    }
+
+    /**
+     * Format the sampled rows into the spill buffer, calculating the size of the columns on the way just like {@link #calculateColumnSizes}.
+     *
+     * @param row scratch space for formatting the rows
+     * @return the column sizes
+     */
+    private int[] spill( String[] columns, Iterator<Record> records, SpilledRows samples, String[] row )
+    {
+        // Whether there is more data after the samples is only known at the end, so keep track of the sizes for both cases
+        int[] columnSizes = new int[columns.length];
+        int[] sizesWithoutNumbers = new int[columns.length];
+        boolean[] hasNumbers = new boolean[columns.length];
+        for ( int i = 0; i < columns.length; i++ )
         {
-            output.printOut( formatRecord( builder, columnSizes, records.next() ) );
-            numberOfRows++;
+            columnSizes[i] = columns[i].length();
+            sizesWithoutNumbers[i] = columns[i].length();
         }
-        output.printOut( String.format( "%s%n", dashes ) );
-        return numberOfRows;
+        while ( records.hasNext() && samples.size() < numSampleRows )
+        {
+            Record record = records.next();
+            for ( int i = 0; i < columns.length; i++ )
+            {
+                Value value = record.get( i );
+                row[i] = formatValue( value );
+                columnSizes[i] = Math.max( columnSizes[i], row[i].length() );
+                if ( value instanceof NumberValueAdapter )
+                {
+                    hasNumbers[i] = true;
+                }
+                else
+                {
+                    sizesWithoutNumbers[i] = Math.max( sizesWithoutNumbers[i], row[i].length() );
+                }
+            }
+            samples.add( row );
+        }
+        if ( records.hasNext() && !adaptiveWidths )
+        {
+            for ( int i = 0; i < columns.length; i++ )
+            {
+                // Numbers get enough space for the number of digits of Long.Max, like in columnLengthForValue
+                columnSizes[i] = hasNumbers[i] ? Math.max( sizesWithoutNumbers[i], 19 ) : sizesWithoutNumbers[i];
+            }
+        }
+        return columnSizes;
     }
 
     /**
@@ -156,19 +307,12 @@ public class TableOutputFormatter implements OutputFormatter
         }
         else
         {
-            return formatValue( value ).length();
+            return formattedLength( value );
         }
     }
 
-    private String formatRecord( StringBuilder sb, int[] columnSizes, Record record )
+    private String[] formatValues( Record record, String[] row )
     {
-        sb.setLength( 0 );
-        return formatRow( sb, columnSizes, formatValues( record ), new boolean[columnSizes.length] );
-    }
-
-    private String[] formatValues( Record record )
-    {
-        String[] row = new String[record.size()];
         for ( int i = 0; i < row.length; i++ )
         {
             row[i] = formatValue( record.get( i ) );
@@ -177,38 +321,43 @@ public class TableOutputFormatter implements OutputFormatter
     }
 
     /**
-     * Format one row of data.
+     * Format one row of data. If wrapping, cells which don't fit in their column continue on the following lines, which are marked with a backslash to the
+     * left of each continued cell.
      *
-     * @param sb           the StringBuilder to use
-     * @param columnSizes  the size of all columns
-     * @param row          the data
-     * @param continuation for each column whether it holds the remainder of data that did not fit in the column
+     * @param buffer      the buffer to format the row in
+     * @param columnSizes the size of all columns
+     * @param row         the data, which is left untouched
      * @return the String result
      */
-    private String formatRow( StringBuilder sb, int[] columnSizes, String[] row, boolean[] continuation )
+    private String formatRow( RowBuffer buffer, int[] columnSizes, String[] row )
     {
-        if ( !continuation[0] )
-        {
-            sb.append( "|" );
-        }
-        else
-        {
-            sb.append( "\\" );
-        }
-        boolean remainder = false;
-        for ( int i = 0; i < row.length; i++ )
+        StringBuilder sb = buffer.sb;
+        int[] consumed = buffer.consumed;
+        boolean[] continuation = buffer.continuation;
+        sb.setLength( 0 );
+        Arrays.fill( consumed, 0 );
+        Arrays.fill( continuation, false );
+        boolean remainder;
+        do
         {
-            sb.append( " " );
-            int length = columnSizes[i];
-            String txt = row[i];
-            if ( txt != null )
+            remainder = false;
+            sb.append( continuation[0] ? '\\' : '|' );
+            for ( int i = 0; i < row.length; i++ )
             {
-                if ( txt.length() > length )
+                sb.append( ' ' );
+                int length = columnSizes[i];
+                String txt = row[i];
+                int start = consumed[i];
+                if ( txt == null || start == DONE )
+                {
+                    appendSpaces( sb, length );
+                }
+                else if ( txt.length() - start > length )
                 {
                     if ( wrap )
                     {
-                        sb.append( txt, 0, length );
-                        row[i] = txt.substring( length );
+                        sb.append( txt, start, start + length );
+                        consumed[i] = start + length;
                         continuation[i] = true;
                         remainder = true;
                     }
@@ -220,36 +369,40 @@ public class TableOutputFormatter implements OutputFormatter
                 }
                 else
                 {
-                    row[i] = null;
-                    sb.append( OutputFormatter.rightPad( txt, length ) );
+                    sb.append( txt, start, txt.length() );
+                    appendSpaces( sb, length - (txt.length() - start) );
+                    consumed[i] = DONE;
+                }
+                if ( i == row.length - 1 || !continuation[i + 1] )
+                {
+                    sb.append( " |" );
+                }
+                else
+                {
+                    sb.append( " \\" );
                 }
             }
-            else
-            {
-                sb.append( OutputFormatter.repeat( ' ', length ) );
-            }
-            if ( i == row.length - 1 || !continuation[i + 1] )
-            {
-                sb.append( " |" );
-            }
-            else
+            if ( remainder )
             {
-                sb.append( " \\" );
+                sb.append( OutputFormatter.NEWLINE );
             }
         }
-        if ( wrap && remainder )
+        while ( remainder );
+        return sb.toString();
+    }
+
+    private static void appendSpaces( StringBuilder sb, int count )
+    {
+        for ( int i = 0; i < count; i++ )
         {
-            sb.append( OutputFormatter.NEWLINE );
-            formatRow( sb, columnSizes, row, continuation );
+            sb.append( ' ' );
         }
-        return sb.toString();
     }
 
     @Override
     @Nonnull
-    public String formatFooter( @Nonnull BoltResult result, int numberOfRows )
+    public String formatFooter( @Nonnull ResultSummary summary, int numberOfRows )
     {
-        ResultSummary summary = result.getSummary();
         return String.format( "%d row%s available after %d ms, " +
                               "consumed after another %d ms", numberOfRows, numberOfRows != 1 ? "s" : "",
                               summary.resultAvailableAfter( MILLISECONDS ),
@@ -288,4 +441,25 @@ public class TableOutputFormatter implements OutputFormatter
     {
         return EnumSet.allOf( Capabilities.class );
     }
+
+    /**
+     * Everything needed to format the rows of a table, reused for all rows of a result so that formatting a row only allocates the resulting string.
+     */
+    private static class RowBuffer
+    {
+        private final StringBuilder sb = new StringBuilder();
+        // The formatted values of the current row
+        private final String[] cells;
+        // For each cell, how much of it has been printed on previous lines of the row, or DONE if all of it has
+        private final int[] consumed;
+        // For each cell, whether it has been continued on a line after the first one
+        private final boolean[] continuation;
+
+        RowBuffer( int columns )
+        {
+            cells = new String[columns];
+            consumed = new int[columns];
+            continuation = new boolean[columns];
+        }
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.types.TypeRepresentation;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path;
+import org.neo4j.driver.types.Point;
+import org.neo4j.driver.types.Relationship;
+import org.neo4j.values.storable.DurationValue;
+
+import static org.neo4j.shell.prettyprint.CypherVariablesFormatter.escape;
+import static org.neo4j.shell.prettyprint.OutputFormatter.COLON;
+import static org.neo4j.shell.prettyprint.OutputFormatter.COLON_SEPARATOR;
+import static org.neo4j.shell.prettyprint.OutputFormatter.COMMA_SEPARATOR;
+import static org.neo4j.shell.prettyprint.OutputFormatter.SPACE;
+
+/**
+ * Writes values in the form they are shown in results. Lists, maps, nodes, relationships and paths are appended element by element in a single pass over
+ * the value, so no intermediate Strings are built for nested values.
+ */
+final class ValueEncoder
+{
+    private static final Function<Value, Object> AS_IS = value -> value;
+
+    private ValueEncoder()
+    {
+    }
+
+    /**
+     * Append a value to the output.
+     *
+     * @param value to append, nothing is appended for null
+     * @param out   to append to
+     */
+    static void encode( @Nullable Value value, @Nonnull Appendable out )
+    {
+        try
+        {
+            append( value, out );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * @param value to measure
+     * @return the number of characters {@link #encode(Value, Appendable)} would append for the value, without building the text of it
+     */
+    static int length( @Nullable Value value )
+    {
+        LengthCounter counter = new LengthCounter();
+        encode( value, counter );
+        return counter.length;
+    }
+
+    private static void append( Value value, Appendable out ) throws IOException
+    {
+        if ( value == null )
+        {
+            return;
+        }
+        TypeRepresentation type = (TypeRepresentation) value.type();
+        switch ( type.constructor() )
+        {
+        case LIST:
+            appendList( value, out );
+            break;
+        case MAP:
+            appendProperties( properties( value ), out );
+            break;
+        case NODE:
+            appendNode( value.asNode(), out );
+            break;
+        case RELATIONSHIP:
+            appendRelationship( value.asRelationship(), out );
+            break;
+        case PATH:
+            appendPath( value.asPath(), out );
+            break;
+        case POINT:
+            appendPoint( value.asPoint(), out );
+            break;
+        case DURATION:
+            out.append( DurationValue.parse( value.toString() ).prettyPrint() );
+            break;
+        default:
+            out.append( value.toString() );
+        }
+    }
+
+    private static void appendList( Value list, Appendable out ) throws IOException
+    {
+        out.append( '[' );
+        for ( int i = 0; i < list.size(); i++ )
+        {
+            if ( i > 0 )
+            {
+                out.append( COMMA_SEPARATOR );
+            }
+            append( list.get( i ), out );
+        }
+        out.append( ']' );
+    }
+
+    /**
+     * The properties are taken as they are, to be encoded while they are appended. Anything which is not a value is appended as text.
+     */
+    private static Map<String, Object> properties( MapAccessor entity )
+    {
+        return entity.asMap( AS_IS );
+    }
+
+    private static void appendProperties( Map<String, Object> properties, Appendable out ) throws IOException
+    {
+        out.append( '{' );
+        boolean first = true;
+        for ( Map.Entry<String, Object> property : properties.entrySet() )
+        {
+            if ( !first )
+            {
+                out.append( COMMA_SEPARATOR );
+            }
+            first = false;
+            out.append( escape( property.getKey() ) ).append( COLON_SEPARATOR );
+            Object propertyValue = property.getValue();
+            if ( propertyValue instanceof Value )
+            {
+                append( (Value) propertyValue, out );
+            }
+            else
+            {
+                out.append( String.valueOf( propertyValue ) );
+            }
+        }
+        out.append( '}' );
+    }
+
+    private static void appendNode( Node node, Appendable out ) throws IOException
+    {
+        out.append( '(' );
+        boolean hasLabels = false;
+        for ( String label : node.labels() )
+        {
+            out.append( COLON ).append( escape( label ) );
+            hasLabels = true;
+        }
+        Map<String, Object> properties = properties( node );
+        if ( !properties.isEmpty() )
+        {
+            if ( hasLabels )
+            {
+                out.append( SPACE );
+            }
+            appendProperties( properties, out );
+        }
+        out.append( ')' );
+    }
+
+    private static void appendRelationship( Relationship relationship, Appendable out ) throws IOException
+    {
+        out.append( '[' ).append( COLON ).append( escape( relationship.type() ) );
+        Map<String, Object> properties = properties( relationship );
+        if ( !properties.isEmpty() )
+        {
+            out.append( SPACE );
+            appendProperties( properties, out );
+        }
+        out.append( ']' );
+    }
+
+    private static void appendPath( Path path, Appendable out ) throws IOException
+    {
+        Node lastTraversed = path.start();
+        if ( lastTraversed == null )
+        {
+            return;
+        }
+        appendNode( lastTraversed, out );
+        for ( Path.Segment segment : path )
+        {
+            Relationship relationship = segment.relationship();
+            if ( relationship.startNodeId() == lastTraversed.id() )
+            {
+                out.append( '-' );
+                appendRelationship( relationship, out );
+                out.append( "->" );
+            }
+            else
+            {
+                out.append( "<-" );
+                appendRelationship( relationship, out );
+                out.append( '-' );
+            }
+            appendNode( segment.end(), out );
+            lastTraversed = segment.end();
+        }
+    }
+
+    private static void appendPoint( Point point, Appendable out ) throws IOException
+    {
+        out.append( "point({" );
+        out.append( "srid:" ).append( String.valueOf( point.srid() ) ).append( ',' );
+        out.append( " x:" ).append( String.valueOf( point.x() ) ).append( ',' );
+        out.append( " y:" ).append( String.valueOf( point.y() ) );
+        double z = point.z();
+        if ( !Double.isNaN( z ) )
+        {
+            out.append( ", z:" ).append( String.valueOf( z ) );
+        }
+        out.append( "})" );
+    }
+
+    /**
+     * Only counts the characters appended to it.
+     */
+    private static class LengthCounter implements Appendable
+    {
+        private int length;
+
+        @Override
+        public Appendable append( CharSequence csq )
+        {
+            length += csq.length();
+            return this;
+        }
+
+        @Override
+        public Appendable append( CharSequence csq, int start, int end )
+        {
+            length += end - start;
+            return this;
+        }
+
+        @Override
+        public Appendable append( char c )
+        {
+            length++;
+            return this;
+        }
+    }
+}
@@ -36,6 +36,8 @@ import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.neo4j.driver.Query;
+import org.neo4j.driver.QueryRunner;
+import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.SessionConfig;
@@ -49,6 +51,7 @@ import org.neo4j.driver.internal.Scheme;
 import org.neo4j.driver.summary.DatabaseInfo;
 import org.neo4j.driver.summary.ResultSummary;
 import org.neo4j.shell.ConnectionConfig;
+import org.neo4j.shell.ConnectionSetting;
 import org.neo4j.shell.Connector;
 import org.neo4j.shell.DatabaseManager;
 import org.neo4j.shell.TransactionHandler;
@@ -58,6 +61,7 @@ import org.neo4j.shell.exception.CommandException;
 import org.neo4j.shell.exception.ThrowingAction;
 import org.neo4j.shell.log.NullLogging;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.neo4j.shell.util.Versions.isPasswordChangeRequiredException;
 import static org.neo4j.shell.util.Versions.majorVersion;
 
@@ -76,6 +80,9 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
     private String activeDatabaseNameAsSetByUser;
     private String actualDatabaseNameAsReportedByServer;
     private Transaction tx;
+    private ConnectionConfig connectionConfig;
+    private long retries;
+    private boolean parameterizeLiterals;
 
     public BoltStateHandler( boolean isInteractive )
     {
@@ -162,9 +169,16 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
         {
             throw new CommandException( "There is no open transaction to commit" );
         }
-        tx.commit();
-        tx.close();
-        tx = null;
+        try
+        {
+            tx.commit();
+        }
+        finally
+        {
+            // A transaction which failed to commit is rolled back by the server, so there is nothing left to do with it
+            tx.close();
+            tx = null;
+        }
     }
 
     @Override
@@ -231,6 +245,7 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
             try
             {
                 activeDatabaseNameAsSetByUser = connectionConfig.database();
+                this.connectionConfig = connectionConfig;
                 driver = getDriver( connectionConfig, authToken );
                 reconnect( activeDatabaseNameAsSetByUser, previousDatabaseName, command );
             }
@@ -252,14 +267,8 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
                 default:
                     throw e;
                 }
-                connectionConfig = new ConnectionConfig(
-                        fallbackScheme,
-                        connectionConfig.host(),
-                        connectionConfig.port(),
-                        connectionConfig.username(),
-                        connectionConfig.password(),
-                        connectionConfig.encryption(),
-                        connectionConfig.database() );
+                connectionConfig = connectionConfig.withScheme( fallbackScheme );
+                this.connectionConfig = connectionConfig;
                 driver = getDriver( connectionConfig, authToken );
                 reconnect( activeDatabaseNameAsSetByUser, previousDatabaseName, command );
             }
@@ -286,24 +295,108 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
     private void reconnect( String databaseToConnectTo,
                             String previousDatabase,
                             ThrowingAction<CommandException> command ) throws CommandException
+    {
+        closeSession( previousDatabase );
+        session = driver.session( sessionConfig( databaseToConnectTo, bookmarks.get( databaseToConnectTo ) ) );
+
+        resetActualDbName(); // Set this to null first in case run throws an exception
+        connect( command );
+    }
+
+    /**
+     * Open an additional session to the database currently connected to. The session starts from the last bookmark of the current session, and can be used
+     * concurrently with it.
+     *
+     * @return a new session, which the caller is responsible for closing
+     * @throws CommandException if not connected
+     */
+    @Nonnull
+    public Session openSession() throws CommandException
+    {
+        if ( !isConnected() )
+        {
+            throw new CommandException( "Not connected to Neo4j" );
+        }
+        return driver.session( sessionConfig( activeDatabaseNameAsSetByUser, session.lastBookmark() ) );
+    }
+
+    /**
+     * @return the configuration of the current connection, or null if not connected
+     */
+    @Nullable
+    public ConnectionConfig getConnectionConfig()
+    {
+        return isConnected() ? connectionConfig : null;
+    }
+
+    /**
+     * Change a setting of the current connection. The settings are part of the driver configuration, so this connects again with a new driver. The new
+     * session continues from the bookmark of the previous one. The previous driver and setting are only replaced once the new driver has connected, so
+     * if connecting fails the shell stays connected as before.
+     *
+     * @throws CommandException if not connected, if a transaction is open, or if the new driver could not connect
+     */
+    public void reconfigure( @Nonnull ConnectionSetting setting, int value ) throws CommandException
+    {
+        if ( !isConnected() )
+        {
+            throw new CommandException( "Not connected to Neo4j" );
+        }
+        if ( isTransactionOpen() )
+        {
+            throw new CommandException( "There is an open transaction. You need to close it before you can change connection settings." );
+        }
+        ConnectionConfig newConfig = connectionConfig.copy();
+        setting.set( newConfig, value );
+        Driver previousDriver = driver;
+        Session previousSession = session;
+        String previousActualDbName = actualDatabaseNameAsReportedByServer;
+        Bookmark bookmark = previousSession.lastBookmark();
+        try
+        {
+            driver = getDriver( newConfig, AuthTokens.basic( newConfig.username(), newConfig.password() ) );
+            session = driver.session( sessionConfig( activeDatabaseNameAsSetByUser, bookmark ) );
+            resetActualDbName(); // Set this to null first in case run throws an exception
+            getPing().apply();
+        }
+        catch ( Throwable t )
+        {
+            // Keep the previous connection, the new driver is not used by anything else yet
+            try
+            {
+                if ( driver != previousDriver )
+                {
+                    driver.close();
+                }
+            }
+            catch ( Exception e )
+            {
+                t.addSuppressed( e );
+            }
+            driver = previousDriver;
+            session = previousSession;
+            actualDatabaseNameAsReportedByServer = previousActualDbName;
+            throw t;
+        }
+        bookmarks.put( activeDatabaseNameAsSetByUser, bookmark );
+        previousSession.close();
+        previousDriver.close();
+        setting.set( connectionConfig, value );
+    }
+
+    private static SessionConfig sessionConfig( String databaseName, @Nullable Bookmark bookmark )
     {
         SessionConfig.Builder builder = SessionConfig.builder();
         builder.withDefaultAccessMode( AccessMode.WRITE );
-        if ( !ABSENT_DB_NAME.equals( databaseToConnectTo ) )
+        if ( !ABSENT_DB_NAME.equals( databaseName ) )
         {
-            builder.withDatabase( databaseToConnectTo );
+            builder.withDatabase( databaseName );
         }
-        closeSession( previousDatabase );
-        final Bookmark bookmarkForDBToConnectTo = bookmarks.get( databaseToConnectTo );
-        if ( bookmarkForDBToConnectTo != null )
+        if ( bookmark != null )
         {
-            builder.withBookmarks( bookmarkForDBToConnectTo );
+            builder.withBookmarks( bookmark );
         }
-
-        session = driver.session( builder.build() );
-
-        resetActualDbName(); // Set this to null first in case run throws an exception
-        connect( command );
+        return builder.build();
     }
 
     /**
@@ -434,6 +527,79 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
         }
     }
 
+    /**
+     * Run Cypher statements together in a transaction managed by the driver, which retries the whole transaction on transient errors such as deadlocks
+     * or a change of cluster leader. The results are materialized while the transaction is open, so that a retry never leaves partially consumed results.
+     *
+     * @throws CommandException if not connected, or if a transaction has been opened explicitly
+     */
+    @Nonnull
+    public List<BoltResult> runCypherWithRetry( @Nonnull List<String> cypher,
+                                                @Nonnull Map<String, Object> queryParams ) throws CommandException
+    {
+        if ( !isConnected() )
+        {
+            throw new CommandException( "Not connected to Neo4j" );
+        }
+        if ( isTransactionOpen() )
+        {
+            throw new CommandException( "Statements can not be retried in an open transaction" );
+        }
+        return runCypherWithRetry( session, cypher, queryParams, parameterizeLiterals, () -> retries++ );
+    }
+
+    /**
+     * Enable/disable sending the literal strings and numbers of Cypher statements as parameters, so that statements which only differ in their literals
+     * share a query plan on the server.
+     */
+    public void setParameterizeLiterals( boolean parameterizeLiterals )
+    {
+        this.parameterizeLiterals = parameterizeLiterals;
+    }
+
+    public boolean isParameterizingLiterals()
+    {
+        return parameterizeLiterals;
+    }
+
+    /**
+     * @return the number of times transactions of {@link #runCypherWithRetry(List, Map)} have been retried in total
+     */
+    public long getRetryCount()
+    {
+        return retries;
+    }
+
+    /**
+     * Run Cypher statements together in a transaction managed by the driver on a session which is not managed by this handler, such as a session from
+     * {@link #openSession()}.
+     */
+    @Nonnull
+    public static List<BoltResult> runCypherWithRetry( @Nonnull Session session,
+                                                       @Nonnull List<String> cypher,
+                                                       @Nonnull Map<String, Object> queryParams,
+                                                       boolean parameterizeLiterals )
+    {
+        return runCypherWithRetry( session, cypher, queryParams, parameterizeLiterals, () ->
+        {
+        } );
+    }
+
+    private static List<BoltResult> runCypherWithRetry( Session session, List<String> cypher, Map<String, Object> queryParams, boolean parameterizeLiterals,
+                                                        Runnable onRetry )
+    {
+        List<Query> queries = cypher.stream()
+                                    .map( statement -> query( statement, queryParams, parameterizeLiterals ) )
+                                    .collect( Collectors.toList() );
+        return executeWithRetry( session, queries, onRetry, ( query, tx ) ->
+        {
+            Result result = tx.run( query );
+            List<String> keys = result.keys();
+            List<Record> records = result.list();
+            return new ListBoltResult( records, result.consume(), keys );
+        } );
+    }
+
     public void updateActualDbName( @Nonnull ResultSummary resultSummary )
     {
         actualDatabaseNameAsReportedByServer = getActualDbName( resultSummary );
@@ -511,16 +677,19 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
     @Nonnull
     private Optional<BoltResult> getBoltResult( @Nonnull String cypher, @Nonnull Map<String, Object> queryParams ) throws SessionExpiredException
     {
-        Result statementResult;
+        return getBoltResult( isTransactionOpen() ? tx : session, cypher, queryParams, parameterizeLiterals );
+    }
 
-        if ( isTransactionOpen() )
-        {
-            statementResult = tx.run( new Query( cypher, queryParams ) );
-        }
-        else
-        {
-            statementResult = session.run( new Query( cypher, queryParams ) );
-        }
+    /**
+     * Run Cypher on a session or transaction which is not managed by this handler, such as a session from {@link #openSession()}.
+     */
+    @Nonnull
+    public static Optional<BoltResult> getBoltResult( @Nonnull QueryRunner queryRunner,
+                                                      @Nonnull String cypher,
+                                                      @Nonnull Map<String, Object> queryParams,
+                                                      boolean parameterizeLiterals )
+    {
+        Result statementResult = queryRunner.run( query( cypher, queryParams, parameterizeLiterals ) );
 
         if ( statementResult == null )
         {
@@ -530,6 +699,12 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
         return Optional.of( new StatementBoltResult( statementResult ) );
     }
 
+    @Nonnull
+    private static Query query( @Nonnull String cypher, @Nonnull Map<String, Object> queryParams, boolean parameterizeLiterals )
+    {
+        return parameterizeLiterals ? LiteralParameterizer.parameterize( cypher, queryParams ) : new Query( cypher, queryParams );
+    }
+
     private String getActualDbName( @Nonnull ResultSummary resultSummary )
     {
         DatabaseInfo dbInfo = resultSummary.database();
@@ -596,7 +771,11 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
     {
         Config.ConfigBuilder configBuilder = Config.builder()
                                                    .withLogging( NullLogging.NULL_LOGGING )
-                                                   .withUserAgent( USER_AGENT );
+                                                   .withUserAgent( USER_AGENT )
+                                                   .withFetchSize( connectionConfig.fetchSize() )
+                                                   .withMaxConnectionPoolSize( connectionConfig.maxConnectionPoolSize() )
+                                                   .withConnectionAcquisitionTimeout( connectionConfig.connectionAcquisitionTimeoutSeconds(), SECONDS )
+                                                   .withMaxConnectionLifetime( connectionConfig.maxConnectionLifetimeSeconds(), SECONDS );
         switch ( connectionConfig.encryption() )
         {
         case TRUE:
@@ -611,12 +790,23 @@ public class BoltStateHandler implements TransactionHandler, Connector, Database
         return driverProvider.apply( connectionConfig.driverUrl(), authToken, configBuilder.build() );
     }
 
-    private List<BoltResult> executeWithRetry( List<Query> transactionStatements, BiFunction<Query, Transaction, BoltResult> biFunction )
+    private static List<BoltResult> executeWithRetry( Session session,
+                                                      List<Query> transactionStatements,
+                                                      Runnable onRetry,
+                                                      BiFunction<Query, Transaction, BoltResult> biFunction )
     {
+        boolean[] attempted = {false};
         return session.writeTransaction( tx ->
-                                                 transactionStatements.stream()
-                                                                      .map( transactionStatement -> biFunction.apply( transactionStatement, tx ) )
-                                                                      .collect( Collectors.toList() ) );
+                                         {
+                                             if ( attempted[0] )
+                                             {
+                                                 onRetry.run();
+                                             }
+                                             attempted[0] = true;
+                                             return transactionStatements.stream()
+                                                                         .map( transactionStatement -> biFunction.apply( transactionStatement, tx ) )
+                                                                         .collect( Collectors.toList() );
+                                         } );
     }
 
     private boolean isSystemDb()
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.state;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+import org.neo4j.cypher.internal.ast.factory.ASTFactory;
+import org.neo4j.cypher.internal.ast.factory.LiteralInterpreter;
+import org.neo4j.cypher.internal.parser.javacc.Cypher;
+import org.neo4j.cypher.internal.parser.javacc.Token;
+import org.neo4j.driver.Query;
+import org.neo4j.shell.exception.ParameterException;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Lifts the literal strings and numbers of Cypher statements into parameters, so that statements which only differ in their literals are sent as the same
+ * query with different parameters, and share a plan in the query cache of the server. Statements which the client side parser does not understand, such
+ * as administration commands, are sent as they are.
+ */
+class LiteralParameterizer
+{
+    private static final String PARAMETER_PREFIX = "literal";
+    // The methods of the AST factory which create the literals lifted into parameters
+    private static final Set<String> LITERALS = new HashSet<>( asList( "newString", "newDouble", "newDecimalInteger", "newHexInteger", "newOctalInteger" ) );
+
+    private LiteralParameterizer()
+    {
+    }
+
+    /**
+     * @param cypher     the statement to send
+     * @param parameters the parameters of the session
+     * @return the query to send for the statement
+     */
+    @Nonnull
+    static Query parameterize( @Nonnull String cypher, @Nonnull Map<String, Object> parameters )
+    {
+        LiteralRecorder recorder = new LiteralRecorder( cypher );
+        try
+        {
+            recorder.parse();
+        }
+        catch ( Exception e )
+        {
+            return new Query( cypher, parameters );
+        }
+        if ( recorder.literals.isEmpty() || !recorder.consistent || usesPrefix( recorder.parameterNames ) || usesPrefix( parameters.keySet() ) )
+        {
+            return new Query( cypher, parameters );
+        }
+
+        StringBuilder template = new StringBuilder( cypher.length() );
+        Map<String, Object> allParameters = new HashMap<>( parameters );
+        int end = 0;
+        for ( int i = 0; i < recorder.literals.size(); i++ )
+        {
+            Literal literal = recorder.literals.get( i );
+            String name = PARAMETER_PREFIX + i;
+            template.append( cypher, end, literal.start );
+            // Keep the parameter apart from any identifier or keyword the literal was written right next to
+            if ( literal.start > 0 && isIdentifierPart( cypher.charAt( literal.start - 1 ) ) )
+            {
+                template.append( ' ' );
+            }
+            template.append( '$' ).append( name );
+            if ( literal.end < cypher.length() && isIdentifierPart( cypher.charAt( literal.end ) ) )
+            {
+                template.append( ' ' );
+            }
+            allParameters.put( name, literal.value );
+            end = literal.end;
+        }
+        template.append( cypher, end, cypher.length() );
+        return new Query( template.toString(), allParameters );
+    }
+
+    private static boolean usesPrefix( @Nonnull Set<String> parameterNames )
+    {
+        return parameterNames.stream().anyMatch( name -> name.startsWith( PARAMETER_PREFIX ) );
+    }
+
+    private static boolean isIdentifierPart( char c )
+    {
+        return Character.isLetterOrDigit( c ) || c == '_' || c == '$';
+    }
+
+    private static class Literal
+    {
+        private final int start;
+        private final int end;
+        private final Object value;
+
+        Literal( int start, int end, Object value )
+        {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Stands in for every method of the AST factory while parsing, recording where the literals are. No syntax tree is built, apart from the names of
+     * variables, which the names of parameters are made of.
+     */
+    private static class LiteralRecorder implements InvocationHandler
+    {
+        private final String cypher;
+        private final LiteralInterpreter interpreter = new LiteralInterpreter();
+        // The offset of the start of each line of the statement, as the parser counts positions in lines and columns
+        private final List<Integer> lineStarts = new ArrayList<>();
+        private final List<Literal> literals = new ArrayList<>();
+        private final Set<String> parameterNames = new HashSet<>();
+        // False if the position of a literal did not match the statement, or came before the previous literal, in which case it is safer to leave the
+        // statement alone
+        private boolean consistent = true;
+        private Cypher<?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?> parser;
+
+        LiteralRecorder( @Nonnull String cypher )
+        {
+            this.cypher = cypher;
+            lineStarts.add( 0 );
+            for ( int i = 0; i < cypher.length(); i++ )
+            {
+                char c = cypher.charAt( i );
+                if ( c == '\n' || (c == '\r' && (i + 1 == cypher.length() || cypher.charAt( i + 1 ) != '\n')) )
+                {
+                    lineStarts.add( i + 1 );
+                }
+            }
+        }
+
+        void parse() throws Exception
+        {
+            ASTFactory<?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?> factory =
+                    (ASTFactory<?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?>) Proxy.newProxyInstance( ASTFactory.class.getClassLoader(),
+                                                                                                             new Class<?>[]{ASTFactory.class}, this );
+            parser = new Cypher<>( factory, ParameterException.FACTORY, new StringReader( cypher ) );
+            parser.Statements();
+        }
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable
+        {
+            if ( method.getDeclaringClass() == Object.class )
+            {
+                return method.invoke( this, args );
+            }
+            String name = method.getName();
+            if ( name.equals( "inputPosition" ) )
+            {
+                // Positions stand for their offset in the statement
+                return offset( (int) args[1], (int) args[2] );
+            }
+            if ( name.equals( "newVariable" ) )
+            {
+                return args[1];
+            }
+            if ( name.equals( "newParameter" ) )
+            {
+                parameterNames.add( String.valueOf( args[1] ) );
+            }
+            else if ( LITERALS.contains( name ) )
+            {
+                record( method, args );
+            }
+            else if ( name.equals( "newReturnItem" ) && args.length == 6 )
+            {
+                // The server names the column of an item without an alias after its text, which must stay as it was written
+                keepLiteralsOf( offset( (int) args[2], (int) args[3] ), offset( (int) args[4], (int) args[5] ) + 1 );
+            }
+            else if ( name.equals( "newReturnClause" ) && !((List<?>) args[4]).isEmpty() )
+            {
+                // After DISTINCT or an aggregation, an ORDER BY item may only repeat a projected expression, so the literals of both have to stay alike
+                Token token = parser.token;
+                keepLiteralsOf( (int) args[0], offset( token.endLine, token.endColumn ) + 1 );
+            }
+            return null;
+        }
+
+        private void keepLiteralsOf( int start, int end )
+        {
+            while ( !literals.isEmpty() && literals.get( literals.size() - 1 ).start >= start && literals.get( literals.size() - 1 ).end <= end )
+            {
+                literals.remove( literals.size() - 1 );
+            }
+        }
+
+        private void record( @Nonnull Method method, @Nonnull Object[] args )
+        {
+            // The parser has just consumed the token of the literal
+            Token token = parser.token;
+            int start = offset( token.beginLine, token.beginColumn );
+            int end = offset( token.endLine, token.endColumn ) + 1;
+            int previousEnd = literals.isEmpty() ? 0 : literals.get( literals.size() - 1 ).end;
+            if ( start < previousEnd || end <= start || end > cypher.length() || !matches( cypher.substring( start, end ), token.image ) )
+            {
+                consistent = false;
+                return;
+            }
+            Object[] interpreterArgs = args.clone();
+            // The interpreter does not track positions
+            interpreterArgs[0] = null;
+            if ( interpreterArgs.length == 3 )
+            {
+                // A minus in front of an integer is a token of its own, which stays in the statement
+                interpreterArgs[2] = false;
+            }
+            try
+            {
+                literals.add( new Literal( start, end, method.invoke( interpreter, interpreterArgs ) ) );
+            }
+            catch ( IllegalAccessException | InvocationTargetException e )
+            {
+                // Such as the integer which is only in range when negated, it can stay a literal
+            }
+        }
+
+        private int offset( int line, int column )
+        {
+            return line < 1 || line > lineStarts.size() ? -1 : lineStarts.get( line - 1 ) + column - 1;
+        }
+
+        private static boolean matches( @Nonnull String text, @Nonnull String image )
+        {
+            char first = text.charAt( 0 );
+            if ( first == '\'' || first == '"' )
+            {
+                // The image of a string is its unescaped content
+                return text.length() > 1 && text.charAt( text.length() - 1 ) == first;
+            }
+            return text.equals( image );
+        }
+    }
+}
@@ -29,11 +29,16 @@ import org.neo4j.driver.summary.ResultSummary;
 
 /**
  * Wrapper around {@link Result}. Might or might not be materialized.
+ * <p>
+ * Iterating streams the records. The driver pulls them from the server in batches of the fetch size, and asks for the next batch on its own event loop
+ * while earlier records are still being formatted. It stops asking once enough records are waiting to be consumed, which bounds the records in flight.
+ * Formatters should therefore use {@link #iterate()}, since {@link #getRecords()} holds the whole result in memory.
  */
 public class StatementBoltResult implements BoltResult
 {
 
     private final Result result;
+    private ResultSummary summary;
 
     public StatementBoltResult( Result result )
     {
@@ -61,10 +66,17 @@ public class StatementBoltResult implements BoltResult
         return result;
     }
 
+    /**
+     * The summary is only fetched from the driver the first time, after which the same summary is returned.
+     */
     @Nonnull
     @Override
     public ResultSummary getSummary()
     {
-        return result.consume();
+        if ( summary == null )
+        {
+            summary = result.consume();
+        }
+        return summary;
     }
 }
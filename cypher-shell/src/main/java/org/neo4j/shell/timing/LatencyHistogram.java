@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+/**
+ * Counts recorded values in buckets of logarithmically growing width, in the manner of HdrHistogram. Values below 256 are counted exactly and larger
+ * values with a relative error of at most 1/128, less than 1%, so percentiles can be reported for any number of recorded values in constant memory.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF];
+    private long totalCount;
+    private long max;
+
+    /**
+     * @param value to record, negative values are counted as zero
+     */
+    public synchronized void record( long value )
+    {
+        long v = Math.max( 0, value );
+        counts[indexOf( v )]++;
+        totalCount++;
+        max = Math.max( max, v );
+    }
+
+    public synchronized long count()
+    {
+        return totalCount;
+    }
+
+    public synchronized long max()
+    {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the largest value which is counted in the same bucket as the value at the given percentile, or 0 if nothing has been recorded
+     */
+    public synchronized long percentile( double percentile )
+    {
+        if ( totalCount == 0 )
+        {
+            return 0;
+        }
+        long target = Math.max( 1, (long) Math.ceil( percentile / 100.0 * totalCount ) );
+        long seen = 0;
+        for ( int i = 0; i < counts.length; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= target )
+            {
+                return Math.min( highestValueAt( i ), max );
+            }
+        }
+        return max;
+    }
+
+    static int indexOf( long value )
+    {
+        if ( value < SUB_BUCKET_COUNT )
+        {
+            return (int) value;
+        }
+        // Shift the value so that its highest bit lands in the upper half of the sub buckets
+        int shift = Long.SIZE - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestValueAt( int index )
+    {
+        if ( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+
+import org.neo4j.driver.summary.SummaryCounters;
+import org.neo4j.shell.util.JsonStrings;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Writes the timings, row counts, update counters, retries and error codes of statements to a file which other programs can read, either as JSON
+ * with an entry for every statement followed by the totals, or as totals in the Prometheus text format. The file is written next to the target and
+ * moved into place when closed, so that readers never see a partial file.
+ */
+public class MetricsExporter implements Consumer<StatementTiming>, AutoCloseable
+{
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    public enum Format
+    {
+        JSON,
+        PROMETHEUS;
+
+        @Nonnull
+        public static Format parse( @Nonnull String format )
+        {
+            return valueOf( format.toUpperCase( Locale.ROOT ) );
+        }
+    }
+
+    private enum Counter
+    {
+        NODES_CREATED( SummaryCounters::nodesCreated ),
+        NODES_DELETED( SummaryCounters::nodesDeleted ),
+        RELATIONSHIPS_CREATED( SummaryCounters::relationshipsCreated ),
+        RELATIONSHIPS_DELETED( SummaryCounters::relationshipsDeleted ),
+        PROPERTIES_SET( SummaryCounters::propertiesSet ),
+        LABELS_ADDED( SummaryCounters::labelsAdded ),
+        LABELS_REMOVED( SummaryCounters::labelsRemoved ),
+        INDEXES_ADDED( SummaryCounters::indexesAdded ),
+        INDEXES_REMOVED( SummaryCounters::indexesRemoved ),
+        CONSTRAINTS_ADDED( SummaryCounters::constraintsAdded ),
+        CONSTRAINTS_REMOVED( SummaryCounters::constraintsRemoved ),
+        SYSTEM_UPDATES( SummaryCounters::systemUpdates );
+
+        private final ToIntFunction<SummaryCounters> value;
+
+        Counter( ToIntFunction<SummaryCounters> value )
+        {
+            this.value = value;
+        }
+    }
+
+    private final Path target;
+    private final Path temporary;
+    private final Format format;
+    private final Writer out;
+    private final long[] counters = new long[Counter.values().length];
+    private final Map<String, Long> errors = new TreeMap<>();
+    private final Map<StatementTiming.Phase, LatencyHistogram> histograms = new EnumMap<>( StatementTiming.Phase.class );
+    private final Map<StatementTiming.Phase, Long> sums = new EnumMap<>( StatementTiming.Phase.class );
+    private long statements;
+    private long rows;
+    private long retries;
+    private IOException failure;
+
+    /**
+     * @throws IOException if the file can not be created
+     */
+    public MetricsExporter( @Nonnull Path target, @Nonnull Format format ) throws IOException
+    {
+        this.target = target.toAbsolutePath();
+        this.temporary = this.target.resolveSibling( this.target.getFileName() + ".tmp" );
+        this.format = format;
+        this.out = Files.newBufferedWriter( temporary, StandardCharsets.UTF_8 );
+        for ( StatementTiming.Phase phase : StatementTiming.Phase.values() )
+        {
+            histograms.put( phase, new LatencyHistogram() );
+            sums.put( phase, 0L );
+        }
+        if ( format == Format.JSON )
+        {
+            write( "{\"statements\":[" );
+        }
+    }
+
+    @Override
+    public synchronized void accept( @Nonnull StatementTiming timing )
+    {
+        statements++;
+        rows += timing.rows();
+        retries += timing.retries();
+        if ( timing.errorCode() != null )
+        {
+            errors.merge( timing.errorCode(), 1L, Long::sum );
+        }
+        SummaryCounters summaryCounters = timing.counters();
+        if ( summaryCounters != null )
+        {
+            for ( Counter counter : Counter.values() )
+            {
+                counters[counter.ordinal()] += counter.value.applyAsInt( summaryCounters );
+            }
+        }
+        for ( Map.Entry<StatementTiming.Phase, Long> entry : timing.micros().entrySet() )
+        {
+            histograms.get( entry.getKey() ).record( entry.getValue() );
+            sums.merge( entry.getKey(), entry.getValue(), Long::sum );
+        }
+        if ( format == Format.JSON )
+        {
+            write( statements == 1 ? "\n" : ",\n" );
+            write( jsonStatement( timing ) );
+        }
+    }
+
+    /**
+     * Write the totals and move the file into place.
+     *
+     * @throws IOException if writing any of the metrics failed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        write( format == Format.JSON ? jsonTotals() : prometheus() );
+        try
+        {
+            out.close();
+        }
+        catch ( IOException e )
+        {
+            failed( e );
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        try
+        {
+            Files.move( temporary, target, REPLACE_EXISTING, ATOMIC_MOVE );
+        }
+        catch ( AtomicMoveNotSupportedException e )
+        {
+            Files.move( temporary, target, REPLACE_EXISTING );
+        }
+    }
+
+    private String jsonStatement( StatementTiming timing )
+    {
+        StringBuilder json = new StringBuilder( "{\"statement\":" ).append( timing.number() )
+                                                                   .append( ",\"rows\":" ).append( timing.rows() )
+                                                                   .append( ",\"retries\":" ).append( timing.retries() );
+        if ( timing.errorCode() != null )
+        {
+            json.append( ",\"error\":" ).append( JsonStrings.quote( timing.errorCode() ) );
+        }
+        json.append( ",\"latency_us\":{" );
+        String separator = "";
+        for ( Map.Entry<StatementTiming.Phase, Long> entry : timing.micros().entrySet() )
+        {
+            json.append( separator ).append( JsonStrings.quote( key( entry.getKey() ) ) ).append( ':' ).append( entry.getValue() );
+            separator = ",";
+        }
+        json.append( '}' );
+        SummaryCounters summaryCounters = timing.counters();
+        if ( summaryCounters != null )
+        {
+            json.append( ",\"counters\":{" );
+            separator = "";
+            for ( Counter counter : Counter.values() )
+            {
+                json.append( separator ).append( JsonStrings.quote( key( counter ) ) ).append( ':' ).append( counter.value.applyAsInt( summaryCounters ) );
+                separator = ",";
+            }
+            json.append( '}' );
+        }
+        return json.append( '}' ).toString();
+    }
+
+    private String jsonTotals()
+    {
+        StringBuilder json = new StringBuilder( "\n],\"totals\":{\"statements\":" ).append( statements )
+                                                                                  .append( ",\"rows\":" ).append( rows )
+                                                                                  .append( ",\"retries\":" ).append( retries )
+                                                                                  .append( ",\"errors\":{" );
+        String separator = "";
+        for ( Map.Entry<String, Long> error : errors.entrySet() )
+        {
+            json.append( separator ).append( JsonStrings.quote( error.getKey() ) ).append( ':' ).append( error.getValue() );
+            separator = ",";
+        }
+        json.append( "},\"counters\":{" );
+        separator = "";
+        for ( Counter counter : Counter.values() )
+        {
+            json.append( separator ).append( JsonStrings.quote( key( counter ) ) ).append( ':' ).append( counters[counter.ordinal()] );
+            separator = ",";
+        }
+        json.append( "},\"latency_us\":{" );
+        separator = "";
+        for ( Map.Entry<StatementTiming.Phase, LatencyHistogram> entry : histograms.entrySet() )
+        {
+            LatencyHistogram histogram = entry.getValue();
+            if ( histogram.count() == 0 )
+            {
+                continue;
+            }
+            json.append( separator ).append( JsonStrings.quote( key( entry.getKey() ) ) ).append( ":{" );
+            for ( double percentile : PERCENTILES )
+            {
+                json.append( String.format( Locale.ROOT, "\"p%.0f\":%d,", percentile, histogram.percentile( percentile ) ) );
+            }
+            json.append( "\"max\":" ).append( histogram.max() ).append( ",\"count\":" ).append( histogram.count() ).append( '}' );
+            separator = ",";
+        }
+        return json.append( "}}}\n" ).toString();
+    }
+
+    private String prometheus()
+    {
+        StringBuilder text = new StringBuilder();
+        metric( text, "cypher_shell_statements_total", "counter", "Statements executed, including failed statements." )
+                .append( "cypher_shell_statements_total " ).append( statements ).append( '\n' );
+        metric( text, "cypher_shell_statement_errors_total", "counter", "Failed statements by Neo4j status code." );
+        for ( Map.Entry<String, Long> error : errors.entrySet() )
+        {
+            text.append( "cypher_shell_statement_errors_total{code=" ).append( labelValue( error.getKey() ) ).append( "} " )
+                .append( error.getValue() ).append( '\n' );
+        }
+        metric( text, "cypher_shell_rows_total", "counter", "Records returned by statements." )
+                .append( "cypher_shell_rows_total " ).append( rows ).append( '\n' );
+        metric( text, "cypher_shell_transaction_retries_total", "counter", "Transactions retried because of transient errors." )
+                .append( "cypher_shell_transaction_retries_total " ).append( retries ).append( '\n' );
+        metric( text, "cypher_shell_updates_total", "counter", "Updates reported by the server, by kind." );
+        for ( Counter counter : Counter.values() )
+        {
+            text.append( "cypher_shell_updates_total{kind=" ).append( labelValue( key( counter ) ) ).append( "} " )
+                .append( counters[counter.ordinal()] ).append( '\n' );
+        }
+        metric( text, "cypher_shell_statement_latency_seconds", "summary", "Statement latency by phase, measured on the client or reported by the server." );
+        for ( Map.Entry<StatementTiming.Phase, LatencyHistogram> entry : histograms.entrySet() )
+        {
+            LatencyHistogram histogram = entry.getValue();
+            if ( histogram.count() == 0 )
+            {
+                continue;
+            }
+            String phase = labelValue( key( entry.getKey() ) );
+            for ( double percentile : PERCENTILES )
+            {
+                text.append( String.format( Locale.ROOT, "cypher_shell_statement_latency_seconds{phase=%s,quantile=\"%s\"} %s\n", phase,
+                                            percentile / 100, seconds( histogram.percentile( percentile ) ) ) );
+            }
+            text.append( "cypher_shell_statement_latency_seconds_sum{phase=" ).append( phase ).append( "} " )
+                .append( seconds( sums.get( entry.getKey() ) ) ).append( '\n' );
+            text.append( "cypher_shell_statement_latency_seconds_count{phase=" ).append( phase ).append( "} " )
+                .append( histogram.count() ).append( '\n' );
+        }
+        return text.toString();
+    }
+
+    private static StringBuilder metric( StringBuilder text, String name, String type, String help )
+    {
+        return text.append( "# HELP " ).append( name ).append( ' ' ).append( help ).append( '\n' )
+                   .append( "# TYPE " ).append( name ).append( ' ' ).append( type ).append( '\n' );
+    }
+
+    private static String seconds( long micros )
+    {
+        return String.format( Locale.ROOT, "%.6f", micros / 1_000_000.0 );
+    }
+
+    private static String key( Enum<?> value )
+    {
+        return value.name().toLowerCase( Locale.ROOT );
+    }
+
+    private static String labelValue( String value )
+    {
+        return '"' + value.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ).replace( "\n", "\\n" ) + '"';
+    }
+
+    private void write( String text )
+    {
+        if ( failure != null )
+        {
+            return;
+        }
+        try
+        {
+            out.write( text );
+        }
+        catch ( IOException e )
+        {
+            failed( e );
+        }
+    }
+
+    private void failed( IOException e )
+    {
+        if ( failure == null )
+        {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.neo4j.shell.prettyprint.LinePrinter;
+
+/**
+ * Collects the timings of executed statements, reporting each statement as it finishes and the latency percentiles of all of them on request. Listeners
+ * are handed the timing of each statement as well, e.g. to export them.
+ */
+public class QueryTimer
+{
+    private static final double[] PERCENTILES = {50, 95, 99};
+    private final LinePrinter report;
+    private final Map<StatementTiming.Phase, LatencyHistogram> histograms = new EnumMap<>( StatementTiming.Phase.class );
+    private final List<Consumer<StatementTiming>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong statements = new AtomicLong();
+    // Timings of statements whose transaction has not been committed yet, or null if timings are not held back
+    private List<StatementTiming> held;
+
+    /**
+     * @param report to print the timings to, which should be separate from the results so that they do not end up in exported data, or null to only
+     *               collect them for the listeners
+     */
+    public QueryTimer( @Nullable LinePrinter report )
+    {
+        this.report = report;
+        for ( StatementTiming.Phase phase : StatementTiming.Phase.values() )
+        {
+            histograms.put( phase, new LatencyHistogram() );
+        }
+    }
+
+    /**
+     * @return the timing of a statement which is received now
+     */
+    @Nonnull
+    public StatementTiming start()
+    {
+        return new StatementTiming( this );
+    }
+
+    /**
+     * @param listener to hand the timing of each finished statement to
+     */
+    public void addListener( @Nonnull Consumer<StatementTiming> listener )
+    {
+        listeners.add( listener );
+    }
+
+    /**
+     * Hold back the timings of statements which finish from now on, as their transaction may still be rolled back, until they are either released
+     * with {@link #release()} or dropped with {@link #discard()}.
+     */
+    public void hold()
+    {
+        if ( held == null )
+        {
+            held = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Report the timings held back since {@link #hold()}, once their transaction has been committed, and stop holding timings back.
+     */
+    public void release()
+    {
+        List<StatementTiming> timings = held;
+        held = null;
+        if ( timings != null )
+        {
+            timings.forEach( this::finished );
+        }
+    }
+
+    /**
+     * Drop the timings held back since {@link #hold()}, as their transaction was rolled back, and stop holding timings back.
+     */
+    public void discard()
+    {
+        held = null;
+    }
+
+    void finished( @Nonnull StatementTiming timing )
+    {
+        if ( held != null )
+        {
+            held.add( timing );
+            return;
+        }
+        timing.setNumber( statements.incrementAndGet() );
+        for ( Consumer<StatementTiming> listener : listeners )
+        {
+            listener.accept( timing );
+        }
+        if ( report == null )
+        {
+            return;
+        }
+        StringBuilder line = new StringBuilder( "Timing:" );
+        String separator = " ";
+        for ( Map.Entry<StatementTiming.Phase, Long> entry : timing.micros().entrySet() )
+        {
+            histograms.get( entry.getKey() ).record( entry.getValue() );
+            line.append( separator ).append( entry.getKey().label() ).append( ' ' ).append( millis( entry.getValue() ) );
+            separator = ", ";
+        }
+        if ( timing.errorCode() != null )
+        {
+            line.append( " (failed" ).append( timing.errorCode().isEmpty() ? "" : ": " + timing.errorCode() ).append( ')' );
+        }
+        report.printOut( line.toString() );
+    }
+
+    /**
+     * Print the latency percentiles of each phase over all statements timed so far.
+     */
+    public void printSummary()
+    {
+        if ( report == null || histograms.get( StatementTiming.Phase.TOTAL ).count() == 0 )
+        {
+            return;
+        }
+        int labelWidth = 0;
+        for ( StatementTiming.Phase phase : StatementTiming.Phase.values() )
+        {
+            labelWidth = Math.max( labelWidth, phase.label().length() );
+        }
+        report.printOut( String.format( "Timing of %d statements:", histograms.get( StatementTiming.Phase.TOTAL ).count() ) );
+        for ( Map.Entry<StatementTiming.Phase, LatencyHistogram> entry : histograms.entrySet() )
+        {
+            LatencyHistogram histogram = entry.getValue();
+            if ( histogram.count() == 0 )
+            {
+                continue;
+            }
+            StringBuilder line = new StringBuilder( String.format( "  %-" + labelWidth + "s", entry.getKey().label() ) );
+            for ( double percentile : PERCENTILES )
+            {
+                line.append( String.format( "  p%.0f %10s", percentile, millis( histogram.percentile( percentile ) ) ) );
+            }
+            line.append( String.format( "  max %10s", millis( histogram.max() ) ) );
+            report.printOut( line.toString() );
+        }
+    }
+
+    private static String millis( long micros )
+    {
+        return String.format( "%.3f ms", micros / 1000.0 );
+    }
+}
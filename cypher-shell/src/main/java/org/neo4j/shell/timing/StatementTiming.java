@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+import org.neo4j.shell.prettyprint.LinePrinter;
+import org.neo4j.shell.state.BoltResult;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures where the time of executing a single statement goes, on the client as well as on the server. Create one with {@link QueryTimer#start()}
+ * when the statement is handed to the shell, and route its result and output through {@link #time(BoltResult)} and {@link #time(LinePrinter)}.
+ */
+public class StatementTiming
+{
+    /**
+     * Does not measure anything, for when timing is disabled.
+     */
+    public static final StatementTiming NONE = new StatementTiming( null );
+
+    public enum Phase
+    {
+        /**
+         * Client time from receiving the statement until sending it to the server, which covers command detection and parameter evaluation.
+         */
+        PARSE( "parse" ),
+        /**
+         * Time from sending the statement until the first record has been received, as seen by the client.
+         */
+        FIRST_RECORD( "first record" ),
+        /**
+         * Server time until the result was available, as reported in the result summary.
+         */
+        SERVER_AVAILABLE( "server available" ),
+        /**
+         * Server time to consume the result, as reported in the result summary.
+         */
+        SERVER_CONSUMED( "server consumed" ),
+        /**
+         * Client time spent formatting, which is the time spent with the result that was neither waiting for records nor writing output.
+         */
+        FORMAT( "format" ),
+        /**
+         * Client time spent writing the formatted output.
+         */
+        WRITE( "write" ),
+        /**
+         * Time from receiving the statement until its result had been printed.
+         */
+        TOTAL( "total" );
+
+        private final String label;
+
+        Phase( String label )
+        {
+            this.label = label;
+        }
+
+        @Nonnull
+        public String label()
+        {
+            return label;
+        }
+    }
+
+    private final QueryTimer timer;
+    private final long startNanos;
+    private final Map<Phase, Long> micros = new EnumMap<>( Phase.class );
+    private long sentNanos;
+    private long firstRecordNanos;
+    private long fetchNanos;
+    private long writeNanos;
+    private long resultNanos;
+    private long rows;
+    private int retries;
+    private SummaryCounters counters;
+    private String errorCode;
+    private long number;
+
+    StatementTiming( QueryTimer timer )
+    {
+        this.timer = timer;
+        this.startNanos = timer == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Mark that the statement is being sent to the server.
+     */
+    public void sent()
+    {
+        if ( timer != null )
+        {
+            sentNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return the result, measuring the time spent waiting for its records
+     */
+    @Nonnull
+    public BoltResult time( @Nonnull BoltResult result )
+    {
+        if ( timer == null )
+        {
+            return result;
+        }
+        resultNanos = System.nanoTime();
+        return new TimedBoltResult( result );
+    }
+
+    /**
+     * @return the printer, measuring the time spent writing to it
+     */
+    @Nonnull
+    public LinePrinter time( @Nonnull LinePrinter linePrinter )
+    {
+        if ( timer == null )
+        {
+            return linePrinter;
+        }
+        return new TimedLinePrinter( linePrinter );
+    }
+
+    /**
+     * @param retries the number of times the transaction of the statement had to be retried
+     */
+    public void setRetries( int retries )
+    {
+        this.retries = retries;
+    }
+
+    /**
+     * Mark that the result has been printed, and hand the measurements to the timer.
+     *
+     * @param summary of the result, for the server side timings
+     */
+    public void finish( @Nonnull ResultSummary summary )
+    {
+        if ( timer == null )
+        {
+            return;
+        }
+        long endNanos = System.nanoTime();
+        micros.put( Phase.PARSE, toMicros( sentNanos - startNanos ) );
+        if ( firstRecordNanos != 0 )
+        {
+            micros.put( Phase.FIRST_RECORD, toMicros( firstRecordNanos - sentNanos ) );
+        }
+        putIfReported( Phase.SERVER_AVAILABLE, summary.resultAvailableAfter( MICROSECONDS ) );
+        putIfReported( Phase.SERVER_CONSUMED, summary.resultConsumedAfter( MICROSECONDS ) );
+        micros.put( Phase.FORMAT, toMicros( Math.max( 0, endNanos - resultNanos - fetchNanos - writeNanos ) ) );
+        micros.put( Phase.WRITE, toMicros( writeNanos ) );
+        micros.put( Phase.TOTAL, toMicros( endNanos - startNanos ) );
+        counters = summary.counters();
+        timer.finished( this );
+    }
+
+    /**
+     * Mark that the statement failed, and hand the measurements to the timer.
+     *
+     * @param errorCode the Neo4j status code of the failure, if any
+     */
+    public void failed( @Nullable String errorCode )
+    {
+        if ( timer == null )
+        {
+            return;
+        }
+        micros.put( Phase.TOTAL, toMicros( System.nanoTime() - startNanos ) );
+        this.errorCode = errorCode == null ? "" : errorCode;
+        timer.finished( this );
+    }
+
+    /**
+     * @return the sequence number of the statement among all statements finished with the same timer, starting at 1
+     */
+    public long number()
+    {
+        return number;
+    }
+
+    /**
+     * @return the number of records received
+     */
+    public long rows()
+    {
+        return rows;
+    }
+
+    public int retries()
+    {
+        return retries;
+    }
+
+    /**
+     * @return the update counters of a successful statement, or null
+     */
+    @Nullable
+    public SummaryCounters counters()
+    {
+        return counters;
+    }
+
+    /**
+     * @return the status code of a failed statement, empty if the failure had none, or null if the statement succeeded
+     */
+    @Nullable
+    public String errorCode()
+    {
+        return errorCode;
+    }
+
+    /**
+     * @return the measured microseconds of the phases, without the phases which do not apply, e.g. the first record of an empty result
+     */
+    @Nonnull
+    public Map<Phase, Long> micros()
+    {
+        return micros;
+    }
+
+    void setNumber( long number )
+    {
+        this.number = number;
+    }
+
+    private void putIfReported( Phase phase, long serverMicros )
+    {
+        // The driver reports -1 if the server did not send the timing
+        if ( serverMicros >= 0 )
+        {
+            micros.put( phase, serverMicros );
+        }
+    }
+
+    private static long toMicros( long nanos )
+    {
+        return NANOSECONDS.toMicros( nanos );
+    }
+
+    private class TimedBoltResult implements BoltResult
+    {
+        private final BoltResult result;
+
+        TimedBoltResult( BoltResult result )
+        {
+            this.result = result;
+        }
+
+        @Nonnull
+        @Override
+        public List<String> getKeys()
+        {
+            return result.getKeys();
+        }
+
+        @Nonnull
+        @Override
+        public List<Record> getRecords()
+        {
+            long before = System.nanoTime();
+            List<Record> records = result.getRecords();
+            long after = System.nanoTime();
+            fetchNanos += after - before;
+            rows = records.size();
+            if ( firstRecordNanos == 0 && !records.isEmpty() )
+            {
+                firstRecordNanos = after;
+            }
+            return records;
+        }
+
+        @Nonnull
+        @Override
+        public Iterator<Record> iterate()
+        {
+            Iterator<Record> records = result.iterate();
+            return new Iterator<Record>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    long before = System.nanoTime();
+                    boolean hasNext = records.hasNext();
+                    fetchNanos += System.nanoTime() - before;
+                    return hasNext;
+                }
+
+                @Override
+                public Record next()
+                {
+                    long before = System.nanoTime();
+                    Record record = records.next();
+                    long after = System.nanoTime();
+                    fetchNanos += after - before;
+                    rows++;
+                    if ( firstRecordNanos == 0 )
+                    {
+                        firstRecordNanos = after;
+                    }
+                    return record;
+                }
+            };
+        }
+
+        @Nonnull
+        @Override
+        public ResultSummary getSummary()
+        {
+            long before = System.nanoTime();
+            ResultSummary summary = result.getSummary();
+            fetchNanos += System.nanoTime() - before;
+            return summary;
+        }
+    }
+
+    private class TimedLinePrinter implements LinePrinter
+    {
+        private final LinePrinter linePrinter;
+
+        TimedLinePrinter( LinePrinter linePrinter )
+        {
+            this.linePrinter = linePrinter;
+        }
+
+        @Override
+        public void printOut( String line )
+        {
+            long before = System.nanoTime();
+            linePrinter.printOut( line );
+            writeNanos += System.nanoTime() - before;
+        }
+
+        @Override
+        public void printData( String line )
+        {
+            long before = System.nanoTime();
+            linePrinter.printData( line );
+            writeNanos += System.nanoTime() - before;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.util;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes strings as JSON string literals, escaping quotes, backslashes and control characters.
+ */
+public final class JsonStrings
+{
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JsonStrings()
+    {
+        throw new UnsupportedOperationException( "Don't instantiate" );
+    }
+
+    /**
+     * @param value to quote
+     * @return the value as a JSON string literal
+     */
+    @Nonnull
+    public static String quote( @Nonnull String value )
+    {
+        StringBuilder sb = new StringBuilder( value.length() + 2 );
+        append( sb, value );
+        return sb.toString();
+    }
+
+    /**
+     * Append a string as a JSON string literal, without building any intermediate strings.
+     *
+     * @param sb    to append to
+     * @param value to quote
+     */
+    public static void append( @Nonnull StringBuilder sb, @Nonnull String value )
+    {
+        sb.append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            switch ( c )
+            {
+            case '"':
+                sb.append( "\\\"" );
+                break;
+            case '\\':
+                sb.append( "\\\\" );
+                break;
+            case '\n':
+                sb.append( "\\n" );
+                break;
+            case '\r':
+                sb.append( "\\r" );
+                break;
+            case '\t':
+                sb.append( "\\t" );
+                break;
+            case '\b':
+                sb.append( "\\b" );
+                break;
+            case '\f':
+                sb.append( "\\f" );
+                break;
+            default:
+                if ( c < ' ' )
+                {
+                    sb.append( "\\u00" ).append( HEX_DIGITS[c >> 4] ).append( HEX_DIGITS[c & 0xF] );
+                }
+                else
+                {
+                    sb.append( c );
+                }
+            }
+        }
+        sb.append( '"' );
+    }
+}
@@ -30,6 +30,10 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Optional;
 
+import org.neo4j.shell.ConnectionConfig;
+import org.neo4j.shell.log.FlushPolicy;
+import org.neo4j.shell.timing.MetricsExporter;
+
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.containsString;
@@ -78,6 +82,134 @@ public class CliArgHelperTest
         assertNull( "invalid sample-rows", CliArgHelper.parse( "--sample-rows foo".split( " " ) ) );
     }
 
+    @Test
+    public void testParallel()
+    {
+        assertEquals( "default parallel", 1, CliArgHelper.parse().getParallelism() );
+        assertEquals( "parallel 8", 8, CliArgHelper.parse( "--parallel 8".split( " " ) ).getParallelism() );
+        assertNull( "invalid parallel", CliArgHelper.parse( "--parallel 0".split( " " ) ) );
+        assertNull( "invalid parallel", CliArgHelper.parse( "--parallel foo".split( " " ) ) );
+    }
+
+    @Test
+    public void testParallelOutput()
+    {
+        assertTrue( "default parallel-output", CliArgHelper.parse().getOrderedOutput() );
+        assertTrue( "ordered parallel-output", CliArgHelper.parse( "--parallel-output ordered".split( " " ) ).getOrderedOutput() );
+        assertFalse( "unordered parallel-output", CliArgHelper.parse( "--parallel-output unordered".split( " " ) ).getOrderedOutput() );
+        assertNull( "invalid parallel-output", CliArgHelper.parse( "--parallel-output foo".split( " " ) ) );
+    }
+
+    @Test
+    public void testBatchSize()
+    {
+        assertEquals( "default batch-size", 1, CliArgHelper.parse().getBatchSize() );
+        assertEquals( "batch-size", 100, CliArgHelper.parse( "--batch-size 100".split( " " ) ).getBatchSize() );
+        assertNull( "zero batch-size", CliArgHelper.parse( "--batch-size 0".split( " " ) ) );
+        assertNull( "invalid batch-size", CliArgHelper.parse( "--batch-size foo".split( " " ) ) );
+    }
+
+    @Test
+    public void testRetryTransient()
+    {
+        assertFalse( "default retry-transient", CliArgHelper.parse().getRetryTransient() );
+        assertTrue( "retry-transient", CliArgHelper.parse( "--retry-transient" ).getRetryTransient() );
+    }
+
+    @Test
+    public void testCsvDelimiter()
+    {
+        assertEquals( "default csv-delimiter", ',', CliArgHelper.parse().getCsvDelimiter() );
+        assertEquals( "csv-delimiter", ';', CliArgHelper.parse( "--csv-delimiter", ";" ).getCsvDelimiter() );
+        assertEquals( "tab csv-delimiter", '\t', CliArgHelper.parse( "--csv-delimiter", "\\t" ).getCsvDelimiter() );
+        assertNull( "invalid csv-delimiter", CliArgHelper.parse( "--csv-delimiter", "ab" ) );
+        assertNull( "quote csv-delimiter", CliArgHelper.parse( "--csv-delimiter", "\"" ) );
+        assertNull( "carriage return csv-delimiter", CliArgHelper.parse( "--csv-delimiter", "\r" ) );
+        assertNull( "newline csv-delimiter", CliArgHelper.parse( "--csv-delimiter", "\n" ) );
+    }
+
+    @Test
+    public void testFlush()
+    {
+        CliArgs defaults = CliArgHelper.parse();
+        assertEquals( "default flush", FlushPolicy.RECORD, defaults.getFlushPolicy() );
+        assertEquals( "default flush-records", 1, defaults.getFlushRecords() );
+        assertFalse( "not buffered by default", defaults.isOutputBuffered() );
+
+        CliArgs everyHundred = CliArgHelper.parse( "--flush-records", "100" );
+        assertEquals( "flush-records", 100, everyHundred.getFlushRecords() );
+        assertTrue( "buffered with flush-records", everyHundred.isOutputBuffered() );
+
+        assertEquals( "statement flush", FlushPolicy.STATEMENT, CliArgHelper.parse( "--flush", "statement" ).getFlushPolicy() );
+        assertEquals( "idle flush", FlushPolicy.IDLE, CliArgHelper.parse( "--flush", "idle" ).getFlushPolicy() );
+        assertNull( "invalid flush", CliArgHelper.parse( "--flush", "never" ) );
+    }
+
+    @Test
+    public void testAdaptiveWidths()
+    {
+        assertFalse( "default adaptive-widths", CliArgHelper.parse().getAdaptiveWidths() );
+        assertTrue( "adaptive-widths", CliArgHelper.parse( "--adaptive-widths" ).getAdaptiveWidths() );
+    }
+
+    @Test
+    public void testSpillSamples()
+    {
+        assertFalse( "default spill-samples", CliArgHelper.parse().getSpillSamples() );
+        assertTrue( "spill-samples", CliArgHelper.parse( "--spill-samples" ).getSpillSamples() );
+    }
+
+    @Test
+    public void testTiming()
+    {
+        assertFalse( "default timing", CliArgHelper.parse().getTiming() );
+        assertTrue( "timing", CliArgHelper.parse( "--timing" ).getTiming() );
+    }
+
+    @Test
+    public void testParameterizeLiterals()
+    {
+        assertFalse( "default parameterize-literals", CliArgHelper.parse().getParameterizeLiterals() );
+        assertTrue( "parameterize-literals", CliArgHelper.parse( "--parameterize-literals" ).getParameterizeLiterals() );
+    }
+
+    @Test
+    public void testMetricsOut()
+    {
+        CliArgs defaults = CliArgHelper.parse();
+        assertNull( "default metrics-out", defaults.getMetricsOut() );
+        assertEquals( "default metrics-format", MetricsExporter.Format.JSON, defaults.getMetricsFormat() );
+
+        CliArgs cliArgs = CliArgHelper.parse( "--metrics-out metrics.prom --metrics-format prometheus".split( " " ) );
+        assertEquals( "metrics.prom", cliArgs.getMetricsOut() );
+        assertEquals( MetricsExporter.Format.PROMETHEUS, cliArgs.getMetricsFormat() );
+        assertNull( "unknown metrics-format", CliArgHelper.parse( "--metrics-format xml".split( " " ) ) );
+    }
+
+    @Test
+    public void testFormatThreads()
+    {
+        assertEquals( "default format-threads", 1, CliArgHelper.parse().getFormatThreads() );
+        assertEquals( "format-threads", 4, CliArgHelper.parse( "--format-threads 4".split( " " ) ).getFormatThreads() );
+        assertNull( "zero format-threads", CliArgHelper.parse( "--format-threads 0".split( " " ) ) );
+    }
+
+    @Test
+    public void testConnectionSettings()
+    {
+        CliArgs defaults = CliArgHelper.parse();
+        assertEquals( "default fetch-size", ConnectionConfig.DEFAULT_FETCH_SIZE, defaults.getFetchSize() );
+        assertEquals( "default max-connection-pool-size", ConnectionConfig.DEFAULT_MAX_CONNECTION_POOL_SIZE, defaults.getMaxConnectionPoolSize() );
+
+        CliArgs cliArgs = CliArgHelper.parse( ( "--fetch-size 5000 --max-connection-pool-size 4 --connection-acquisition-timeout 5 " +
+                                                "--max-connection-lifetime 600" ).split( " " ) );
+        assertEquals( 5000, cliArgs.getFetchSize() );
+        assertEquals( 4, cliArgs.getMaxConnectionPoolSize() );
+        assertEquals( 5, cliArgs.getConnectionAcquisitionTimeout() );
+        assertEquals( 600, cliArgs.getMaxConnectionLifetime() );
+        assertNull( "zero fetch-size", CliArgHelper.parse( "--fetch-size 0".split( " " ) ) );
+    }
+
     @Test
     public void testWrap()
     {
@@ -168,6 +300,8 @@ public class CliArgHelperTest
     {
         assertEquals( Format.PLAIN, CliArgHelper.parse( "--format", "plain" ).getFormat() );
         assertEquals( Format.VERBOSE, CliArgHelper.parse( "--format", "verbose" ).getFormat() );
+        assertEquals( Format.CSV, CliArgHelper.parse( "--format", "csv" ).getFormat() );
+        assertEquals( Format.JSONL, CliArgHelper.parse( "--format", "jsonl" ).getFormat() );
     }
 
     @Test
@@ -238,6 +372,20 @@ public class CliArgHelperTest
         assertTrue( bout.toString().contains( "cypher-shell: error: unrecognized arguments: '-notreally'" ) );
     }
 
+    @Test
+    public void parallelWithTimingGivesError()
+    {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        System.setErr( new PrintStream( bout ) );
+
+        assertNull( "parallel with timing", CliArgHelper.parse( "--parallel 2 --timing".split( " " ) ) );
+        assertNull( "parallel with metrics-out", CliArgHelper.parse( "--parallel 2 --metrics-out metrics.json".split( " " ) ) );
+        assertNotNull( "sequential with timing", CliArgHelper.parse( "--parallel 1 --timing --metrics-out metrics.json".split( " " ) ) );
+
+        assertTrue( "expected error: " + bout.toString(),
+                    bout.toString().contains( "cypher-shell: error: argument --parallel can not be combined with --timing or --metrics-out" ) );
+    }
+
     @Test
     public void nonsenseUrlGivesError()
     {
@@ -24,6 +24,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 import sun.misc.Signal;
 
 import java.io.ByteArrayInputStream;
@@ -68,9 +69,11 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.calls;
 import static org.mockito.Mockito.contains;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -134,6 +137,22 @@ public class InteractiveShellRunnerTest
         verifyNoMoreInteractions( cmdExecuter );
     }
 
+    @Test
+    public void outputIsFlushedAfterEachStatement() throws Exception
+    {
+        String input = "good1; good2;\n";
+        InteractiveShellRunner runner = new InteractiveShellRunner( cmdExecuter, txHandler, databaseManager, logger, statementParser,
+                                                                    new ByteArrayInputStream( input.getBytes() ), historyFile, userMessagesHandler,
+                                                                    connectionConfig );
+        runner.runUntilEnd();
+
+        InOrder inOrder = inOrder( cmdExecuter, logger );
+        inOrder.verify( cmdExecuter ).execute( "good1;" );
+        inOrder.verify( logger, calls( 1 ) ).endOfStatement();
+        inOrder.verify( cmdExecuter ).execute( " good2;" );
+        inOrder.verify( logger, calls( 1 ) ).endOfStatement();
+    }
+
     @Test
     public void runUntilEndShouldKeepGoingOnErrors() throws IOException, CommandException
     {
@@ -23,32 +23,65 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
 
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+import org.neo4j.shell.CypherShell;
 import org.neo4j.shell.Historian;
+import org.neo4j.shell.OfflineTestShell;
 import org.neo4j.shell.StatementExecuter;
+import org.neo4j.shell.TransactionHandler;
 import org.neo4j.shell.exception.CommandException;
 import org.neo4j.shell.exception.ExitException;
 import org.neo4j.shell.log.Logger;
 import org.neo4j.shell.parser.ShellStatementParser;
 import org.neo4j.shell.parser.StatementParser;
+import org.neo4j.shell.prettyprint.LinePrinter;
+import org.neo4j.shell.prettyprint.PrettyPrinter;
+import org.neo4j.shell.state.BoltStateHandler;
+import org.neo4j.shell.state.ListBoltResult;
+import org.neo4j.shell.timing.MetricsExporter;
+import org.neo4j.shell.timing.QueryTimer;
 
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.contains;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 public class NonInteractiveShellRunnerTest
 {
     @Rule
     public final ExpectedException thrown = ExpectedException.none();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
 
     private Logger logger = mock( Logger.class );
     private StatementExecuter cmdExecuter = mock( StatementExecuter.class );
@@ -61,6 +94,7 @@ public class NonInteractiveShellRunnerTest
         statementParser = new ShellStatementParser();
         badLineError = new ClientException( "Found a bad line" );
         doThrow( badLineError ).when( cmdExecuter ).execute( contains( "bad" ) );
+        doThrow( badLineError ).when( cmdExecuter ).execute( contains( "bad" ), any( LinePrinter.class ) );
         doReturn( System.out ).when( logger ).getOutputStream();
     }
 
@@ -144,6 +178,34 @@ public class NonInteractiveShellRunnerTest
         verify( logger ).printError( boom );
     }
 
+    @Test
+    public void runUntilEndExecutesStatementsBeforeReadingRemainingInput() throws Exception
+    {
+        // given
+        IOException readError = new IOException( "Stream closed" );
+        InputStream input = new SequenceInputStream( new ByteArrayInputStream( "good1;\ngood2;\n".getBytes() ), new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                throw readError;
+            }
+        } );
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_AT_END, cmdExecuter,
+                logger, statementParser,
+                input );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 1, code );
+        verify( cmdExecuter ).execute( "good1;" );
+        verify( cmdExecuter ).execute( "\ngood2;" );
+        verify( logger ).printError( readError );
+    }
+
     @Test
     public void runUntilEndExitsImmediatelyOnExitCommand() throws Exception
     {
@@ -169,6 +231,226 @@ public class NonInteractiveShellRunnerTest
         verifyNoMoreInteractions( cmdExecuter );
     }
 
+    @Test
+    public void batchesAreCommittedEveryBatchSizeStatements() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        String input = "good1;\ngood2;\ngood3;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_FAST, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 2, false );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 0, code );
+        verify( txHandler, times( 2 ) ).beginTransaction();
+        verify( txHandler, times( 2 ) ).commitTransaction();
+        verify( cmdExecuter, times( 3 ) ).execute( anyString(), any( LinePrinter.class ) );
+    }
+
+    @Test
+    public void failedBatchIsRetriedOneStatementAtATime() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        // No transaction is open before the batch begins
+        when( txHandler.isTransactionOpen() ).thenReturn( false, true );
+        String input = "good1;\nbad;\ngood2;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_AT_END, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 10, false );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 1, code );
+        verify( txHandler ).rollbackTransaction();
+        verify( cmdExecuter ).execute( eq( "good1;" ), any( LinePrinter.class ) );
+        verify( cmdExecuter ).execute( "good1;" );
+        verify( cmdExecuter ).execute( eq( "\nbad;" ), any( LinePrinter.class ) );
+        verify( cmdExecuter ).execute( "\nbad;" );
+        verify( logger ).printError( badLineError );
+    }
+
+    @Test
+    public void resultsOfBatchArePrintedOnceCommitted() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        printStatementsAsResults();
+        String input = "good1;\ngood2;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_FAST, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 10, false );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 0, code );
+        InOrder inOrder = inOrder( txHandler, logger );
+        inOrder.verify( txHandler ).commitTransaction();
+        inOrder.verify( logger ).printData( "good1;" );
+        inOrder.verify( logger ).printData( "\ngood2;" );
+    }
+
+    @Test
+    public void resultsOfFailedBatchAreNotPrinted() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        when( txHandler.isTransactionOpen() ).thenReturn( false, true );
+        printStatementsAsResults();
+        String input = "good1;\nbad;\ngood2;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_AT_END, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 10, false );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 1, code );
+        verify( txHandler, never() ).commitTransaction();
+        // Only the results of executing the statements one by one, each printed once
+        InOrder inOrder = inOrder( logger );
+        inOrder.verify( logger ).printData( "good1;" );
+        inOrder.verify( logger ).printError( badLineError );
+        inOrder.verify( logger ).printData( "\ngood2;" );
+        verify( logger, times( 2 ) ).printData( anyString() );
+    }
+
+    @Test
+    public void exportedTotalsOnlyCountStatementsOnceTheyAreCommitted() throws Exception
+    {
+        // given
+        BoltStateHandler boltStateHandler = mock( BoltStateHandler.class );
+        ResultSummary summary = mock( ResultSummary.class );
+        SummaryCounters counters = mock( SummaryCounters.class );
+        when( counters.nodesCreated() ).thenReturn( 1 );
+        when( summary.counters() ).thenReturn( counters );
+        ClientException syntaxError = new ClientException( "Neo.ClientError.Statement.SyntaxError", "Found a bad line" );
+        when( boltStateHandler.isConnected() ).thenReturn( true );
+        when( boltStateHandler.isTransactionOpen() ).thenReturn( false, true );
+        when( boltStateHandler.runCypher( contains( "good" ), anyMap() ) )
+                .thenReturn( Optional.of( new ListBoltResult( Collections.emptyList(), summary ) ) );
+        when( boltStateHandler.runCypher( contains( "bad" ), anyMap() ) ).thenThrow( syntaxError );
+        when( boltStateHandler.handleException( syntaxError ) ).thenReturn( syntaxError );
+        CypherShell shell = new OfflineTestShell( logger, boltStateHandler, mock( PrettyPrinter.class ) );
+        QueryTimer queryTimer = new QueryTimer( null );
+        Path metrics = folder.getRoot().toPath().resolve( "metrics" );
+        MetricsExporter exporter = new MetricsExporter( metrics, MetricsExporter.Format.PROMETHEUS );
+        queryTimer.addListener( exporter );
+        shell.setQueryTimer( queryTimer );
+        String input = "good1;\nbad;\ngood2;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_AT_END, shell, shell,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 10, false );
+
+        // when
+        int code = runner.runUntilEnd();
+        exporter.close();
+
+        // then
+        assertEquals( 1, code );
+        verify( boltStateHandler ).rollbackTransaction();
+        // The batch was rolled back, so only executing its statements one by one counts
+        String text = new String( Files.readAllBytes( metrics ), StandardCharsets.UTF_8 );
+        assertThat( text, containsString( "cypher_shell_statements_total 3\n" ) );
+        assertThat( text, containsString( "cypher_shell_statement_errors_total{code=\"Neo.ClientError.Statement.SyntaxError\"} 1\n" ) );
+        assertThat( text, containsString( "cypher_shell_updates_total{kind=\"nodes_created\"} 2\n" ) );
+    }
+
+    @Test
+    public void commandsCommitTheOpenBatch() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( contains( "good" ) );
+        String input = "good1;\n:param x => 1\ngood2;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_FAST, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 10, false );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 0, code );
+        InOrder inOrder = inOrder( txHandler, cmdExecuter );
+        inOrder.verify( cmdExecuter ).execute( eq( "good1;" ), any( LinePrinter.class ) );
+        inOrder.verify( txHandler ).commitTransaction();
+        inOrder.verify( cmdExecuter ).execute( ":param x => 1\n" );
+        inOrder.verify( cmdExecuter ).execute( contains( "good2;" ), any( LinePrinter.class ) );
+        inOrder.verify( txHandler ).commitTransaction();
+    }
+
+    @Test
+    public void retryTransientExecutesBatchesInManagedTransactions() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        String input = "good1;\ngood2;\ngood3;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_FAST, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 2, true );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 0, code );
+        verify( cmdExecuter ).executeWithRetry( asList( "good1;", "\ngood2;" ) );
+        verify( cmdExecuter ).executeWithRetry( asList( "\ngood3;" ) );
+        verify( cmdExecuter, never() ).execute( anyString() );
+        verify( txHandler, never() ).beginTransaction();
+    }
+
+    @Test
+    public void retryTransientExecutesFailedBatchOneByOne() throws Exception
+    {
+        // given
+        TransactionHandler txHandler = mock( TransactionHandler.class );
+        doReturn( true ).when( cmdExecuter ).isCypher( anyString() );
+        doThrow( badLineError ).when( cmdExecuter ).executeWithRetry( asList( "good1;", "\nbad;" ) );
+        doThrow( badLineError ).when( cmdExecuter ).executeWithRetry( asList( "\nbad;" ) );
+        String input = "good1;\nbad;\n";
+        NonInteractiveShellRunner runner = new NonInteractiveShellRunner(
+                FailBehavior.FAIL_AT_END, cmdExecuter, txHandler,
+                logger, statementParser,
+                new ByteArrayInputStream( input.getBytes() ), 2, true );
+
+        // when
+        int code = runner.runUntilEnd();
+
+        // then
+        assertEquals( 1, code );
+        verify( cmdExecuter ).executeWithRetry( asList( "good1;" ) );
+        verify( logger ).printError( badLineError );
+        // Only the timings of executing the statements one by one count
+        InOrder inOrder = inOrder( cmdExecuter );
+        inOrder.verify( cmdExecuter ).holdTimings();
+        inOrder.verify( cmdExecuter ).executeWithRetry( asList( "good1;", "\nbad;" ) );
+        inOrder.verify( cmdExecuter ).discardTimings();
+        inOrder.verify( cmdExecuter ).executeWithRetry( asList( "good1;" ) );
+    }
+
     @Test
     public void nonInteractiveHasNoHistory() throws Exception
     {
@@ -181,4 +463,18 @@ public class NonInteractiveShellRunnerTest
         // when then
         assertEquals( Historian.empty, runner.getHistorian() );
     }
+
+    private void printStatementsAsResults() throws Exception
+    {
+        doAnswer( invocation ->
+                  {
+                      ((LinePrinter) invocation.getArguments()[1]).printData( (String) invocation.getArguments()[0] );
+                      return null;
+                  } ).when( cmdExecuter ).execute( contains( "good" ), any( LinePrinter.class ) );
+        doAnswer( invocation ->
+                  {
+                      logger.printData( (String) invocation.getArguments()[0] );
+                      return null;
+                  } ).when( cmdExecuter ).execute( contains( "good" ) );
+    }
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.cli;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.driver.QueryRunner;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.shell.CypherShell;
+import org.neo4j.shell.exception.ExitException;
+import org.neo4j.shell.log.Logger;
+import org.neo4j.shell.parser.ShellStatementParser;
+import org.neo4j.shell.prettyprint.LinePrinter;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelShellRunnerTest
+{
+    private final Logger logger = mock( Logger.class );
+    private final CypherShell shell = mock( CypherShell.class );
+    private final Session session = mock( Session.class );
+    private final List<String> output = Collections.synchronizedList( new ArrayList<>() );
+
+    @Before
+    public void setup() throws Exception
+    {
+        when( shell.isCypher( anyString() ) ).thenAnswer( invocation -> !((String) invocation.getArguments()[0]).trim().startsWith( ":" ) );
+        doReturn( session ).when( shell ).openSession();
+        doAnswer( invocation ->
+                  {
+                      String cypher = ((String) invocation.getArguments()[1]).trim();
+                      if ( cypher.contains( "bad" ) )
+                      {
+                          throw new ClientException( "Found a bad line" );
+                      }
+                      if ( cypher.contains( "slow" ) )
+                      {
+                          Thread.sleep( 50 );
+                      }
+                      ((LinePrinter) invocation.getArguments()[2]).printOut( cypher );
+                      return null;
+                  } ).when( shell ).executeCypher( any( QueryRunner.class ), anyString(), any( LinePrinter.class ) );
+        doAnswer( invocation ->
+                  {
+                      output.add( ((String) invocation.getArguments()[0]).trim() );
+                      return null;
+                  } ).when( shell ).execute( anyString() );
+        doAnswer( invocation ->
+                  {
+                      output.add( (String) invocation.getArguments()[0] );
+                      return null;
+                  } ).when( logger ).printOut( anyString() );
+    }
+
+    @Test
+    public void orderedOutputFollowsStatementOrder()
+    {
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for ( int i = 0; i < 50; i++ )
+        {
+            String statement = (i % 3 == 0 ? "slow " : "fast ") + i + ";";
+            input.append( statement ).append( "\n" );
+            expected.add( statement );
+        }
+
+        int code = runner( FailBehavior.FAIL_FAST, input.toString(), true ).runUntilEnd();
+
+        assertEquals( 0, code );
+        assertEquals( expected, output );
+    }
+
+    @Test
+    public void unorderedOutputPrintsEverything()
+    {
+        int code = runner( FailBehavior.FAIL_FAST, "slow 1;\nfast 2;\nfast 3;\n", false ).runUntilEnd();
+
+        assertEquals( 0, code );
+        assertEquals( 3, output.size() );
+        assertThat( output, hasItems( "slow 1;", "fast 2;", "fast 3;" ) );
+    }
+
+    @Test
+    public void commandsWaitForEarlierStatements()
+    {
+        int code = runner( FailBehavior.FAIL_FAST, "slow 1;\nslow 2;\n:param x => 1\nfast 3;\n", false ).runUntilEnd();
+
+        assertEquals( 0, code );
+        assertEquals( ":param x => 1", output.get( 2 ) );
+        assertEquals( "fast 3;", output.get( 3 ) );
+    }
+
+    @Test
+    public void statementsInOpenTransactionAreExecutedByShell() throws Exception
+    {
+        doReturn( true ).when( shell ).isTransactionOpen();
+
+        int code = runner( FailBehavior.FAIL_FAST, "fast 1;\n", true ).runUntilEnd();
+
+        assertEquals( 0, code );
+        verify( shell ).execute( "fast 1;" );
+        verify( shell, never() ).openSession();
+    }
+
+    @Test
+    public void failAtEndReportsLineOfEachError()
+    {
+        int code = runner( FailBehavior.FAIL_AT_END, "good 1;\nbad 2;\n\ngood\n 3;\nbad 4; bad 5;\n", true ).runUntilEnd();
+
+        assertEquals( 1, code );
+        verify( logger ).printError( "Error in statement starting on line 2:" );
+        verify( logger, times( 2 ) ).printError( "Error in statement starting on line 6:" );
+        assertEquals( asList( "good 1;", "good\n 3;" ), output );
+    }
+
+    @Test
+    public void failFastStopsAtFirstError() throws Exception
+    {
+        int code = runner( FailBehavior.FAIL_FAST, "bad 1;\n:param x => 1\ngood 2;\n", true ).runUntilEnd();
+
+        assertEquals( 1, code );
+        verify( logger ).printError( "Error in statement starting on line 1:" );
+        verify( shell, never() ).execute( anyString() );
+    }
+
+    @Test
+    public void exitCommandIsFatal() throws Exception
+    {
+        doThrow( new ExitException( 42 ) ).when( shell ).execute( startsWith( ":exit" ) );
+
+        int code = runner( FailBehavior.FAIL_AT_END, "good 1;\n:exit\ngood 2;\n", true ).runUntilEnd();
+
+        assertEquals( 42, code );
+        assertEquals( asList( "good 1;" ), output );
+    }
+
+    @Test
+    public void resultDataIsKeptApartFromMessages() throws Exception
+    {
+        doAnswer( invocation ->
+                  {
+                      ((LinePrinter) invocation.getArguments()[2]).printData( "@|row|@" );
+                      ((LinePrinter) invocation.getArguments()[2]).printOut( "message" );
+                      return null;
+                  } ).when( shell ).executeCypher( any( QueryRunner.class ), anyString(), any( LinePrinter.class ) );
+
+        int code = runner( FailBehavior.FAIL_FAST, "good 1;\n", true ).runUntilEnd();
+
+        assertEquals( 0, code );
+        verify( logger ).printData( "@|row|@" );
+        verify( logger ).printOut( "message" );
+    }
+
+    @Test
+    public void sessionsAreClosedAtEnd()
+    {
+        runner( FailBehavior.FAIL_FAST, "good 1;\ngood 2;\n", true ).runUntilEnd();
+
+        verify( session, atLeastOnce() ).close();
+    }
+
+    @Test
+    public void batchesAreExecutedInTransactions() throws Exception
+    {
+        Transaction tx = mock( Transaction.class );
+        doReturn( tx ).when( session ).beginTransaction();
+
+        int code = runner( FailBehavior.FAIL_FAST, "good 1;\ngood 2;\ngood 3;\n", true, 2 ).runUntilEnd();
+
+        assertEquals( 0, code );
+        assertEquals( asList( "good 1;", "good 2;", "good 3;" ), output );
+        verify( shell ).executeCypher( eq( tx ), eq( "good 1;" ), any( LinePrinter.class ) );
+        verify( shell ).executeCypher( eq( tx ), eq( "\ngood 2;" ), any( LinePrinter.class ) );
+        verify( shell ).executeCypher( eq( session ), eq( "\ngood 3;" ), any( LinePrinter.class ) );
+        verify( tx ).commit();
+    }
+
+    @Test
+    public void failedBatchIsRetriedOneByOne() throws Exception
+    {
+        doReturn( mock( Transaction.class ) ).when( session ).beginTransaction();
+
+        int code = runner( FailBehavior.FAIL_AT_END, "good 1;\nbad 2;\ngood 3;\n", true, 3 ).runUntilEnd();
+
+        assertEquals( 1, code );
+        assertEquals( asList( "good 1;", "good 3;" ), output );
+        verify( logger ).printError( "Error in statement starting on line 2:" );
+    }
+
+    @Test
+    public void failFastStopsAtFirstErrorOfFailedBatch() throws Exception
+    {
+        doReturn( mock( Transaction.class ) ).when( session ).beginTransaction();
+
+        int code = runner( FailBehavior.FAIL_FAST, "good 1;\nbad 2;\ngood 3;\n", true, 3 ).runUntilEnd();
+
+        assertEquals( 1, code );
+        assertEquals( asList( "good 1;" ), output );
+        verify( logger ).printError( "Error in statement starting on line 2:" );
+        verify( shell, never() ).executeCypher( eq( session ), eq( "\ngood 3;" ), any( LinePrinter.class ) );
+    }
+
+    @Test
+    public void retryTransientExecutesBatchesInManagedTransactions()
+    {
+        doAnswer( invocation ->
+                  {
+                      @SuppressWarnings( "unchecked" )
+                      List<String> statements = (List<String>) invocation.getArguments()[1];
+                      if ( statements.stream().anyMatch( statement -> statement.contains( "bad" ) ) )
+                      {
+                          throw new ClientException( "Found a bad line" );
+                      }
+                      statements.forEach( statement -> ((LinePrinter) invocation.getArguments()[2]).printOut( statement.trim() ) );
+                      return null;
+                  } ).when( shell ).executeCypherWithRetry( any( Session.class ), anyListOf( String.class ), any( LinePrinter.class ) );
+
+        int code = runner( FailBehavior.FAIL_AT_END, "good 1;\ngood 2;\ngood 3;\nbad 4;\n", true, 2, true ).runUntilEnd();
+
+        assertEquals( 1, code );
+        assertEquals( asList( "good 1;", "good 2;", "good 3;" ), output );
+        verify( shell ).executeCypherWithRetry( eq( session ), eq( asList( "good 1;", "\ngood 2;" ) ), any( LinePrinter.class ) );
+        verify( shell ).executeCypherWithRetry( eq( session ), eq( asList( "\ngood 3;" ) ), any( LinePrinter.class ) );
+        verify( logger ).printError( "Error in statement starting on line 4:" );
+        verify( session, never() ).beginTransaction();
+    }
+
+    private ParallelShellRunner runner( FailBehavior failBehavior, String input, boolean orderedOutput )
+    {
+        return runner( failBehavior, input, orderedOutput, 1, false );
+    }
+
+    private ParallelShellRunner runner( FailBehavior failBehavior, String input, boolean orderedOutput, int batchSize )
+    {
+        return runner( failBehavior, input, orderedOutput, batchSize, false );
+    }
+
+    private ParallelShellRunner runner( FailBehavior failBehavior, String input, boolean orderedOutput, int batchSize, boolean retryTransient )
+    {
+        return new ParallelShellRunner( failBehavior, shell, logger, new ShellStatementParser(),
+                                        new ByteArrayInputStream( input.getBytes() ), 4, orderedOutput, batchSize, retryTransient );
+    }
+}
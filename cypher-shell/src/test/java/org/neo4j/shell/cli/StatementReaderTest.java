@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.cli;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+
+import org.neo4j.shell.parser.ShellStatementParser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StatementReaderTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsAllStatementsInOrderThroughSmallLookAhead() throws Exception
+    {
+        StringBuilder input = new StringBuilder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            input.append( "RETURN " ).append( i ).append( ";\n" );
+        }
+
+        try ( StatementReader reader = new StatementReader( new ShellStatementParser(), stream( input.toString() ), 1 ) )
+        {
+            reader.start();
+            assertEquals( "RETURN 0;", reader.nextStatement() );
+            for ( int i = 1; i < 100; i++ )
+            {
+                assertEquals( "\nRETURN " + i + ";", reader.nextStatement() );
+            }
+            assertNull( reader.nextStatement() );
+            assertNull( reader.nextStatement() );
+            assertNull( reader.failure() );
+        }
+    }
+
+    @Test
+    public void readsSeveralStatementsOnOneLine() throws Exception
+    {
+        try ( StatementReader reader = new StatementReader( new ShellStatementParser(), stream( "a; b;\nc;\n" ), 1 ) )
+        {
+            reader.start();
+            assertEquals( "a;", reader.nextStatement() );
+            assertEquals( " b;", reader.nextStatement() );
+            assertEquals( "\nc;", reader.nextStatement() );
+            assertNull( reader.nextStatement() );
+        }
+    }
+
+    @Test
+    public void tracksLineStatementsStartOn() throws Exception
+    {
+        String input = "a;\n" +
+                       "\n" +
+                       "b\n" +
+                       "c; d\n" +
+                       "e;\n" +
+                       ":help\n";
+        try ( StatementReader reader = new StatementReader( new ShellStatementParser(), stream( input ), 1 ) )
+        {
+            reader.start();
+            assertEquals( "a;", reader.nextStatement() );
+            assertEquals( 1, reader.lineNumber() );
+            assertEquals( "\n\nb\nc;", reader.nextStatement() );
+            assertEquals( 3, reader.lineNumber() );
+            assertEquals( " d\ne;", reader.nextStatement() );
+            assertEquals( 4, reader.lineNumber() );
+            assertEquals( ":help\n", reader.nextStatement() );
+            assertEquals( 6, reader.lineNumber() );
+            assertNull( reader.nextStatement() );
+        }
+    }
+
+    @Test
+    public void splitsFilesWithTheSameLineNumbers() throws Exception
+    {
+        File file = folder.newFile();
+        Files.write( file.toPath(), "a;\n\nb // c;\nc; d\r\ne;\n:help\n".getBytes() );
+
+        try ( StatementReader reader = new StatementReader( new ShellStatementParser(), new FileInputStream( file ), 1 ) )
+        {
+            reader.start();
+            assertEquals( "a;", reader.nextStatement() );
+            assertEquals( 1, reader.lineNumber() );
+            assertEquals( "\n\nb c;", reader.nextStatement() );
+            assertEquals( 3, reader.lineNumber() );
+            assertEquals( " d\ne;", reader.nextStatement() );
+            assertEquals( 4, reader.lineNumber() );
+            assertEquals( ":help\n", reader.nextStatement() );
+            assertEquals( 6, reader.lineNumber() );
+            assertNull( reader.nextStatement() );
+            assertNull( reader.failure() );
+        }
+    }
+
+    @Test
+    public void reportsFailureAfterStatementsReadBeforeIt() throws Exception
+    {
+        IOException readError = new IOException( "Stream closed" );
+        InputStream input = new SequenceInputStream( stream( "a;\n" ), new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                throw readError;
+            }
+        } );
+
+        try ( StatementReader reader = new StatementReader( new ShellStatementParser(), input, 1 ) )
+        {
+            reader.start();
+            assertEquals( "a;", reader.nextStatement() );
+            assertNull( reader.nextStatement() );
+            assertSame( readError, reader.failure() );
+        }
+    }
+
+    private static InputStream stream( String input )
+    {
+        return new ByteArrayInputStream( input.getBytes() );
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.commands;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.neo4j.shell.ConnectionConfig;
+import org.neo4j.shell.ConnectionSetting;
+import org.neo4j.shell.CypherShell;
+import org.neo4j.shell.cli.Encryption;
+import org.neo4j.shell.exception.CommandException;
+import org.neo4j.shell.log.Logger;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConfigTest
+{
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private Logger logger;
+    private CypherShell shell;
+    private ConnectionConfig connectionConfig;
+    private Config cmd;
+
+    @Before
+    public void setup()
+    {
+        logger = mock( Logger.class );
+        shell = mock( CypherShell.class );
+        connectionConfig = new ConnectionConfig( "bolt", "localhost", 7687, "", "", Encryption.DEFAULT, "" );
+        connectionConfig.setFetchSize( 500 );
+        when( shell.getConnectionConfig() ).thenReturn( connectionConfig );
+        cmd = new Config( logger, shell );
+    }
+
+    @Test
+    public void helpNotNull()
+    {
+        assertNotNull( cmd.getDescription() );
+        assertNotNull( cmd.getUsage() );
+        assertNotNull( cmd.getHelp() );
+    }
+
+    @Test
+    public void listsAllSettings() throws CommandException
+    {
+        cmd.execute( "" );
+
+        verify( logger ).printOut( ":config fetch-size                     => 500" );
+        verify( logger ).printOut( ":config max-connection-pool-size       => " + ConnectionConfig.DEFAULT_MAX_CONNECTION_POOL_SIZE );
+    }
+
+    @Test
+    public void showsOneSetting() throws CommandException
+    {
+        cmd.execute( "fetch-size" );
+
+        verify( logger ).printOut( ":config fetch-size => 500" );
+    }
+
+    @Test
+    public void changesSetting() throws CommandException
+    {
+        cmd.execute( "fetch-size 2000" );
+
+        verify( shell ).reconfigure( ConnectionSetting.FETCH_SIZE, 2000 );
+    }
+
+    @Test
+    public void rejectsUnknownSetting() throws CommandException
+    {
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( containsString( "Unknown setting: batch-size" ) );
+
+        cmd.execute( "batch-size 2" );
+    }
+
+    @Test
+    public void rejectsNonPositiveValue() throws CommandException
+    {
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( containsString( "Expected a positive integer" ) );
+
+        try
+        {
+            cmd.execute( "fetch-size 0" );
+        }
+        finally
+        {
+            verify( shell, never() ).reconfigure( anyObject(), anyInt() );
+        }
+    }
+
+    @Test
+    public void failsWhenNotConnected() throws CommandException
+    {
+        when( shell.getConnectionConfig() ).thenReturn( null );
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( containsString( "Not connected" ) );
+
+        cmd.execute( "" );
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.commands;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.neo4j.shell.exception.CommandException;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+public class ParsedFileCacheTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private int parsed;
+
+    @Test
+    public void parsesUnchangedFileOnce() throws Exception
+    {
+        // given
+        ParsedFileCache cache = new ParsedFileCache( 100 );
+        Path file = write( "a.cypher", "RETURN 1;" );
+
+        // when
+        get( cache, file );
+        List<String> statements = get( cache, file.getParent().resolve( "." ).resolve( "a.cypher" ) );
+
+        // then
+        assertEquals( singletonList( "RETURN 1;" ), statements );
+        assertEquals( 1, parsed );
+    }
+
+    @Test
+    public void parsesChangedFileAgain() throws Exception
+    {
+        // given
+        ParsedFileCache cache = new ParsedFileCache( 100 );
+        Path file = write( "a.cypher", "RETURN 1;" );
+        get( cache, file );
+
+        // when
+        Files.write( file, "RETURN 2;".getBytes() );
+        Files.setLastModifiedTime( file, FileTime.fromMillis( Files.getLastModifiedTime( file ).toMillis() + 1000 ) );
+
+        // then
+        assertEquals( singletonList( "RETURN 2;" ), get( cache, file ) );
+        assertEquals( 2, parsed );
+        assertEquals( singletonList( "RETURN 2;" ), get( cache, file ) );
+        assertEquals( 2, parsed );
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFiles() throws Exception
+    {
+        // given room for two files of 9 characters
+        ParsedFileCache cache = new ParsedFileCache( 20 );
+        Path a = write( "a.cypher", "RETURN 1;" );
+        Path b = write( "b.cypher", "RETURN 2;" );
+        Path c = write( "c.cypher", "RETURN 3;" );
+        get( cache, a );
+        get( cache, b );
+        get( cache, a );
+
+        // when
+        get( cache, c );
+
+        // then b is evicted, as a was used more recently
+        get( cache, a );
+        assertEquals( 3, parsed );
+        get( cache, b );
+        assertEquals( 4, parsed );
+    }
+
+    @Test
+    public void doesNotCacheFilesLargerThanTheBound() throws Exception
+    {
+        // given
+        ParsedFileCache cache = new ParsedFileCache( 10 );
+        Path file = write( "a.cypher", "RETURN 1;\nRETURN 2;" );
+
+        // when
+        get( cache, file );
+        List<String> statements = get( cache, file );
+
+        // then
+        assertEquals( asList( "RETURN 1;", "RETURN 2;" ), statements );
+        assertEquals( 2, parsed );
+    }
+
+    private List<String> get( ParsedFileCache cache, Path file ) throws IOException, CommandException
+    {
+        return cache.get( file, () ->
+        {
+            // One statement per line is all these tests need
+            parsed++;
+            return asList( new String( Files.readAllBytes( file ) ).split( "\n" ) );
+        } );
+    }
+
+    private Path write( String name, String content ) throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve( name );
+        Files.write( file, content.getBytes() );
+        return file;
+    }
+}
@@ -23,8 +23,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
 
 import org.neo4j.shell.CypherShell;
 import org.neo4j.shell.exception.CommandException;
@@ -35,6 +39,7 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.isA;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -42,6 +47,8 @@ public class SourceTest
 {
     @Rule
     public final ExpectedException thrown = ExpectedException.none();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
 
     private Logger logger;
     private Source cmd;
@@ -82,6 +89,26 @@ public class SourceTest
         verifyNoMoreInteractions( shell );
     }
 
+    @Test
+    public void runsChangedFileAgain() throws Exception
+    {
+        // given
+        File file = folder.newFile( "script.cypher" );
+        Files.write( file.toPath(), "RETURN 1;\n".getBytes() );
+        cmd.execute( file.getPath() );
+        cmd.execute( file.getPath() );
+
+        // when
+        Files.write( file.toPath(), "RETURN 2;\n".getBytes() );
+        Files.setLastModifiedTime( file.toPath(), FileTime.fromMillis( file.lastModified() + 1000 ) );
+        cmd.execute( file.getPath() );
+
+        // then
+        verify( shell, times( 2 ) ).execute( "RETURN 1;" );
+        verify( shell ).execute( "RETURN 2;" );
+        verifyNoMoreInteractions( shell );
+    }
+
     @Test
     public void shouldFailIfFileNotThere() throws CommandException
     {
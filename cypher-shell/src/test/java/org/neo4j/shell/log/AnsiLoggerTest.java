@@ -96,6 +96,13 @@ public class AnsiLoggerTest
         verify( out ).println( "sob" );
     }
 
+    @Test
+    public void printDataDoesNotRenderAnsiMarkup() throws Exception
+    {
+        logger.printData( "@|bold data|@" );
+        verify( out ).println( "@|bold data|@" );
+    }
+
     @Test
     public void printOutManyShouldNotBuildState() throws Exception
     {
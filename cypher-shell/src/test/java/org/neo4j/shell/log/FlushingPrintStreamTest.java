@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.log;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.shell.prettyprint.OutputFormatter.NEWLINE;
+
+public class FlushingPrintStreamTest
+{
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    @Test
+    public void recordPolicyFlushesEveryGivenNumberOfLines()
+    {
+        FlushingPrintStream out = new FlushingPrintStream( written, FlushPolicy.RECORD, 2 );
+
+        out.printData( "a" );
+        assertEquals( "", written.toString() );
+        out.printData( "b" );
+        assertEquals( "a" + NEWLINE + "b" + NEWLINE, written.toString() );
+        out.printData( "c" );
+        assertEquals( "a" + NEWLINE + "b" + NEWLINE, written.toString() );
+        out.endOfStatement();
+        assertEquals( "a" + NEWLINE + "b" + NEWLINE + "c" + NEWLINE, written.toString() );
+    }
+
+    @Test
+    public void recordPolicyOnlyCountsResultData()
+    {
+        FlushingPrintStream out = new FlushingPrintStream( written, FlushPolicy.RECORD, 2 );
+
+        out.println( "message" );
+        out.printData( "a" );
+        out.println( "message" );
+        assertEquals( "", written.toString() );
+        out.printData( "b" );
+        assertEquals( "message" + NEWLINE + "a" + NEWLINE + "message" + NEWLINE + "b" + NEWLINE, written.toString() );
+        out.println( "summary" );
+        out.endOfStatement();
+        assertEquals( "message" + NEWLINE + "a" + NEWLINE + "message" + NEWLINE + "b" + NEWLINE + "summary" + NEWLINE, written.toString() );
+    }
+
+    @Test
+    public void statementPolicyFlushesAtEndOfStatement()
+    {
+        FlushingPrintStream out = new FlushingPrintStream( written, FlushPolicy.STATEMENT, 1 );
+
+        out.println( "a" );
+        out.println( "b" );
+        assertEquals( "", written.toString() );
+        out.endOfStatement();
+        assertEquals( "a" + NEWLINE + "b" + NEWLINE, written.toString() );
+    }
+
+    @Test
+    public void idlePolicyFlushesWhenNothingIsPrinted() throws Exception
+    {
+        FlushingPrintStream out = new FlushingPrintStream( written, FlushPolicy.IDLE, 1 );
+        try
+        {
+            out.println( "a" );
+            out.endOfStatement();
+            assertEquals( "", written.toString() );
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ( written.size() == 0 && System.currentTimeMillis() < deadline )
+            {
+                Thread.sleep( FlushingPrintStream.IDLE_MILLIS );
+            }
+            assertEquals( "a" + NEWLINE, written.toString() );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
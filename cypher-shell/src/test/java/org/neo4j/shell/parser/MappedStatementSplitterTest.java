@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedStatementSplitterTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void splitsLikeParsingLineByLine() throws Exception
+    {
+        String script = "  :param x => 1\n" +
+                        "MATCH (n) // comment;\n" +
+                        "WHERE n.name = 'a;b' /* block\n" +
+                        " comment; */ AND n.`c;` = \"\\\"\"\n" +
+                        "RETURN n; RETURN /*/ 1;\r\n" +
+                        "RETURN 'caf\u00e9' \\; 2;\r" +
+                        ":exit\n" +
+                        "RETURN 3";
+
+        assertEquals( parseLineByLine( script ), split( script, 1 << 20 ) );
+    }
+
+    @Test
+    public void splitsAcrossWindows() throws Exception
+    {
+        StringBuilder script = new StringBuilder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            script.append( "RETURN '" ).append( i ).append( ";' /* " ).append( i ).append( " */;" ).append( i % 2 == 0 ? "\r\n" : "\n" );
+        }
+
+        assertEquals( parseLineByLine( script.toString() ), split( script.toString(), 32 ) );
+    }
+
+    @Test
+    public void reportsLinesStatementsStartAndEndOn() throws Exception
+    {
+        List<String> lines = new ArrayList<>();
+        try ( FileChannel channel = FileChannel.open( write( "a;\n\nb\nc; d\ne;\n:help\n" ) ) )
+        {
+            new MappedStatementSplitter( StandardCharsets.UTF_8 ).split( channel, ( statements, firstLineNumber, lineNumber ) ->
+                    lines.add( statements + "@" + firstLineNumber + "-" + lineNumber ) );
+        }
+
+        assertEquals( asList( "[a;]@1-1", "[\n\nb\nc;]@3-4", "[ d\ne;]@4-5", "[:help\n]@6-6" ), lines );
+    }
+
+    @Test
+    public void startsAtThePositionOfTheChannel() throws Exception
+    {
+        List<String> statements = new ArrayList<>();
+        try ( FileChannel channel = FileChannel.open( write( "a;\nb;\n" ) ) )
+        {
+            channel.position( 3 );
+            new MappedStatementSplitter( StandardCharsets.UTF_8 ).split( channel, ( completed, firstLineNumber, lineNumber ) ->
+                    statements.addAll( completed ) );
+        }
+
+        assertEquals( asList( "b;" ), statements );
+    }
+
+    @Test
+    public void failsOnLinesLongerThanTheWindow() throws Exception
+    {
+        thrown.expect( IOException.class );
+        thrown.expectMessage( "Line 2 is longer than the maximum supported length of 8 bytes" );
+
+        split( "a;\nRETURN 1234567890;\n", 8 );
+    }
+
+    @Test
+    public void supportsOnlyAsciiCompatibleCharsets()
+    {
+        assertTrue( MappedStatementSplitter.supports( StandardCharsets.UTF_8 ) );
+        assertTrue( MappedStatementSplitter.supports( StandardCharsets.ISO_8859_1 ) );
+        assertFalse( MappedStatementSplitter.supports( StandardCharsets.UTF_16 ) );
+    }
+
+    private List<String> split( String script, int windowSize ) throws IOException, InterruptedException
+    {
+        List<String> statements = new ArrayList<>();
+        try ( FileChannel channel = FileChannel.open( write( script ) ) )
+        {
+            new MappedStatementSplitter( StandardCharsets.UTF_8, windowSize ).split( channel, ( completed, firstLineNumber, lineNumber ) ->
+                    statements.addAll( completed ) );
+        }
+        return statements;
+    }
+
+    private static List<String> parseLineByLine( String script )
+    {
+        ShellStatementParser parser = new ShellStatementParser();
+        for ( String line : script.split( "\r\n|\r|\n" ) )
+        {
+            parser.parseMoreText( line + "\n" );
+        }
+        return parser.consumeStatements();
+    }
+
+    private Path write( String script ) throws IOException
+    {
+        Path file = folder.newFile().toPath();
+        Files.write( file, script.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelStatementSplitterTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void splitsLikeASingleThread() throws Exception
+    {
+        StringBuilder script = new StringBuilder();
+        for ( int i = 0; i < 50; i++ )
+        {
+            script.append( ":param x => " ).append( i ).append( "\n" )
+                  .append( "CREATE ({name: 'a;\n" )
+                  .append( "b', `c;`: \"\\\";\"}) /* comment;\r\n" )
+                  .append( "comment; */ // comment;\n" )
+                  .append( "\n" )
+                  .append( "  ;" ).append( i ).append( ";\r" );
+        }
+        Path file = write( script.toString() );
+
+        List<String> expected = split( file, 0 );
+        for ( int chunkSize : new int[]{1, 7, 30, 100, 1000} )
+        {
+            assertEquals( "chunk size " + chunkSize, expected, split( file, chunkSize ) );
+        }
+    }
+
+    @Test
+    public void splitsOnlyAFewChunksAheadWithManyThreads() throws Exception
+    {
+        StringBuilder script = new StringBuilder();
+        for ( int i = 0; i < 200; i++ )
+        {
+            script.append( "RETURN '" ).append( i ).append( ";\n' /* ; */;\n" );
+        }
+        Path file = write( script.toString() );
+
+        assertEquals( split( file, 0 ), split( file, 10, 16 ) );
+    }
+
+    @Test
+    public void stitchesStatementsSpanningManyChunks() throws Exception
+    {
+        Path file = write( "RETURN 1;\n  \n  \nRETURN\n'\n;\n;\n'\n/*\n;\n*/\n;\n:exit\n" );
+
+        List<String> expected = split( file, 0 );
+        assertEquals( "[RETURN 1;]@1-1", expected.get( 0 ) );
+        assertEquals( "[\n  \n  \nRETURN\n'\n;\n;\n'\n\n;]@4-12", expected.get( 1 ) );
+        assertEquals( "[:exit\n]@13-13", expected.get( 2 ) );
+        assertEquals( expected, split( file, 2 ) );
+    }
+
+    private List<String> split( Path file, int chunkSize ) throws IOException, InterruptedException
+    {
+        return split( file, chunkSize, 3 );
+    }
+
+    private List<String> split( Path file, int chunkSize, int threads ) throws IOException, InterruptedException
+    {
+        List<String> lines = new ArrayList<>();
+        MappedStatementSplitter.Listener listener = ( statements, firstLineNumber, lineNumber ) ->
+                lines.add( statements + "@" + firstLineNumber + "-" + lineNumber );
+        try ( FileChannel channel = FileChannel.open( file ) )
+        {
+            if ( chunkSize == 0 )
+            {
+                new MappedStatementSplitter( StandardCharsets.UTF_8 ).split( channel, listener );
+            }
+            else
+            {
+                new ParallelStatementSplitter( StandardCharsets.UTF_8, threads, chunkSize ).split( channel, listener );
+            }
+        }
+        return lines;
+    }
+
+    private Path write( String script ) throws IOException
+    {
+        Path file = folder.newFile().toPath();
+        Files.write( file, script.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+}
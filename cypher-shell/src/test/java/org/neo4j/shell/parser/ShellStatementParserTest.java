@@ -456,4 +456,54 @@ public class ShellStatementParserTest
         assertEquals( 0, parser.consumeStatements().size() );
         assertFalse( parser.containsText() );
     }
+
+    @Test
+    public void commentSpanningLinesIsDropped() throws Exception
+    {
+        // when
+        parser.parseMoreText( "MATCH (n) /* a\n" );
+        assertTrue( parser.containsText() );
+        parser.parseMoreText( ":not a command */\n" );
+        parser.parseMoreText( "RETURN n;\n" );
+
+        // then
+        List<String> statements = parser.consumeStatements();
+
+        assertEquals( 1, statements.size() );
+        assertEquals( "MATCH (n) \nRETURN n;", statements.get( 0 ) );
+        assertFalse( parser.containsText() );
+    }
+
+    @Test
+    public void commentStartingWithEndOfBlockComment() throws Exception
+    {
+        // when
+        parser.parseMoreText( "RETURN /*/ 1;\n" );
+        parser.parseMoreText( "RETURN /* 2 */* 3 */ 4;\n" );
+        parser.parseMoreText( "RETURN /* 5 *//comment;\n" );
+        parser.parseMoreText( "6;\n" );
+
+        // then
+        List<String> statements = parser.consumeStatements();
+
+        assertEquals( 3, statements.size() );
+        assertEquals( "RETURN  1;", statements.get( 0 ) );
+        assertEquals( "\nRETURN  4;", statements.get( 1 ) );
+        assertEquals( "\nRETURN 6;", statements.get( 2 ) );
+        assertFalse( parser.containsText() );
+    }
+
+    @Test
+    public void escapedSlashStillStartsComment() throws Exception
+    {
+        // when
+        parser.parseMoreText( "RETURN 1 \\//;\n" );
+        parser.parseMoreText( ";" );
+
+        // then
+        List<String> statements = parser.consumeStatements();
+
+        assertEquals( 1, statements.size() );
+        assertEquals( "RETURN 1 \\;", statements.get( 0 ) );
+    }
 }
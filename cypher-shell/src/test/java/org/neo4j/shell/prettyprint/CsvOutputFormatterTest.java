@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.shell.cli.Format;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.state.ListBoltResult;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.shell.prettyprint.OutputFormatter.NEWLINE;
+
+public class CsvOutputFormatterTest
+{
+    private final PrettyPrinter csvPrinter = new PrettyPrinter( new PrettyConfig( Format.CSV, false, 100 ) );
+
+    @Test
+    public void printsHeaderAndRecords()
+    {
+        // given
+        BoltResult result = result( asList( "name", "age", "nothing" ),
+                                    new Value[] {Values.value( "Alice" ), Values.value( 42 ), Values.NULL},
+                                    new Value[] {Values.value( "Bob" ), Values.value( 7 ), Values.NULL} );
+
+        // when
+        String actual = format( csvPrinter, result );
+
+        // then
+        assertEquals( "name,age,nothing" + NEWLINE +
+                      "Alice,42," + NEWLINE +
+                      "Bob,7," + NEWLINE, actual );
+    }
+
+    @Test
+    public void quotesFieldsAccordingToRfc4180()
+    {
+        // given
+        BoltResult result = result( asList( "a,b", "text" ),
+                                    new Value[] {Values.value( "x,y" ), Values.value( "say \"hi\"" )},
+                                    new Value[] {Values.value( "line1\nline2" ), Values.value( "" )} );
+
+        // when
+        String actual = format( csvPrinter, result );
+
+        // then
+        assertEquals( "\"a,b\",text" + NEWLINE +
+                      "\"x,y\",\"say \"\"hi\"\"\"" + NEWLINE +
+                      "\"line1\nline2\"," + NEWLINE, actual );
+    }
+
+    @Test
+    public void usesConfiguredDelimiter()
+    {
+        // given
+        PrettyPrinter printer = new PrettyPrinter( new PrettyConfig( Format.CSV, false, 100, false, ';' ) );
+        BoltResult result = result( asList( "list", "text" ),
+                                    new Value[] {Values.value( asList( 1, 2 ) ), Values.value( "a;b,c" )} );
+
+        // when
+        String actual = format( printer, result );
+
+        // then
+        assertEquals( "list;text" + NEWLINE +
+                      "[1, 2];\"a;b,c\"" + NEWLINE, actual );
+    }
+
+    @Test
+    public void printsNothingWithoutColumns()
+    {
+        // given
+        BoltResult result = new ListBoltResult( Collections.emptyList(), mock( ResultSummary.class ) );
+
+        // when
+        String actual = format( csvPrinter, result );
+
+        // then
+        assertEquals( "", actual );
+    }
+
+    private static BoltResult result( List<String> keys, Value[]... rows )
+    {
+        Record[] records = new Record[rows.length];
+        for ( int i = 0; i < rows.length; i++ )
+        {
+            records[i] = new InternalRecord( keys, rows[i] );
+        }
+        return new ListBoltResult( asList( records ), mock( ResultSummary.class ), keys );
+    }
+
+    private static String format( PrettyPrinter printer, BoltResult result )
+    {
+        ToStringLinePrinter linePrinter = new ToStringLinePrinter();
+        printer.format( result, linePrinter );
+        return linePrinter.result();
+    }
+}
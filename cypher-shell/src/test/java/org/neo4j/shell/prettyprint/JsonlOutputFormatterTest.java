@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.shell.cli.Format;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.state.ListBoltResult;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.shell.prettyprint.OutputFormatter.NEWLINE;
+
+public class JsonlOutputFormatterTest
+{
+    private final PrettyPrinter jsonlPrinter = new PrettyPrinter( new PrettyConfig( Format.JSONL, false, 100 ) );
+
+    @Test
+    public void printsOneObjectPerRecord()
+    {
+        // given
+        List<String> keys = asList( "name", "age", "score", "active", "nothing" );
+        BoltResult result = result( keys,
+                                    new Value[] {Values.value( "Alice" ), Values.value( 42 ), Values.value( 1.5 ), Values.value( true ), Values.NULL},
+                                    new Value[] {Values.value( "Bob" ), Values.value( 7 ), Values.value( Double.NaN ), Values.value( false ), Values.NULL} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        assertEquals( "{\"name\":\"Alice\",\"age\":42,\"score\":1.5,\"active\":true,\"nothing\":null}" + NEWLINE +
+                      "{\"name\":\"Bob\",\"age\":7,\"score\":\"NaN\",\"active\":false,\"nothing\":null}" + NEWLINE, actual );
+    }
+
+    @Test
+    public void escapesStrings()
+    {
+        // given
+        BoltResult result = result( singletonList( "quote\"key" ), new Value[] {Values.value( "line1\nline2\t\\ \u0001" )} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        assertEquals( "{\"quote\\\"key\":\"line1\\nline2\\t\\\\ \\u0001\"}" + NEWLINE, actual );
+    }
+
+    @Test
+    public void encodesNestedValues()
+    {
+        // given
+        Map<String, Object> map = Collections.singletonMap( "list", asList( 1L, "two" ) );
+        BoltResult result = result( asList( "map", "point", "date", "duration", "bytes" ),
+                                    new Value[] {Values.value( map ), Values.point( 7203, 1.0, 2.5 ), Values.value( LocalDate.of( 2020, 1, 31 ) ),
+                                                 Values.isoDuration( 1, 2, 3, 0 ), Values.value( new byte[] {1, -2} )} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        assertEquals( "{\"map\":{\"list\":[1,\"two\"]},\"point\":{\"srid\":7203,\"x\":1.0,\"y\":2.5},\"date\":\"2020-01-31\"," +
+                      "\"duration\":\"P1M2DT3S\",\"bytes\":[1,-2]}" + NEWLINE, actual );
+    }
+
+    @Test
+    public void encodesTemporalValuesAsIso8601()
+    {
+        // given
+        LocalTime tenOClock = LocalTime.of( 10, 0 );
+        BoltResult result = result( asList( "localTime", "time", "localDateTime", "offsetDateTime", "zonedDateTime" ),
+                                    new Value[] {Values.value( LocalTime.of( 10, 0, 0, 1_500_000 ) ),
+                                                 Values.value( OffsetTime.of( tenOClock, ZoneOffset.UTC ) ),
+                                                 Values.value( LocalDateTime.of( LocalDate.of( 2020, 6, 15 ), tenOClock ) ),
+                                                 Values.value( ZonedDateTime.of( LocalDate.of( 2020, 6, 15 ), tenOClock, ZoneOffset.ofHours( -5 ) ) ),
+                                                 Values.value( ZonedDateTime.of( LocalDate.of( 2020, 6, 15 ), tenOClock, ZoneId.of( "Europe/Stockholm" ) ) )} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        assertEquals( "{\"localTime\":\"10:00:00.0015\",\"time\":\"10:00:00Z\",\"localDateTime\":\"2020-06-15T10:00:00\"," +
+                      "\"offsetDateTime\":\"2020-06-15T10:00:00-05:00\",\"zonedDateTime\":\"2020-06-15T10:00:00+02:00[Europe/Stockholm]\"}" + NEWLINE,
+                      actual );
+    }
+
+    @Test
+    public void encodesDurationsLikeCypher()
+    {
+        // given
+        BoltResult result = result( asList( "duration", "fraction", "negative", "zero" ),
+                                    new Value[] {Values.isoDuration( 14, 16, 90061, 0 ), Values.isoDuration( 0, 0, 3, 500_000_000 ),
+                                                 Values.isoDuration( -1, 0, -1, 0 ), Values.isoDuration( 0, 0, 0, 0 )} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        assertEquals( "{\"duration\":\"P14M16DT90061S\",\"fraction\":\"P0M0DT3.500000000S\",\"negative\":\"P-1M0DT-1S\",\"zero\":\"P0M0DT0S\"}" +
+                      NEWLINE, actual );
+    }
+
+    @Test
+    public void encodesGraphEntities()
+    {
+        // given
+        InternalNode start = new InternalNode( 1, singletonList( "Person" ), singletonMap( "name", Values.value( "Alice" ) ) );
+        InternalNode end = new InternalNode( 2, Collections.emptyList(), Collections.emptyMap() );
+        InternalRelationship knows = new InternalRelationship( 3, 1, 2, "KNOWS", singletonMap( "since", Values.value( 2000 ) ) );
+        BoltResult result = result( asList( "n", "r", "p" ),
+                                    new Value[] {Values.value( start ), Values.value( knows ), Values.value( new InternalPath( start, knows, end ) )} );
+
+        // when
+        String actual = format( result );
+
+        // then
+        String node1 = "{\"id\":1,\"labels\":[\"Person\"],\"properties\":{\"name\":\"Alice\"}}";
+        String node2 = "{\"id\":2,\"labels\":[],\"properties\":{}}";
+        String relationship = "{\"id\":3,\"type\":\"KNOWS\",\"startNodeId\":1,\"endNodeId\":2,\"properties\":{\"since\":2000}}";
+        assertEquals( "{\"n\":" + node1 + ",\"r\":" + relationship + ",\"p\":{\"nodes\":[" + node1 + "," + node2 + "],\"relationships\":[" +
+                      relationship + "]}}" + NEWLINE, actual );
+    }
+
+    private static BoltResult result( List<String> keys, Value[]... rows )
+    {
+        InternalRecord[] records = new InternalRecord[rows.length];
+        for ( int i = 0; i < rows.length; i++ )
+        {
+            records[i] = new InternalRecord( keys, rows[i] );
+        }
+        return new ListBoltResult( asList( records ), mock( ResultSummary.class ), keys );
+    }
+
+    private String format( BoltResult result )
+    {
+        ToStringLinePrinter linePrinter = new ToStringLinePrinter();
+        jsonlPrinter.format( result, linePrinter );
+        return linePrinter.result();
+    }
+}
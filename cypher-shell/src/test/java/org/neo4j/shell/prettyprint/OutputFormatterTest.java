@@ -23,22 +23,30 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.neo4j.driver.Query;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
 import org.neo4j.driver.internal.BoltServerAddress;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalPoint2D;
+import org.neo4j.driver.internal.InternalRelationship;
 import org.neo4j.driver.internal.summary.InternalDatabaseInfo;
 import org.neo4j.driver.internal.summary.InternalResultSummary;
 import org.neo4j.driver.internal.summary.InternalServerInfo;
 import org.neo4j.driver.internal.util.ServerVersion;
 import org.neo4j.driver.internal.value.ListValue;
 import org.neo4j.driver.internal.value.MapValue;
+import org.neo4j.driver.internal.value.PathValue;
+import org.neo4j.driver.internal.value.PointValue;
 import org.neo4j.driver.summary.ProfiledPlan;
 import org.neo4j.driver.summary.QueryType;
 import org.neo4j.driver.summary.ResultSummary;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.neo4j.driver.internal.summary.InternalProfiledPlan.PROFILED_PLAN_FROM_VALUE;
@@ -72,6 +80,45 @@ public class OutputFormatterTest
         assertThat( info.get( "DbHits" ).asLong(), equalTo( 2404L ) );
     }
 
+    @Test
+    public void shouldAppendNestedValuesToTheOutput()
+    {
+        // Given
+        OutputFormatter formatter = new SimpleOutputFormatter();
+        StringBuilder out = new StringBuilder( "before " );
+
+        // When
+        formatter.formatValue( nestedValue(), out );
+
+        // Then
+        assertThat( out.toString(), equalTo( "before {list: [1, \"two\", NULL], `odd key`: (:Person {name: \"Bob\"})-[:KNOWS]->(:Person {name: \"Bob\"}), " +
+                                             "point: point({srid:4326, x:1.5, y:2.5})}" ) );
+    }
+
+    @Test
+    public void shouldMeasureFormattedLengthWithoutFormatting()
+    {
+        OutputFormatter formatter = new SimpleOutputFormatter();
+        Value value = nestedValue();
+
+        assertThat( formatter.formattedLength( value ), equalTo( formatter.formatValue( value ).length() ) );
+        assertThat( formatter.formattedLength( null ), equalTo( 0 ) );
+    }
+
+    private Value nestedValue()
+    {
+        Map<String, Value> nodeProperties = new HashMap<>();
+        nodeProperties.put( "name", Values.value( "Bob" ) );
+        InternalNode node = new InternalNode( 1, asList( "Person" ), nodeProperties );
+        InternalRelationship relationship = new InternalRelationship( 2, 1, 1, "KNOWS" );
+
+        Map<String, Value> map = new LinkedHashMap<>();
+        map.put( "list", Values.value( asList( 1, "two", null ) ) );
+        map.put( "odd key", new PathValue( new InternalPath( node, relationship, node ) ) );
+        map.put( "point", new PointValue( new InternalPoint2D( 4326, 1.5, 2.5 ) ) );
+        return new MapValue( map );
+    }
+
     private Value buildOperator( String operator, long dbHits, long rows, Value child )
     {
         Map<String, Value> operatorMap = new HashMap<>();
@@ -50,6 +50,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.driver.internal.util.Iterables.map;
 import static org.neo4j.shell.prettyprint.OutputFormatter.NEWLINE;
@@ -80,6 +82,24 @@ public class PrettyPrinterTest
         assertThat( actual, containsString( "Added 10 nodes, Added 1 labels" ) );
     }
 
+    @Test
+    public void fetchesSummaryOnce()
+    {
+        // given
+        ResultSummary resultSummary = mock( ResultSummary.class );
+        when( resultSummary.counters() ).thenReturn( mock( SummaryCounters.class ) );
+        BoltResult result = mock( BoltResult.class );
+        when( result.getKeys() ).thenReturn( Collections.emptyList() );
+        when( result.iterate() ).thenReturn( Collections.emptyIterator() );
+        when( result.getSummary() ).thenReturn( resultSummary );
+
+        // when
+        verbosePrinter.format( result );
+
+        // then
+        verify( result, times( 1 ) ).getSummary();
+    }
+
     @Test
     public void prettyPrintProfileInformation()
     {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+public class RowPipelineTest
+{
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void printsRowsInOrderOfRecords()
+    {
+        for ( int threads : new int[] {1, 4} )
+        {
+            // given
+            List<Record> records = records( 5000 );
+            List<String> printed = new ArrayList<>();
+            Function<Record, String> rowFormatter = record -> record.get( 0 ).toString();
+
+            // when
+            int numberOfRows = new RowPipeline( threads ).formatAndPrint( records.iterator(), () -> rowFormatter, printed::add );
+
+            // then
+            assertEquals( 5000, numberOfRows );
+            assertEquals( 5000, printed.size() );
+            for ( int i = 0; i < printed.size(); i++ )
+            {
+                assertEquals( String.valueOf( i ), printed.get( i ) );
+            }
+        }
+    }
+
+    @Test
+    public void formattingErrorsArePassedOn()
+    {
+        // given
+        List<Record> records = records( 1000 );
+
+        // then
+        thrown.expect( IllegalStateException.class );
+
+        // when
+        new RowPipeline( 4 ).formatAndPrint( records.iterator(), () -> record ->
+        {
+            if ( record.get( 0 ).asInt() == 700 )
+            {
+                throw new IllegalStateException( "Can not format" );
+            }
+            return record.get( 0 ).toString();
+        }, line ->
+        {
+        } );
+    }
+
+    private static List<Record> records( int count )
+    {
+        List<Record> records = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            records.add( new InternalRecord( singletonList( "n" ), new Value[] {Values.value( i )} ) );
+        }
+        return records;
+    }
+}
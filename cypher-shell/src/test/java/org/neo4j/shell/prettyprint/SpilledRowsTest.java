@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.prettyprint;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpilledRowsTest
+{
+    @Test
+    public void rowsAreReadBackInOrder()
+    {
+        // given
+        SpilledRows rows = new SpilledRows();
+        rows.add( new String[] {"a", ""} );
+        rows.add( new String[] {"ünïcödé", "\"quoted\""} );
+
+        // when then
+        String[] row = new String[2];
+        assertEquals( 2, rows.size() );
+        assertTrue( rows.next( row ) );
+        assertArrayEquals( new String[] {"a", ""}, row );
+        assertTrue( rows.next( row ) );
+        assertArrayEquals( new String[] {"ünïcödé", "\"quoted\""}, row );
+        assertFalse( rows.next( row ) );
+        assertEquals( 0, rows.size() );
+    }
+
+    @Test
+    public void cellsCanSpanSeveralBuffers()
+    {
+        // given
+        SpilledRows rows = new SpilledRows( 6 );
+        String longCell = "a cell which is a lot longer than a single buffer";
+        rows.add( new String[] {longCell, "b"} );
+        rows.add( new String[] {"", longCell} );
+
+        // when then
+        String[] row = new String[2];
+        assertTrue( rows.next( row ) );
+        assertArrayEquals( new String[] {longCell, "b"}, row );
+        assertTrue( rows.next( row ) );
+        assertArrayEquals( new String[] {"", longCell}, row );
+        assertFalse( rows.next( row ) );
+    }
+
+    @Test
+    public void buffersAreReusedOnceTheRowsHaveBeenRead()
+    {
+        // given
+        SpilledRows.Pool pool = new SpilledRows.Pool( 6, 10 );
+        SpilledRows rows = new SpilledRows( pool );
+        rows.add( new String[] {"abcdef"} );
+        String[] row = new String[1];
+        while ( rows.next( row ) )
+        {
+            assertEquals( "abcdef", row[0] );
+        }
+        int buffers = pool.size();
+
+        // when
+        SpilledRows moreRows = new SpilledRows( pool );
+        moreRows.add( new String[] {"ghijkl"} );
+
+        // then
+        assertTrue( buffers > 1 );
+        assertEquals( 0, pool.size() );
+        assertTrue( moreRows.next( row ) );
+        assertEquals( "ghijkl", row[0] );
+        assertEquals( buffers, pool.size() );
+    }
+
+    @Test
+    public void releasingGivesBackTheBuffersOfUnreadRows()
+    {
+        // given
+        SpilledRows.Pool pool = new SpilledRows.Pool( 6, 10 );
+        SpilledRows rows = new SpilledRows( pool );
+        rows.add( new String[] {"abc", "def"} );
+
+        // when
+        rows.release();
+
+        // then
+        assertEquals( 0, rows.size() );
+        assertFalse( rows.next( new String[2] ) );
+        assertTrue( pool.size() > 0 );
+    }
+
+    @Test
+    public void poolOnlyKeepsUpToItsMaximumOfBuffers()
+    {
+        // given
+        SpilledRows.Pool pool = new SpilledRows.Pool( 6, 2 );
+        SpilledRows rows = new SpilledRows( pool );
+        rows.add( new String[] {"a cell which is a lot longer than a single buffer"} );
+
+        // when
+        while ( rows.next( new String[1] ) )
+        {
+            // read everything back
+        }
+
+        // then
+        assertEquals( 2, pool.size() );
+    }
+}
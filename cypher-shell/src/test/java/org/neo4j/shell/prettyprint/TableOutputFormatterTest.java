@@ -377,6 +377,85 @@ public class TableOutputFormatterTest
                                             NEWLINE ) ) );
     }
 
+    @Test
+    public void spilledSamplesAreFormattedLikeSampledRecords()
+    {
+        for ( int numSampleRows : new int[] {1, 2, 1000} )
+        {
+            for ( boolean wrap : new boolean[] {true, false} )
+            {
+                // GIVEN
+                Result result = mockResult( asList( "c1", "c2" ), "a", 1L,
+                                            "a much longer string", 22.5,
+                                            null, 333L,
+                                            "d", 4L );
+                ListBoltResult boltResult = new ListBoltResult( result.list(), result.consume() );
+                ToStringLinePrinter sampled = new ToStringLinePrinter();
+                ToStringLinePrinter spilled = new ToStringLinePrinter();
+                // WHEN
+                new TableOutputFormatter( wrap, numSampleRows, false, false ).formatAndCount( boltResult, sampled );
+                new TableOutputFormatter( wrap, numSampleRows, false, true ).formatAndCount( boltResult, spilled );
+                // THEN
+                assertThat( "sample rows " + numSampleRows + ", wrap " + wrap, spilled.result(), is( sampled.result() ) );
+            }
+        }
+    }
+
+    @Test
+    public void rowsFormattedOnSeveralThreadsArePrintedInOrder()
+    {
+        // GIVEN
+        Object[] values = new Object[2000];
+        for ( int i = 0; i < values.length; i += 2 )
+        {
+            values[i] = "row " + i;
+            values[i + 1] = (long) i;
+        }
+        Result result = mockResult( asList( "c1", "c2" ), values );
+        ListBoltResult boltResult = new ListBoltResult( result.list(), result.consume() );
+        ToStringLinePrinter sequential = new ToStringLinePrinter();
+        ToStringLinePrinter parallel = new ToStringLinePrinter();
+        // WHEN
+        int sequentialRows = new TableOutputFormatter( true, 10 ).formatAndCount( boltResult, sequential );
+        int parallelRows = new TableOutputFormatter( true, 10, false, false, new RowPipeline( 4 ) ).formatAndCount( boltResult, parallel );
+        // THEN
+        assertThat( parallelRows, is( sequentialRows ) );
+        assertThat( parallel.result(), is( sequential.result() ) );
+    }
+
+    @Test
+    public void adaptiveWidthsStartNewTableWhenColumnsGrow()
+    {
+        // GIVEN
+        Result result = mockResult( asList( "c1", "c2" ), "a", 1L,
+                                    "bb", 22L,
+                                    "c", 333L,
+                                    "d", 4L );
+        // WHEN
+        ToStringLinePrinter printer = new ToStringLinePrinter();
+        new TableOutputFormatter( true, 1, true ).formatAndCount( new ListBoltResult( result.list(), result.consume() ), printer );
+        String table = printer.result();
+        // THEN
+        assertThat( table, is( String.join( NEWLINE,
+                                            "+----------+",
+                                            "| c1  | c2 |",
+                                            "+----------+",
+                                            "| \"a\" | 1  |",
+                                            "+----------+",
+                                            "+-----------+",
+                                            "| c1   | c2 |",
+                                            "+-----------+",
+                                            "| \"bb\" | 22 |",
+                                            "+-----------+",
+                                            "+------------+",
+                                            "| c1   | c2  |",
+                                            "+------------+",
+                                            "| \"c\"  | 333 |",
+                                            "| \"d\"  | 4   |",
+                                            "+------------+",
+                                            NEWLINE ) ) );
+    }
+
     @Test
     public void wrapStringContentWithTwoColumns()
     {
@@ -26,6 +26,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import org.neo4j.driver.AccessMode;
 import org.neo4j.driver.AuthToken;
@@ -38,6 +39,7 @@ import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.SessionConfig;
 import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionWork;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
 import org.neo4j.driver.exceptions.ClientException;
@@ -47,6 +49,7 @@ import org.neo4j.driver.summary.DatabaseInfo;
 import org.neo4j.driver.summary.ResultSummary;
 import org.neo4j.driver.summary.ServerInfo;
 import org.neo4j.shell.ConnectionConfig;
+import org.neo4j.shell.ConnectionSetting;
 import org.neo4j.shell.TriFunction;
 import org.neo4j.shell.cli.Encryption;
 import org.neo4j.shell.exception.CommandException;
@@ -54,11 +57,13 @@ import org.neo4j.shell.log.Logger;
 import org.neo4j.shell.test.bolt.FakeDriver;
 import org.neo4j.shell.test.bolt.FakeSession;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -69,6 +74,7 @@ import static org.mockito.Mockito.anyObject;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -222,6 +228,33 @@ public class BoltStateHandlerTest
         assertFalse( boltStateHandler.isTransactionOpen() );
     }
 
+    @Test
+    public void closeTransactionAfterFailedCommit() throws CommandException
+    {
+        Transaction transactionMock = mock( Transaction.class );
+        Session sessionMock = mock( Session.class );
+        when( sessionMock.beginTransaction() ).thenReturn( transactionMock );
+        ClientException commitError = new ClientException( "commit failed" );
+        doThrow( commitError ).when( transactionMock ).commit();
+        Driver driverMock = stubResultSummaryInAnOpenSession( mock( Result.class ), sessionMock, "neo4j-version" );
+
+        OfflineBoltStateHandler boltStateHandler = new OfflineBoltStateHandler( driverMock );
+        boltStateHandler.connect();
+        boltStateHandler.beginTransaction();
+        try
+        {
+            boltStateHandler.commitTransaction();
+            fail( "Expected the commit to fail" );
+        }
+        catch ( ClientException e )
+        {
+            assertThat( e, is( commitError ) );
+        }
+
+        verify( transactionMock ).close();
+        assertFalse( boltStateHandler.isTransactionOpen() );
+    }
+
     @Test
     public void beginNeedsToBeConnected() throws CommandException
     {
@@ -276,6 +309,46 @@ public class BoltStateHandlerTest
         assertFalse( boltStateHandler.isTransactionOpen() );
     }
 
+    @Test
+    public void runCypherWithRetryMaterializesResultsInManagedTransaction() throws CommandException
+    {
+        Transaction transactionMock = mock( Transaction.class );
+        Session sessionMock = mock( Session.class );
+        Driver driverMock = stubResultSummaryInAnOpenSession( mock( Result.class ), sessionMock, "neo4j-version" );
+        Result result = mock( Result.class );
+        Record record = mock( Record.class );
+        ResultSummary summary = mock( ResultSummary.class );
+        when( result.keys() ).thenReturn( singletonList( "num" ) );
+        when( result.list() ).thenReturn( singletonList( record ) );
+        when( result.consume() ).thenReturn( summary );
+        when( transactionMock.run( (Query) anyObject() ) ).thenReturn( result );
+        when( sessionMock.writeTransaction( any() ) ).thenAnswer( invocation ->
+                ((TransactionWork<?>) invocation.getArguments()[0]).execute( transactionMock ) );
+
+        OfflineBoltStateHandler boltStateHandler = new OfflineBoltStateHandler( driverMock );
+        boltStateHandler.connect();
+        List<BoltResult> boltResults = boltStateHandler.runCypherWithRetry( asList( "RETURN 1 AS num", "RETURN 2 AS num" ), Collections.emptyMap() );
+
+        assertEquals( 2, boltResults.size() );
+        assertEquals( singletonList( record ), boltResults.get( 0 ).getRecords() );
+        assertEquals( singletonList( "num" ), boltResults.get( 0 ).getKeys() );
+        assertEquals( summary, boltResults.get( 1 ).getSummary() );
+        verify( sessionMock ).writeTransaction( any() );
+        verify( sessionMock, never() ).beginTransaction();
+    }
+
+    @Test
+    public void runCypherWithRetryNeedsNoOpenTransaction() throws CommandException
+    {
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( "Statements can not be retried in an open transaction" );
+
+        boltStateHandler.connect();
+        boltStateHandler.beginTransaction();
+
+        boltStateHandler.runCypherWithRetry( singletonList( "RETURN 1" ), Collections.emptyMap() );
+    }
+
     @Test
     public void rollbackNeedsToBeConnected() throws CommandException
     {
@@ -446,6 +519,99 @@ public class BoltStateHandlerTest
         assertTrue( provider.config.encrypted() );
     }
 
+    @Test
+    public void driverIsConfiguredWithConnectionSettings() throws CommandException
+    {
+        RecordingDriverProvider provider = new RecordingDriverProvider();
+        BoltStateHandler handler = new BoltStateHandler( provider, false );
+        ConnectionConfig config = new ConnectionConfig( "bolt", "", -1, "", "", Encryption.DEFAULT, ABSENT_DB_NAME );
+        config.setFetchSize( 5000 );
+        config.setMaxConnectionPoolSize( 3 );
+        config.setMaxConnectionLifetimeSeconds( 60 );
+
+        handler.connect( config );
+
+        assertEquals( 5000, provider.config.fetchSize() );
+        assertEquals( 3, provider.config.maxConnectionPoolSize() );
+        assertEquals( 60_000, provider.config.maxConnectionLifetimeMillis() );
+    }
+
+    @Test
+    public void reconfigureReconnectsWithNewSetting() throws CommandException
+    {
+        RecordingDriverProvider provider = new RecordingDriverProvider();
+        BoltStateHandler handler = new BoltStateHandler( provider, false );
+        handler.connect( config );
+        Config first = provider.config;
+
+        handler.reconfigure( ConnectionSetting.FETCH_SIZE, 10 );
+
+        assertNotSame( first, provider.config );
+        assertEquals( 10, provider.config.fetchSize() );
+        assertEquals( 10, handler.getConnectionConfig().fetchSize() );
+        assertTrue( handler.isConnected() );
+    }
+
+    @Test
+    public void reconfigureKeepsPreviousConnectionIfNewDriverFails() throws CommandException
+    {
+        RecordingDriverProvider provider = new RecordingDriverProvider()
+        {
+            private int calls;
+
+            @Override
+            public Driver apply( String uri, AuthToken authToken, Config config )
+            {
+                if ( ++calls == 2 )
+                {
+                    throw new org.neo4j.driver.exceptions.ServiceUnavailableException( "Unreachable" );
+                }
+                return super.apply( uri, authToken, config );
+            }
+        };
+        BoltStateHandler handler = new BoltStateHandler( provider, false );
+        handler.connect( config );
+        int fetchSize = handler.getConnectionConfig().fetchSize();
+
+        try
+        {
+            handler.reconfigure( ConnectionSetting.FETCH_SIZE, fetchSize + 10 );
+            fail( "Expected the new driver to fail" );
+        }
+        catch ( org.neo4j.driver.exceptions.ServiceUnavailableException e )
+        {
+            assertEquals( "Unreachable", e.getMessage() );
+        }
+
+        assertTrue( handler.isConnected() );
+        assertEquals( fetchSize, handler.getConnectionConfig().fetchSize() );
+        assertEquals( fetchSize, config.fetchSize() );
+        handler.runCypher( "RETURN 1", Collections.emptyMap() );
+    }
+
+    @Test
+    public void reconfigureFailsWithOpenTransaction() throws CommandException
+    {
+        RecordingDriverProvider provider = new RecordingDriverProvider();
+        BoltStateHandler handler = new BoltStateHandler( provider, false );
+        handler.connect( config );
+        handler.beginTransaction();
+
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( "There is an open transaction" );
+
+        handler.reconfigure( ConnectionSetting.FETCH_SIZE, 10 );
+    }
+
+    @Test
+    public void reconfigureFailsWhenNotConnected() throws CommandException
+    {
+        thrown.expect( CommandException.class );
+        thrown.expectMessage( "Not connected to Neo4j" );
+
+        boltStateHandler.reconfigure( ConnectionSetting.FETCH_SIZE, 10 );
+    }
+
     @Test
     public void fallbackToBolt() throws CommandException
     {
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.state;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.driver.Query;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.driver.Values.parameters;
+
+public class LiteralParameterizerTest
+{
+    @Test
+    public void liftsStringsAndNumbersIntoParameters()
+    {
+        Query query = LiteralParameterizer.parameterize( "CREATE (:X {id: 123, name: 'fo\\'o', score: 1.5, hex: 0x1F, flag: true});",
+                                                         Collections.emptyMap() );
+
+        assertEquals( "CREATE (:X {id: $literal0, name: $literal1, score: $literal2, hex: $literal3, flag: true});", query.text() );
+        assertEquals( parameters( "literal0", 123L, "literal1", "fo'o", "literal2", 1.5, "literal3", 31L ), query.parameters() );
+    }
+
+    @Test
+    public void statementsWhichOnlyDifferInLiteralsGiveTheSameQuery()
+    {
+        Query first = LiteralParameterizer.parameterize( "MATCH (n:X) WHERE n.id = 1 RETURN n.name LIMIT 10", Collections.emptyMap() );
+        Query second = LiteralParameterizer.parameterize( "MATCH (n:X) WHERE n.id = 22 RETURN n.name LIMIT 5", Collections.emptyMap() );
+
+        assertEquals( first.text(), second.text() );
+    }
+
+    @Test
+    public void keepsTheSignOfNegatedIntegers()
+    {
+        Query query = LiteralParameterizer.parameterize( "CREATE ({a: -7, b: - 3, c: -2.5, d: -9223372036854775808})", Collections.emptyMap() );
+
+        assertEquals( "CREATE ({a: -$literal0, b: - $literal1, c: $literal2, d: -9223372036854775808})", query.text() );
+        assertEquals( parameters( "literal0", 7L, "literal1", 3L, "literal2", -2.5 ), query.parameters() );
+    }
+
+    @Test
+    public void leavesNonExpressionNumbersAndCommentsAlone()
+    {
+        Query query = LiteralParameterizer.parameterize( "MATCH (a)-[*1..3]->(b) // 'x'\nRETURN b /* 4 */ SKIP 2", Collections.emptyMap() );
+
+        assertEquals( "MATCH (a)-[*1..3]->(b) // 'x'\nRETURN b /* 4 */ SKIP $literal0", query.text() );
+    }
+
+    @Test
+    public void keepsTheSessionParameters()
+    {
+        Map<String, Object> sessionParameters = new HashMap<>();
+        sessionParameters.put( "name", "a" );
+
+        Query query = LiteralParameterizer.parameterize( "MATCH (n {name: $name}) WHERE n.age > 18 RETURN n", sessionParameters );
+
+        assertEquals( "MATCH (n {name: $name}) WHERE n.age > $literal0 RETURN n", query.text() );
+        assertEquals( parameters( "name", "a", "literal0", 18L ), query.parameters() );
+    }
+
+    @Test
+    public void keepsTheColumnNamesOfItemsWithoutAlias()
+    {
+        // The server names such columns after the text of the item, so the text must not change
+        Query query = LiteralParameterizer.parameterize( "MATCH (n) WHERE n.age > 18\n" +
+                                                         "WITH n, 2 AS two\n" +
+                                                         "RETURN n.age > 18, 1, -7 , 'x', [x IN [1, 2] | x + 1], 3 AS three",
+                                                         Collections.emptyMap() );
+
+        assertEquals( "MATCH (n) WHERE n.age > $literal0\n" +
+                      "WITH n, $literal1 AS two\n" +
+                      "RETURN n.age > 18, 1, -7 , 'x', [x IN [1, 2] | x + 1], $literal2 AS three", query.text() );
+        assertEquals( parameters( "literal0", 18L, "literal1", 2L, "literal2", 3L ), query.parameters() );
+    }
+
+    @Test
+    public void keepsTheLiteralsOfProjectionsWhichAreOrdered()
+    {
+        // ORDER BY after DISTINCT or an aggregation may only use the projected expressions, as written
+        assertUnchanged( "MATCH (n) RETURN DISTINCT n.age + 1 ORDER BY n.age + 1" );
+        assertUnchanged( "MATCH (n) RETURN n.name + 'x' AS y, count(*) ORDER BY n.name + 'x'" );
+
+        Query query = LiteralParameterizer.parameterize( "MATCH (n) WHERE n.age > 18 WITH n.name + 'x' AS y, count(*) AS c ORDER BY n.name + 'x'\n" +
+                                                         "WHERE c > 2 RETURN y, 3 AS three", Collections.emptyMap() );
+
+        assertEquals( "MATCH (n) WHERE n.age > $literal0 WITH n.name + 'x' AS y, count(*) AS c ORDER BY n.name + 'x'\n" +
+                      "WHERE c > $literal1 RETURN y, $literal2 AS three", query.text() );
+        assertEquals( parameters( "literal0", 18L, "literal1", 2L, "literal2", 3L ), query.parameters() );
+    }
+
+    @Test
+    public void sendsStatementsItCanNotParseAsTheyAre()
+    {
+        assertUnchanged( "CREATE INDEX FOR (n:X) ON (n.id)" );
+        assertUnchanged( "EXPLAIN MATCH (n) WHERE n.id = 1 RETURN n" );
+        assertUnchanged( "RETURN 'unterminated" );
+    }
+
+    @Test
+    public void sendsStatementsWhichUseTheParameterNamesAsTheyAre()
+    {
+        assertUnchanged( "RETURN $literal0, 1" );
+        Query query = LiteralParameterizer.parameterize( "RETURN 1", Collections.singletonMap( "literal0", 2 ) );
+        assertEquals( "RETURN 1", query.text() );
+    }
+
+    private static void assertUnchanged( String cypher )
+    {
+        Query query = LiteralParameterizer.parameterize( cypher, Collections.emptyMap() );
+        assertEquals( cypher, query.text() );
+        assertEquals( parameters(), query.parameters() );
+    }
+}
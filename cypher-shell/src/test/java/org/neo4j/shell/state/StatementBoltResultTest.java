@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.state;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+import org.neo4j.shell.cli.Format;
+import org.neo4j.shell.prettyprint.PrettyConfig;
+import org.neo4j.shell.prettyprint.PrettyPrinter;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatementBoltResultTest
+{
+    @Test
+    public void summaryIsOnlyConsumedOnce()
+    {
+        // given
+        Result result = mock( Result.class );
+        ResultSummary summary = mock( ResultSummary.class );
+        when( result.consume() ).thenReturn( summary );
+        StatementBoltResult boltResult = new StatementBoltResult( result );
+
+        // when
+        boltResult.getSummary();
+        ResultSummary second = boltResult.getSummary();
+
+        // then
+        assertSame( summary, second );
+        verify( result, times( 1 ) ).consume();
+    }
+
+    @Test
+    public void formattingStreamsRecordsWithoutMaterializingTheResult()
+    {
+        for ( Format format : new Format[] {Format.VERBOSE, Format.PLAIN, Format.CSV, Format.JSONL} )
+        {
+            // given
+            Result result = mock( Result.class );
+            ResultSummary summary = mock( ResultSummary.class );
+            when( summary.counters() ).thenReturn( mock( SummaryCounters.class ) );
+            when( result.keys() ).thenReturn( Collections.singletonList( "n" ) );
+            Iterator<Record> records = asList( record( 1 ), record( 2 ) ).iterator();
+            when( result.hasNext() ).thenAnswer( invocation -> records.hasNext() );
+            when( result.next() ).thenAnswer( invocation -> records.next() );
+            when( result.consume() ).thenReturn( summary );
+
+            // when
+            new PrettyPrinter( new PrettyConfig( format, true, 1 ) ).format( new StatementBoltResult( result ), line ->
+            {
+            } );
+
+            // then
+            verify( result, times( 2 ) ).next();
+            verify( result, never() ).list();
+        }
+    }
+
+    private static Record record( int value )
+    {
+        return new InternalRecord( Collections.singletonList( "n" ), new Value[] {Values.value( value )} );
+    }
+}
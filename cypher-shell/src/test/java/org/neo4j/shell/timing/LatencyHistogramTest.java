@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void smallValuesAreExact()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 100; i++ )
+        {
+            histogram.record( i );
+        }
+
+        assertEquals( 100, histogram.count() );
+        assertEquals( 50, histogram.percentile( 50 ) );
+        assertEquals( 95, histogram.percentile( 95 ) );
+        assertEquals( 99, histogram.percentile( 99 ) );
+        assertEquals( 100, histogram.max() );
+    }
+
+    @Test
+    public void largeValuesAreWithinOnePercent()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long i = 1; i <= 10_000; i++ )
+        {
+            histogram.record( i * 1000 );
+        }
+
+        assertWithinOnePercent( 5_000_000, histogram.percentile( 50 ) );
+        assertWithinOnePercent( 9_500_000, histogram.percentile( 95 ) );
+        assertWithinOnePercent( 9_900_000, histogram.percentile( 99 ) );
+        assertEquals( 10_000_000, histogram.percentile( 100 ) );
+    }
+
+    @Test
+    public void valuesAtTheEndOfABucketAreWithinOnePercent()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( 8192 );
+        histogram.record( 8192 + 127 );
+
+        assertWithinOnePercent( 8192, histogram.percentile( 50 ) );
+        assertEquals( 8192 + 127, histogram.percentile( 100 ) );
+    }
+
+    @Test
+    public void bucketsCoverAllValues()
+    {
+        for ( long value : new long[]{0, 127, 128, 129, 255, 256, 257, 511, 512, 1L << 40, Long.MAX_VALUE} )
+        {
+            int index = LatencyHistogram.indexOf( value );
+            assertTrue( "upper bound of " + value, LatencyHistogram.highestValueAt( index ) >= value );
+            assertTrue( "lower bound of " + value, index == 0 || LatencyHistogram.highestValueAt( index - 1 ) < value );
+        }
+    }
+
+    @Test
+    public void emptyHistogramReportsZero()
+    {
+        assertEquals( 0, new LatencyHistogram().percentile( 99 ) );
+    }
+
+    private static void assertWithinOnePercent( long expected, long actual )
+    {
+        assertTrue( "expected about " + expected + " but was " + actual, Math.abs( expected - actual ) <= expected / 100 );
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.state.ListBoltResult;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsExporterTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final QueryTimer timer = new QueryTimer( null );
+    private Path target;
+
+    @Before
+    public void setup()
+    {
+        target = folder.getRoot().toPath().resolve( "metrics" );
+    }
+
+    @Test
+    public void writesEveryStatementAndTotalsAsJson() throws IOException
+    {
+        MetricsExporter exporter = new MetricsExporter( target, MetricsExporter.Format.JSON );
+        timer.addListener( exporter );
+
+        succeed( 2 );
+        StatementTiming failed = timer.start();
+        failed.setRetries( 3 );
+        failed.failed( "Neo.TransientError.Transaction.DeadlockDetected" );
+        assertFalse( "nothing is visible before closing", Files.exists( target ) );
+        exporter.close();
+
+        String json = new String( Files.readAllBytes( target ), StandardCharsets.UTF_8 );
+        assertThat( json, containsString( "{\"statement\":1,\"rows\":2,\"retries\":0,\"latency_us\":{" ) );
+        assertThat( json, containsString( "\"counters\":{\"nodes_created\":4,\"nodes_deleted\":0," ) );
+        assertThat( json, containsString( "{\"statement\":2,\"rows\":0,\"retries\":3,\"error\":\"Neo.TransientError.Transaction.DeadlockDetected\"" ) );
+        assertThat( json, containsString( "\"totals\":{\"statements\":2,\"rows\":2,\"retries\":3," +
+                                          "\"errors\":{\"Neo.TransientError.Transaction.DeadlockDetected\":1}," ) );
+        assertThat( json, containsString( "\"server_available\":{\"p50\":2000,\"p95\":2000,\"p99\":2000,\"max\":2000,\"count\":1}" ) );
+        assertTrue( json.trim().endsWith( "}}}" ) );
+        assertFalse( Files.exists( target.resolveSibling( "metrics.tmp" ) ) );
+    }
+
+    @Test
+    public void writesTotalsInPrometheusFormat() throws IOException
+    {
+        MetricsExporter exporter = new MetricsExporter( target, MetricsExporter.Format.PROMETHEUS );
+        timer.addListener( exporter );
+
+        succeed( 1 );
+        succeed( 1 );
+        timer.start().failed( "Neo.ClientError.Statement.SyntaxError" );
+        exporter.close();
+
+        String text = new String( Files.readAllBytes( target ), StandardCharsets.UTF_8 );
+        assertThat( text, containsString( "# TYPE cypher_shell_statements_total counter\ncypher_shell_statements_total 3\n" ) );
+        assertThat( text, containsString( "cypher_shell_statement_errors_total{code=\"Neo.ClientError.Statement.SyntaxError\"} 1\n" ) );
+        assertThat( text, containsString( "cypher_shell_rows_total 2\n" ) );
+        assertThat( text, containsString( "cypher_shell_updates_total{kind=\"nodes_created\"} 8\n" ) );
+        assertThat( text, containsString( "cypher_shell_statement_latency_seconds{phase=\"server_available\",quantile=\"0.99\"} 0.002000\n" ) );
+        assertThat( text, containsString( "cypher_shell_statement_latency_seconds_sum{phase=\"server_available\"} 0.004000\n" ) );
+        assertThat( text, containsString( "cypher_shell_statement_latency_seconds_count{phase=\"total\"} 3\n" ) );
+    }
+
+    private void succeed( int rows )
+    {
+        ResultSummary summary = mock( ResultSummary.class );
+        SummaryCounters counters = mock( SummaryCounters.class );
+        when( counters.nodesCreated() ).thenReturn( 4 );
+        when( summary.counters() ).thenReturn( counters );
+        when( summary.resultAvailableAfter( MICROSECONDS ) ).thenReturn( 2_000L );
+        when( summary.resultConsumedAfter( MICROSECONDS ) ).thenReturn( 1_000L );
+
+        StatementTiming timing = timer.start();
+        timing.sent();
+        BoltResult result = timing.time( new ListBoltResult( Collections.nCopies( rows, mock( Record.class ) ), summary, Collections.emptyList() ) );
+        result.iterate().forEachRemaining( record ->
+                                           {
+                                           } );
+        timing.finish( summary );
+    }
+}
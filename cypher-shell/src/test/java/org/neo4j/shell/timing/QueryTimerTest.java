@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell.timing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.shell.state.BoltResult;
+import org.neo4j.shell.state.ListBoltResult;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QueryTimerTest
+{
+    private final List<String> report = new ArrayList<>();
+    private final QueryTimer timer = new QueryTimer( report::add );
+
+    @Test
+    public void reportsEachStatementAndSummary()
+    {
+        ResultSummary summary = summary( 2_000, 3_000 );
+        StatementTiming timing = timer.start();
+        timing.sent();
+        BoltResult result = timing.time( new ListBoltResult( Collections.singletonList( mock( Record.class ) ), summary ) );
+        Iterator<Record> records = result.iterate();
+        while ( records.hasNext() )
+        {
+            timing.time( line -> { } ).printData( records.next().toString() );
+        }
+        timing.finish( summary );
+
+        assertEquals( 2_000L, (long) timing.micros().get( StatementTiming.Phase.SERVER_AVAILABLE ) );
+        assertEquals( 3_000L, (long) timing.micros().get( StatementTiming.Phase.SERVER_CONSUMED ) );
+        assertTrue( timing.micros().containsKey( StatementTiming.Phase.FIRST_RECORD ) );
+        assertEquals( 1, report.size() );
+        assertThat( report.get( 0 ), containsString( "server available 2.000 ms" ) );
+
+        timer.printSummary();
+        assertThat( report.get( 1 ), containsString( "Timing of 1 statements" ) );
+        assertTrue( report.stream().anyMatch( line -> line.contains( "server consumed" ) && line.contains( "max   3.000 ms" ) ) );
+    }
+
+    @Test
+    public void emptyResultHasNoFirstRecord()
+    {
+        ResultSummary summary = summary( -1, -1 );
+        StatementTiming timing = timer.start();
+        timing.sent();
+        assertFalse( timing.time( new ListBoltResult( Collections.emptyList(), summary ) ).iterate().hasNext() );
+        timing.finish( summary );
+
+        assertFalse( timing.micros().containsKey( StatementTiming.Phase.FIRST_RECORD ) );
+        assertFalse( timing.micros().containsKey( StatementTiming.Phase.SERVER_AVAILABLE ) );
+        assertThat( report.get( 0 ), not( containsString( "first record" ) ) );
+        assertTrue( timing.micros().containsKey( StatementTiming.Phase.TOTAL ) );
+    }
+
+    @Test
+    public void disabledTimingPassesThrough()
+    {
+        BoltResult result = new ListBoltResult( Collections.emptyList(), summary( 1, 1 ) );
+
+        assertSame( result, StatementTiming.NONE.time( result ) );
+        StatementTiming.NONE.finish( result.getSummary() );
+        assertTrue( StatementTiming.NONE.micros().isEmpty() );
+    }
+
+    @Test
+    public void heldTimingsAreOnlyReportedOnceReleased()
+    {
+        List<Long> numbers = new ArrayList<>();
+        timer.addListener( timing -> numbers.add( timing.number() ) );
+
+        timer.hold();
+        timer.start().failed( "Neo.ClientError.Statement.SyntaxError" );
+        timer.discard();
+        timer.hold();
+        timer.start().failed( null );
+        timer.start().failed( null );
+        assertTrue( report.isEmpty() );
+        timer.release();
+        timer.start().failed( null );
+
+        assertEquals( asList( 1L, 2L, 3L ), numbers );
+        assertEquals( 3, report.size() );
+        assertThat( report.get( 0 ), not( containsString( "SyntaxError" ) ) );
+    }
+
+    @Test
+    public void noSummaryWithoutStatements()
+    {
+        timer.printSummary();
+
+        assertTrue( report.isEmpty() );
+    }
+
+    private static ResultSummary summary( long availableMicros, long consumedMicros )
+    {
+        ResultSummary summary = mock( ResultSummary.class );
+        when( summary.resultAvailableAfter( MICROSECONDS ) ).thenReturn( availableMicros );
+        when( summary.resultConsumedAfter( MICROSECONDS ) ).thenReturn( consumedMicros );
+        return summary;
+    }
+}